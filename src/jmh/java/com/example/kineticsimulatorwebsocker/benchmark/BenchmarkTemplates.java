@@ -0,0 +1,45 @@
+package com.example.kineticsimulatorwebsocker.benchmark;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 基准测试用的模板：根为数组（高级模式下groupCount作用于根数组），元素为指定字段数、嵌套深度的对象
+ */
+final class BenchmarkTemplates {
+    private static final String[] TYPES = {"int", "double", "string", "boolean", "uuid", "date", "price", "email"};
+    // 只含文本类字段的模板
+    private static final String[] TEXT_TYPES = {"email", "phone", "ip", "url", "uuid", "name", "color", "string"};
+
+    final ArrayNode template;
+    final Map<String, String> fieldTypes = new HashMap<>();
+    private final String[] types;
+
+    BenchmarkTemplates(int fieldCount, int depth) {
+        this(fieldCount, depth, false);
+    }
+
+    BenchmarkTemplates(int fieldCount, int depth, boolean textOnly) {
+        types = textOnly ? TEXT_TYPES : TYPES;
+        template = JsonNodeFactory.instance.arrayNode();
+        template.add(buildObject(fieldCount, depth, "[0]."));
+    }
+
+    // 每层fieldCount个叶子字段，depth > 1时再嵌套一个child对象
+    private ObjectNode buildObject(int fieldCount, int depth, String path) {
+        ObjectNode obj = JsonNodeFactory.instance.objectNode();
+        for (int i = 0; i < fieldCount; i++) {
+            String name = "f" + i;
+            obj.put(name, "");
+            fieldTypes.put(path + name, types[i % types.length]);
+        }
+        if (depth > 1) {
+            obj.set("child", buildObject(fieldCount, depth - 1, path + "child."));
+        }
+        return obj;
+    }
+}
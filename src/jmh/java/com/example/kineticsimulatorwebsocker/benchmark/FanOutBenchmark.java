@@ -0,0 +1,65 @@
+package com.example.kineticsimulatorwebsocker.benchmark;
+
+import com.example.kineticsimulatorwebsocker.generator.GeneratorPlan;
+import com.example.kineticsimulatorwebsocker.generator.PayloadBuffer;
+import com.example.kineticsimulatorwebsocker.generator.TemplateCompiler;
+import com.example.kineticsimulatorwebsocker.random.RandomSource;
+import com.example.kineticsimulatorwebsocker.websocket.SessionSender;
+import org.openjdk.jmh.annotations.*;
+
+import javax.websocket.Session;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 广播扇出：一帧数据生成一次后发送给N个模拟会话，对比每个会话各自生成的开销
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class FanOutBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int sessionCount;
+
+    private Session[] sessions;
+    private GeneratorPlan plan;
+
+    @Setup
+    public void setUp() {
+        BenchmarkTemplates templates = new BenchmarkTemplates(16, 2);
+        plan = TemplateCompiler.compile(templates.template, templates.fieldTypes, null, null, "advanced", 3);
+        sessions = new Session[sessionCount];
+        for (int i = 0; i < sessionCount; i++) {
+            sessions[i] = MockSessions.create(String.valueOf(i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (Session session : sessions) {
+            SessionSender.remove(session);
+        }
+    }
+
+    // 广播组的做法：生成一次，同一字符串发给所有会话
+    @Benchmark
+    public void generateOnceFanOut() throws IOException {
+        PayloadBuffer payload = PayloadBuffer.forCurrentThread();
+        plan.writeTo(payload, RandomSource.threadLocal());
+        String frame = payload.toString();
+        for (Session session : sessions) {
+            SessionSender.of(session).send(frame);
+        }
+    }
+
+    // 未启用广播组时的做法：每个会话各自生成
+    @Benchmark
+    public void generatePerSession() throws IOException {
+        for (Session session : sessions) {
+            PayloadBuffer payload = PayloadBuffer.forCurrentThread();
+            plan.writeTo(payload, RandomSource.threadLocal());
+            SessionSender.of(session).send(payload.toString());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.kineticsimulatorwebsocker.benchmark;
+
+import com.example.kineticsimulatorwebsocker.model.KineticData;
+import com.example.kineticsimulatorwebsocker.model.KineticDataJsonWriter;
+import com.example.kineticsimulatorwebsocker.model.MessageResponse;
+import com.example.kineticsimulatorwebsocker.simulation.TrackSimulator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 雷达数据：生成、序列化以及/websocket/kinetic推送路径上的生成+序列化
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class KineticDataBenchmark {
+    // 默认配置：4个目标，与KineticDataService.generateKineticData的快照相同
+    private final TrackSimulator simulator = new TrackSimulator(new TrackSimulator.Settings());
+    private final ObjectMapper mapper = new ObjectMapper();
+    private MessageResponse response;
+
+    @Setup
+    public void setUp() {
+        response = new MessageResponse(simulator.snapshot());
+    }
+
+    @Benchmark
+    public List<KineticData> generate() {
+        return simulator.snapshot();
+    }
+
+    @Benchmark
+    public String serialize() throws JsonProcessingException {
+        return mapper.writeValueAsString(response);
+    }
+
+    @Benchmark
+    public String serializeHandRolled() {
+        return KineticDataJsonWriter.toJson(response.getData());
+    }
+
+    // 原推送路径：每次新建ObjectMapper
+    @Benchmark
+    public String generateAndSerializeWithNewMapper() throws JsonProcessingException {
+        return new ObjectMapper().writeValueAsString(new MessageResponse(simulator.snapshot()));
+    }
+
+    // 当前KineticWebSocketServer.sendKineticData的推送路径
+    @Benchmark
+    public String generateAndSerializeHandRolled() {
+        return KineticDataJsonWriter.toJson(simulator.snapshot());
+    }
+}
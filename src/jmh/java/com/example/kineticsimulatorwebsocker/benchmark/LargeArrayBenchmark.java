@@ -0,0 +1,48 @@
+package com.example.kineticsimulatorwebsocker.benchmark;
+
+import com.example.kineticsimulatorwebsocker.generator.GeneratorEngine;
+import com.example.kineticsimulatorwebsocker.generator.GeneratorPlan;
+import com.example.kineticsimulatorwebsocker.generator.PayloadBuffer;
+import com.example.kineticsimulatorwebsocker.generator.TemplateCompiler;
+import com.example.kineticsimulatorwebsocker.random.RandomSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 大数组模板（高级模式按groupCount复制根数组元素）的流式生成，对比顺序生成与分块并行生成
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class LargeArrayBenchmark {
+
+    @Param({"1000", "10000"})
+    public int arraySize;
+
+    // 0为顺序生成
+    @Param({"0", "512"})
+    public int parallelChunkSize;
+
+    private GeneratorPlan plan;
+
+    @Setup
+    public void setUp() {
+        GeneratorEngine.configureLargeArrays(arraySize, parallelChunkSize > 0 ? 1 : 0, Math.max(parallelChunkSize, 1));
+        BenchmarkTemplates templates = new BenchmarkTemplates(8, 1);
+        plan = TemplateCompiler.compile(templates.template, templates.fieldTypes, null, null, GeneratorEngine.ADVANCED, arraySize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        GeneratorEngine.configureLargeArrays(10000, 4096, 512);
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        PayloadBuffer payload = PayloadBuffer.forCurrentThread();
+        plan.writeTo(payload, RandomSource.threadLocal());
+        return payload.length();
+    }
+}
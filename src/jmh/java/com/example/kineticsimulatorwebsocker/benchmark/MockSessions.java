@@ -0,0 +1,49 @@
+package com.example.kineticsimulatorwebsocker.benchmark;
+
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 不做网络I/O的模拟会话：异步发送立即回调成功，只统计发送的字符数
+ */
+final class MockSessions {
+
+    private MockSessions() {}
+
+    static Session create(String id) {
+        Map<String, Object> userProperties = new ConcurrentHashMap<>();
+        RemoteEndpoint.Async async = (RemoteEndpoint.Async) Proxy.newProxyInstance(MockSessions.class.getClassLoader(),
+                new Class<?>[]{RemoteEndpoint.Async.class}, (proxy, method, args) -> {
+                    if ("sendText".equals(method.getName()) && args != null && args.length == 2) {
+                        ((SendHandler) args[1]).onResult(new SendResult());
+                    }
+                    return null;
+                });
+        return (Session) Proxy.newProxyInstance(MockSessions.class.getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getId":
+                            return id;
+                        case "isOpen":
+                            return true;
+                        case "getAsyncRemote":
+                            return async;
+                        case "getUserProperties":
+                            return userProperties;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "MockSession-" + id;
+                        default:
+                            return null;
+                    }
+                });
+    }
+}
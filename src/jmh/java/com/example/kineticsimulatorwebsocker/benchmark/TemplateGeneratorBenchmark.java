@@ -0,0 +1,71 @@
+package com.example.kineticsimulatorwebsocker.benchmark;
+
+import com.example.kineticsimulatorwebsocker.generator.GeneratorPlan;
+import com.example.kineticsimulatorwebsocker.generator.PayloadBuffer;
+import com.example.kineticsimulatorwebsocker.generator.TemplateCompiler;
+import com.example.kineticsimulatorwebsocker.random.RandomSource;
+import com.example.kineticsimulatorwebsocker.websocket.AdvancedDataGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 动态模板生成：普通/高级模式的编译计划流式输出、树形生成，以及每次都重新编译的AdvancedDataGenerator.generate
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class TemplateGeneratorBenchmark {
+
+    @Param({"8", "64"})
+    public int fieldCount;
+
+    @Param({"1", "4"})
+    public int depth;
+
+    @Param({"1", "3"})
+    public int groupCount;
+
+    // mixed为数值、文本混合的字段，text只含邮箱、手机号、UUID等文本类字段
+    @Param({"mixed", "text"})
+    public String fieldKind;
+
+    private BenchmarkTemplates templates;
+    private GeneratorPlan normalPlan;
+    private GeneratorPlan advancedPlan;
+
+    @Setup
+    public void setUp() {
+        templates = new BenchmarkTemplates(fieldCount, depth, "text".equals(fieldKind));
+        normalPlan = TemplateCompiler.compile(templates.template, templates.fieldTypes, null, null, "normal", 1);
+        advancedPlan = TemplateCompiler.compile(templates.template, templates.fieldTypes, null, null, "advanced", groupCount);
+    }
+
+    // 普通模式推送路径（原generateRandomByTemplate）：编译后的计划直接写入复用缓冲区
+    @Benchmark
+    public int normalPlanWrite() throws IOException {
+        PayloadBuffer payload = PayloadBuffer.forCurrentThread();
+        normalPlan.writeTo(payload, RandomSource.threadLocal());
+        return payload.length();
+    }
+
+    @Benchmark
+    public int advancedPlanWrite() throws IOException {
+        PayloadBuffer payload = PayloadBuffer.forCurrentThread();
+        advancedPlan.writeTo(payload, RandomSource.threadLocal());
+        return payload.length();
+    }
+
+    @Benchmark
+    public JsonNode advancedPlanTree() {
+        return advancedPlan.generate(RandomSource.threadLocal());
+    }
+
+    // 每次调用都重新编译模板
+    @Benchmark
+    public JsonNode advancedGenerate() {
+        return AdvancedDataGenerator.generate(templates.template, templates.fieldTypes, null, null, groupCount);
+    }
+}
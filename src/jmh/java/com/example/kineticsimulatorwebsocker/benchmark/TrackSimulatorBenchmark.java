@@ -0,0 +1,53 @@
+package com.example.kineticsimulatorwebsocker.benchmark;
+
+import com.example.kineticsimulatorwebsocker.model.KineticData;
+import com.example.kineticsimulatorwebsocker.simulation.Region;
+import com.example.kineticsimulatorwebsocker.simulation.TrackSimulator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 目标仿真：不同目标数下推进一步、生成全部目标快照和区域快照的耗时（目标数达到20000时并行推进）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TrackSimulatorBenchmark {
+    @Param({"100", "10000", "100000"})
+    public int targetCount;
+
+    private TrackSimulator simulator;
+    // 约占监视区域1%的订阅区域
+    private final Region region = new Region(-500, 500, 40000, 45000);
+
+    @Setup
+    public void setUp() {
+        TrackSimulator.Settings settings = new TrackSimulator.Settings();
+        settings.targetCount = targetCount;
+        settings.rangeX = 5000;
+        settings.rangeY = 100000;
+        settings.maxSpeed = 300;
+        settings.maxAcceleration = 20;
+        settings.gridCellSize = 1000;
+        simulator = new TrackSimulator(settings);
+    }
+
+    @Benchmark
+    public void step() {
+        simulator.step(0.1);
+    }
+
+    @Benchmark
+    public List<KineticData> snapshot() {
+        return simulator.snapshot();
+    }
+
+    // 每次先推进一步使网格失效，包含网格重建的开销
+    @Benchmark
+    public List<KineticData> stepAndSnapshotRegion() {
+        simulator.step(0.1);
+        return simulator.snapshot(region);
+    }
+}
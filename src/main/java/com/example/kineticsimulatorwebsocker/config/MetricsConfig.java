@@ -0,0 +1,71 @@
+package com.example.kineticsimulatorwebsocker.config;
+
+import com.example.kineticsimulatorwebsocker.metrics.PushMetrics;
+import com.example.kineticsimulatorwebsocker.scheduler.TickScheduler;
+import com.example.kineticsimulatorwebsocker.websocket.DynamicWebSocketServer;
+import com.example.kineticsimulatorwebsocker.websocket.KineticWebSocketServer;
+import com.example.kineticsimulatorwebsocker.websocket.SessionSender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 推送指标配置类
+ * 在线连接数、发送队列深度和调度器统计以Gauge/FunctionCounter形式在抓取时读取，推送路径上不产生额外开销；
+ * 生成/序列化耗时和发送字节数由PushMetrics在推送时记录。通过/actuator/prometheus导出
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder pushMetrics(TickScheduler tickScheduler) {
+        return registry -> {
+            PushMetrics.bind(registry);
+
+            Gauge.builder("websocket.sessions", DynamicWebSocketServer::getOnlineCount)
+                    .description("在线连接数").tag("endpoint", PushMetrics.DYNAMIC).register(registry);
+            Gauge.builder("websocket.sessions", KineticWebSocketServer::getOnlineCount)
+                    .description("在线连接数").tag("endpoint", PushMetrics.KINETIC).register(registry);
+            for (String endpoint : new String[]{PushMetrics.DYNAMIC, PushMetrics.KINETIC}) {
+                Gauge.builder("websocket.send.queue.depth", () -> queueDepth(endpoint, false))
+                        .description("所有连接发送队列中的消息总数").tag("endpoint", endpoint).tag("stat", "total")
+                        .register(registry);
+                Gauge.builder("websocket.send.queue.depth", () -> queueDepth(endpoint, true))
+                        .description("单个连接发送队列的最大深度").tag("endpoint", endpoint).tag("stat", "max")
+                        .register(registry);
+            }
+
+            Gauge.builder("websocket.scheduler.scheduled", tickScheduler, TickScheduler::getScheduledCount)
+                    .description("时间轮中注册的定时推送数").register(registry);
+            FunctionCounter.builder("websocket.scheduler.fired", tickScheduler, TickScheduler::getFiredCount)
+                    .description("已执行的推送tick数").register(registry);
+            FunctionCounter.builder("websocket.scheduler.skipped", tickScheduler, TickScheduler::getSkippedCount)
+                    .description("上一次尚未执行完而跳过的tick数").register(registry);
+            FunctionCounter.builder("websocket.scheduler.shed", tickScheduler, TickScheduler::getShedCount)
+                    .description("延迟超过一个推送间隔而丢弃的tick数").register(registry);
+            Timer lateness = Timer.builder("websocket.scheduler.lateness")
+                    .description("tick实际执行时间相对计划时间的延迟")
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(1000))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(registry);
+            tickScheduler.setLatenessListener(nanos -> lateness.record(nanos, TimeUnit.NANOSECONDS));
+        };
+    }
+
+    private static int queueDepth(String endpoint, boolean max) {
+        int result = 0;
+        for (SessionSender sender : SessionSender.all()) {
+            if (!endpoint.equals(sender.getEndpoint())) continue;
+            int depth = sender.getQueueDepth();
+            result = max ? Math.max(result, depth) : result + depth;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.kineticsimulatorwebsocker.config;
+
+import com.example.kineticsimulatorwebsocker.simulation.TrackSimulator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 雷达目标仿真配置类
+ */
+@Configuration
+public class SimulatorConfig {
+    private static final Logger logger = LoggerFactory.getLogger(SimulatorConfig.class);
+
+    @Bean
+    public TrackSimulator trackSimulator(SimulatorProperties simulatorProperties) {
+        TrackSimulator.Settings settings = new TrackSimulator.Settings();
+        settings.targetCount = simulatorProperties.getTargetCount();
+        settings.rangeX = simulatorProperties.getRangeX();
+        settings.rangeY = simulatorProperties.getRangeY();
+        settings.rangeZ = simulatorProperties.getRangeZ();
+        settings.maxSpeed = simulatorProperties.getMaxSpeed();
+        settings.maxAcceleration = simulatorProperties.getMaxAcceleration();
+        settings.meanLifetimeSeconds = simulatorProperties.getMeanLifetimeSeconds();
+        settings.parallelThreshold = simulatorProperties.getParallelThreshold();
+        settings.parallelChunkSize = simulatorProperties.getParallelChunkSize();
+        settings.firstId = simulatorProperties.getFirstId();
+        settings.gridCellSize = simulatorProperties.getGridCellSize();
+        logger.info("目标仿真: 目标数={}, 步长={}ms", settings.targetCount, simulatorProperties.getStepMillis());
+        return new TrackSimulator(settings);
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.kineticsimulatorwebsocker.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "simulator")
+public class SimulatorProperties {
+    // 同时存在的目标数，目标消亡后立即补充新目标
+    private int targetCount = 4;
+    // 仿真步长（毫秒），与推送频率无关
+    private long stepMillis = 100;
+    // 监视区域：x在[-rangeX, rangeX]，y在[0, rangeY]，z在[-rangeZ, rangeZ]（米），目标飞出区域即消亡
+    private double rangeX = 5;
+    private double rangeY = 100;
+    private double rangeZ = 2.5;
+    // 水平速度上限（米/秒）和每个轴的加速度上限（米/秒²）
+    private double maxSpeed = 1.0;
+    private double maxAcceleration = 0.5;
+    // 目标平均寿命（秒），0表示只在飞出区域时消亡
+    private double meanLifetimeSeconds = 60;
+    // 目标数不少于该值时按分块并行推进
+    private int parallelThreshold = 20000;
+    // 并行推进时每块的目标数
+    private int parallelChunkSize = 4096;
+    // 新目标的起始编号
+    private int firstId = 2500;
+    // 区域订阅使用的均匀网格边长（米）
+    private double gridCellSize = 10;
+    // /websocket/kinetic的推送间隔（毫秒），可通过/api/simulation-config在运行时调整
+    private long pushIntervalMillis = 5000;
+    // 动态模板中数组的元素个数上限，高级模式的groupCount和模板的arrayLengths都不能超过
+    private int maxArraySize = 10000;
+    // 元素个数不少于该值的数组分块并行生成，0表示不并行
+    private int arrayParallelThreshold = 4096;
+    // 并行生成数组时每块的元素个数
+    private int arrayChunkSize = 512;
+    // 分块生成线程池的线程数，0表示按CPU核数
+    private int arrayParallelThreads = 0;
+
+    public int getTargetCount() {
+        return targetCount;
+    }
+
+    public void setTargetCount(int targetCount) {
+        this.targetCount = targetCount;
+    }
+
+    public long getStepMillis() {
+        return stepMillis;
+    }
+
+    public void setStepMillis(long stepMillis) {
+        this.stepMillis = stepMillis;
+    }
+
+    public double getRangeX() {
+        return rangeX;
+    }
+
+    public void setRangeX(double rangeX) {
+        this.rangeX = rangeX;
+    }
+
+    public double getRangeY() {
+        return rangeY;
+    }
+
+    public void setRangeY(double rangeY) {
+        this.rangeY = rangeY;
+    }
+
+    public double getRangeZ() {
+        return rangeZ;
+    }
+
+    public void setRangeZ(double rangeZ) {
+        this.rangeZ = rangeZ;
+    }
+
+    public double getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public void setMaxSpeed(double maxSpeed) {
+        this.maxSpeed = maxSpeed;
+    }
+
+    public double getMaxAcceleration() {
+        return maxAcceleration;
+    }
+
+    public void setMaxAcceleration(double maxAcceleration) {
+        this.maxAcceleration = maxAcceleration;
+    }
+
+    public double getMeanLifetimeSeconds() {
+        return meanLifetimeSeconds;
+    }
+
+    public void setMeanLifetimeSeconds(double meanLifetimeSeconds) {
+        this.meanLifetimeSeconds = meanLifetimeSeconds;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public int getParallelChunkSize() {
+        return parallelChunkSize;
+    }
+
+    public void setParallelChunkSize(int parallelChunkSize) {
+        this.parallelChunkSize = parallelChunkSize;
+    }
+
+    public int getFirstId() {
+        return firstId;
+    }
+
+    public void setFirstId(int firstId) {
+        this.firstId = firstId;
+    }
+
+    public double getGridCellSize() {
+        return gridCellSize;
+    }
+
+    public void setGridCellSize(double gridCellSize) {
+        this.gridCellSize = gridCellSize;
+    }
+
+    public long getPushIntervalMillis() {
+        return pushIntervalMillis;
+    }
+
+    public void setPushIntervalMillis(long pushIntervalMillis) {
+        this.pushIntervalMillis = pushIntervalMillis;
+    }
+
+    public int getMaxArraySize() {
+        return maxArraySize;
+    }
+
+    public void setMaxArraySize(int maxArraySize) {
+        this.maxArraySize = maxArraySize;
+    }
+
+    public int getArrayParallelThreshold() {
+        return arrayParallelThreshold;
+    }
+
+    public void setArrayParallelThreshold(int arrayParallelThreshold) {
+        this.arrayParallelThreshold = arrayParallelThreshold;
+    }
+
+    public int getArrayChunkSize() {
+        return arrayChunkSize;
+    }
+
+    public void setArrayChunkSize(int arrayChunkSize) {
+        this.arrayChunkSize = arrayChunkSize;
+    }
+
+    public int getArrayParallelThreads() {
+        return arrayParallelThreads;
+    }
+
+    public void setArrayParallelThreads(int arrayParallelThreads) {
+        this.arrayParallelThreads = arrayParallelThreads;
+    }
+}
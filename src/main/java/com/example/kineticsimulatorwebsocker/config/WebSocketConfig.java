@@ -1,18 +1,161 @@
 package com.example.kineticsimulatorwebsocker.config;
 
+import com.example.kineticsimulatorwebsocker.diagnostics.PushEvents;
+import com.example.kineticsimulatorwebsocker.generator.GeneratorEngine;
+import com.example.kineticsimulatorwebsocker.generator.PayloadBuffer;
+import com.example.kineticsimulatorwebsocker.generator.TemplateRegistry;
+import com.example.kineticsimulatorwebsocker.metrics.PushMetrics;
+import com.example.kineticsimulatorwebsocker.metrics.TickTimings;
+import com.example.kineticsimulatorwebsocker.random.RandomSources;
+import com.example.kineticsimulatorwebsocker.scheduler.TickScheduler;
+import com.example.kineticsimulatorwebsocker.scheduler.VirtualThreads;
+import com.example.kineticsimulatorwebsocker.websocket.DeflateConfigurator;
+import com.example.kineticsimulatorwebsocker.websocket.SessionSender;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.web.socket.server.standard.ServerEndpointExporter;
 
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
 /**
  * WebSocket配置类
  * 启用WebSocket支持
  */
 @Configuration
 public class WebSocketConfig {
-    
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketConfig.class);
+
+    // 会话发送循环使用的执行器，未配置时为null
+    private ExecutorService sendExecutor;
+
     @Bean
     public ServerEndpointExporter serverEndpointExporter() {
         return new ServerEndpointExporter();
     }
-} 
\ No newline at end of file
+
+    /**
+     * 会话定时推送调度器：时间轮的工作线程只负责生成数据，线程数默认与CPU核数一致
+     */
+    @Bean(destroyMethod = "shutdown")
+    public TickScheduler tickScheduler(WebSocketProperties webSocketProperties) {
+        int generatorThreads = webSocketProperties.getGeneratorThreads() > 0
+                ? webSocketProperties.getGeneratorThreads() : Runtime.getRuntime().availableProcessors();
+        logger.info("推送时间轮: tick={}ms, 槽位数={}, 生成线程数={}", webSocketProperties.getTickMillis(),
+                webSocketProperties.getWheelSize(), generatorThreads);
+        TickScheduler tickScheduler = new TickScheduler(webSocketProperties.getTickMillis(),
+                webSocketProperties.getWheelSize(), generatorThreads);
+        tickScheduler.setShedLateTicks(webSocketProperties.isTickShedLateTicks());
+        return tickScheduler;
+    }
+
+    /**
+     * 未收到模板时延迟分配全局模板的调度器
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService templateFallbackScheduler(WebSocketProperties webSocketProperties) {
+        return Executors.newScheduledThreadPool(Math.max(webSocketProperties.getSchedulerThreads(), 1),
+                TickScheduler.namedThreadFactory("template-fallback-"));
+    }
+
+    /**
+     * 将发送队列配置应用到会话异步发送器，并按配置选择发送方式：
+     * 虚拟线程 > 固定大小的发送线程池 > 容器异步发送
+     */
+    @Autowired
+    public void configureSessionSender(WebSocketProperties webSocketProperties) {
+        if (webSocketProperties.isVirtualThreads()) {
+            sendExecutor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+            if (sendExecutor != null) {
+                logger.info("会话发送循环运行在虚拟线程上");
+            } else {
+                logger.warn("当前JDK不支持虚拟线程（需要JDK 21+），回退到websocket.send-threads配置");
+            }
+        }
+        if (sendExecutor == null && webSocketProperties.getSendThreads() > 0) {
+            sendExecutor = Executors.newFixedThreadPool(webSocketProperties.getSendThreads(),
+                    TickScheduler.namedThreadFactory("session-send-"));
+            logger.info("会话发送循环运行在{}个发送线程上", webSocketProperties.getSendThreads());
+        }
+        SessionSender.configure(webSocketProperties.getSendQueueCapacity(), webSocketProperties.getSendOverflowPolicy(),
+                webSocketProperties.getSendTimeoutMillis(), sendExecutor);
+        PayloadBuffer.configure(webSocketProperties.getFragmentThresholdChars());
+    }
+
+    /**
+     * 配置未指定种子的会话使用的随机源
+     */
+    @Autowired
+    public void configureRandomSources(WebSocketProperties webSocketProperties) {
+        RandomSources.configure(webSocketProperties.getRandomSourceMode(), webSocketProperties.getRandomSeed());
+    }
+
+    /**
+     * 将各端点的permessage-deflate配置应用到握手协商
+     */
+    @Autowired
+    public void configureCompression(WebSocketProperties webSocketProperties) {
+        DeflateConfigurator.configure(PushMetrics.DYNAMIC, toSettings(webSocketProperties.getDynamicCompression()),
+                webSocketProperties.getCompressionSampleRate());
+        DeflateConfigurator.configure(PushMetrics.KINETIC, toSettings(webSocketProperties.getKineticCompression()),
+                webSocketProperties.getCompressionSampleRate());
+    }
+
+    /**
+     * 推送诊断事件的采样率和环形缓冲区大小
+     */
+    @Autowired
+    public void configureDiagnostics(WebSocketProperties webSocketProperties) {
+        PushEvents.configure(webSocketProperties.getDiagnosticsCapacity(), webSocketProperties.getDiagnosticsSampleRate(),
+                webSocketProperties.isDiagnosticsLogSampled());
+    }
+
+    /**
+     * 会话tick时间精度的告警阈值
+     */
+    @Autowired
+    public void configureTickTimings(WebSocketProperties webSocketProperties) {
+        TickTimings.configure(webSocketProperties.getTickWarnThresholdMillis(), webSocketProperties.getTickWarnIntervalMillis());
+    }
+
+    /**
+     * 设置生成引擎的大数组参数，再加载模板注册表的持久化文件（预编译模板时会用到数组上限）
+     */
+    @Autowired
+    public void configureTemplateRegistry(WebSocketProperties webSocketProperties, SimulatorProperties simulatorProperties) {
+        GeneratorEngine.configureLargeArrays(simulatorProperties.getMaxArraySize(),
+                simulatorProperties.getArrayParallelThreshold(), simulatorProperties.getArrayChunkSize(),
+                simulatorProperties.getArrayParallelThreads());
+        TemplateRegistry.configure(webSocketProperties.getTemplateStorePath(), webSocketProperties.getTemplateCacheSize(),
+                webSocketProperties.getTemplateStoreMaxEntries());
+    }
+
+    /**
+     * 在容器处理WebSocket升级之前记录握手请求的查询参数，压缩协商据此按模板或编码判断平均帧大小
+     */
+    @Bean
+    public FilterRegistrationBean<DeflateConfigurator.HandshakeFilter> deflateHandshakeFilter() {
+        FilterRegistrationBean<DeflateConfigurator.HandshakeFilter> registration =
+                new FilterRegistrationBean<>(new DeflateConfigurator.HandshakeFilter());
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    private static DeflateConfigurator.Settings toSettings(WebSocketProperties.Compression compression) {
+        return new DeflateConfigurator.Settings(compression.isEnabled(), compression.getMinFrameBytes(),
+                compression.isServerNoContextTakeover(), compression.isClientNoContextTakeover());
+    }
+
+    @PreDestroy
+    public void shutdownSendExecutor() {
+        if (sendExecutor != null) sendExecutor.shutdownNow();
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.kineticsimulatorwebsocker.config;
 
+import com.example.kineticsimulatorwebsocker.random.RandomSourceMode;
+import com.example.kineticsimulatorwebsocker.websocket.SendOverflowPolicy;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -7,6 +9,95 @@ import org.springframework.stereotype.Component;
 @ConfigurationProperties(prefix = "websocket")
 public class WebSocketProperties {
     private String endpointPath = "/";
+    // 模板和推送间隔相同的会话是否共享一次生成（广播组），默认关闭
+    private boolean broadcastGroupEnabled = false;
+    // 每个会话发送队列的最大长度
+    private int sendQueueCapacity = 16;
+    // 发送队列满时的处理策略：DROP_OLDEST/DROP_NEWEST/COALESCE/DISCONNECT
+    private SendOverflowPolicy sendOverflowPolicy = SendOverflowPolicy.DROP_OLDEST;
+    // 单条消息异步发送超时时间（毫秒）
+    private long sendTimeoutMillis = 10000;
+    // 超过该字符数的文本帧按分片消息发送，不合并成完整字符串，0表示总是整帧发送
+    private int fragmentThresholdChars = 1024 * 1024;
+    // 未收到模板时延迟分配全局模板的调度线程数
+    private int schedulerThreads = 1;
+    // 推送时间轮的tick粒度（毫秒）和槽位数
+    private long tickMillis = 10;
+    private int wheelSize = 512;
+    // 数据生成线程数，0表示与CPU核数一致
+    private int generatorThreads = 0;
+    // 阻塞发送线程数，0表示不单独分配发送线程，直接使用容器的异步发送
+    private int sendThreads = 0;
+    // 是否用虚拟线程运行每个会话的发送循环（需要JDK 21+，不支持时回退到sendThreads配置）
+    private boolean virtualThreads = false;
+    // 未指定?seed=的会话使用的随机源：THREAD_LOCAL共用线程本地随机数，SPLITTABLE每个会话独立派生
+    private RandomSourceMode randomSourceMode = RandomSourceMode.THREAD_LOCAL;
+    // SPLITTABLE模式下根随机源的种子，为空时随机
+    private Long randomSeed;
+    // 增量推送模式下每隔多少帧推送一次完整关键帧
+    private int deltaKeyframeInterval = 30;
+    // 推送诊断事件：每N个事件采样一个写入环形缓冲区（0关闭）、缓冲区大小、是否同时写入日志
+    private int diagnosticsSampleRate = 64;
+    private int diagnosticsCapacity = 1024;
+    private boolean diagnosticsLogSampled = false;
+    // 各端点的permessage-deflate配置，及压缩统计的采样率（每N帧采样一帧）
+    private Compression dynamicCompression = new Compression();
+    private Compression kineticCompression = new Compression();
+    private int compressionSampleRate = 32;
+    // tick时间精度告警：延迟或抖动超过阈值（毫秒，0关闭）时输出告警日志，两条日志的最小间隔（毫秒）
+    private long tickWarnThresholdMillis = 100;
+    private long tickWarnIntervalMillis = 10000;
+    // 是否丢弃延迟超过一个推送间隔的tick，负载过高时减载以保持后续tick准时
+    private boolean tickShedLateTicks = false;
+    // 模板注册表：持久化文件路径（为空时只保存在内存中）、缓存的编译模板数和文件中保存的模板数上限
+    private String templateStorePath = "data/templates.jsonl";
+    private int templateCacheSize = 256;
+    private int templateStoreMaxEntries = 10000;
+
+    /**
+     * 单个端点的压缩配置
+     */
+    public static class Compression {
+        // 是否接受客户端的permessage-deflate请求
+        private boolean enabled = true;
+        // 端点平均帧大小低于该值（字节）时，新连接不启用压缩
+        private int minFrameBytes = 256;
+        // 服务端/客户端每条消息后重置压缩字典，省内存但压缩率下降
+        private boolean serverNoContextTakeover = false;
+        private boolean clientNoContextTakeover = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMinFrameBytes() {
+            return minFrameBytes;
+        }
+
+        public void setMinFrameBytes(int minFrameBytes) {
+            this.minFrameBytes = minFrameBytes;
+        }
+
+        public boolean isServerNoContextTakeover() {
+            return serverNoContextTakeover;
+        }
+
+        public void setServerNoContextTakeover(boolean serverNoContextTakeover) {
+            this.serverNoContextTakeover = serverNoContextTakeover;
+        }
+
+        public boolean isClientNoContextTakeover() {
+            return clientNoContextTakeover;
+        }
+
+        public void setClientNoContextTakeover(boolean clientNoContextTakeover) {
+            this.clientNoContextTakeover = clientNoContextTakeover;
+        }
+    }
 
     public String getEndpointPath() {
         return endpointPath;
@@ -15,4 +106,212 @@ public class WebSocketProperties {
     public void setEndpointPath(String endpointPath) {
         this.endpointPath = endpointPath;
     }
-} 
\ No newline at end of file
+
+    public boolean isBroadcastGroupEnabled() {
+        return broadcastGroupEnabled;
+    }
+
+    public void setBroadcastGroupEnabled(boolean broadcastGroupEnabled) {
+        this.broadcastGroupEnabled = broadcastGroupEnabled;
+    }
+
+    public int getSendQueueCapacity() {
+        return sendQueueCapacity;
+    }
+
+    public void setSendQueueCapacity(int sendQueueCapacity) {
+        this.sendQueueCapacity = sendQueueCapacity;
+    }
+
+    public SendOverflowPolicy getSendOverflowPolicy() {
+        return sendOverflowPolicy;
+    }
+
+    public void setSendOverflowPolicy(SendOverflowPolicy sendOverflowPolicy) {
+        this.sendOverflowPolicy = sendOverflowPolicy;
+    }
+
+    public long getSendTimeoutMillis() {
+        return sendTimeoutMillis;
+    }
+
+    public void setSendTimeoutMillis(long sendTimeoutMillis) {
+        this.sendTimeoutMillis = sendTimeoutMillis;
+    }
+
+    public int getFragmentThresholdChars() {
+        return fragmentThresholdChars;
+    }
+
+    public void setFragmentThresholdChars(int fragmentThresholdChars) {
+        this.fragmentThresholdChars = fragmentThresholdChars;
+    }
+
+    public int getSchedulerThreads() {
+        return schedulerThreads;
+    }
+
+    public void setSchedulerThreads(int schedulerThreads) {
+        this.schedulerThreads = schedulerThreads;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public void setTickMillis(long tickMillis) {
+        this.tickMillis = tickMillis;
+    }
+
+    public int getWheelSize() {
+        return wheelSize;
+    }
+
+    public void setWheelSize(int wheelSize) {
+        this.wheelSize = wheelSize;
+    }
+
+    public int getGeneratorThreads() {
+        return generatorThreads;
+    }
+
+    public void setGeneratorThreads(int generatorThreads) {
+        this.generatorThreads = generatorThreads;
+    }
+
+    public int getSendThreads() {
+        return sendThreads;
+    }
+
+    public void setSendThreads(int sendThreads) {
+        this.sendThreads = sendThreads;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public RandomSourceMode getRandomSourceMode() {
+        return randomSourceMode;
+    }
+
+    public void setRandomSourceMode(RandomSourceMode randomSourceMode) {
+        this.randomSourceMode = randomSourceMode;
+    }
+
+    public Long getRandomSeed() {
+        return randomSeed;
+    }
+
+    public void setRandomSeed(Long randomSeed) {
+        this.randomSeed = randomSeed;
+    }
+
+    public Compression getDynamicCompression() {
+        return dynamicCompression;
+    }
+
+    public void setDynamicCompression(Compression dynamicCompression) {
+        this.dynamicCompression = dynamicCompression;
+    }
+
+    public Compression getKineticCompression() {
+        return kineticCompression;
+    }
+
+    public void setKineticCompression(Compression kineticCompression) {
+        this.kineticCompression = kineticCompression;
+    }
+
+    public int getCompressionSampleRate() {
+        return compressionSampleRate;
+    }
+
+    public void setCompressionSampleRate(int compressionSampleRate) {
+        this.compressionSampleRate = compressionSampleRate;
+    }
+
+    public int getDeltaKeyframeInterval() {
+        return deltaKeyframeInterval;
+    }
+
+    public void setDeltaKeyframeInterval(int deltaKeyframeInterval) {
+        this.deltaKeyframeInterval = deltaKeyframeInterval;
+    }
+
+    public int getDiagnosticsSampleRate() {
+        return diagnosticsSampleRate;
+    }
+
+    public void setDiagnosticsSampleRate(int diagnosticsSampleRate) {
+        this.diagnosticsSampleRate = diagnosticsSampleRate;
+    }
+
+    public int getDiagnosticsCapacity() {
+        return diagnosticsCapacity;
+    }
+
+    public void setDiagnosticsCapacity(int diagnosticsCapacity) {
+        this.diagnosticsCapacity = diagnosticsCapacity;
+    }
+
+    public boolean isDiagnosticsLogSampled() {
+        return diagnosticsLogSampled;
+    }
+
+    public void setDiagnosticsLogSampled(boolean diagnosticsLogSampled) {
+        this.diagnosticsLogSampled = diagnosticsLogSampled;
+    }
+
+    public long getTickWarnThresholdMillis() {
+        return tickWarnThresholdMillis;
+    }
+
+    public void setTickWarnThresholdMillis(long tickWarnThresholdMillis) {
+        this.tickWarnThresholdMillis = tickWarnThresholdMillis;
+    }
+
+    public long getTickWarnIntervalMillis() {
+        return tickWarnIntervalMillis;
+    }
+
+    public void setTickWarnIntervalMillis(long tickWarnIntervalMillis) {
+        this.tickWarnIntervalMillis = tickWarnIntervalMillis;
+    }
+
+    public boolean isTickShedLateTicks() {
+        return tickShedLateTicks;
+    }
+
+    public void setTickShedLateTicks(boolean tickShedLateTicks) {
+        this.tickShedLateTicks = tickShedLateTicks;
+    }
+
+    public String getTemplateStorePath() {
+        return templateStorePath;
+    }
+
+    public void setTemplateStorePath(String templateStorePath) {
+        this.templateStorePath = templateStorePath;
+    }
+
+    public int getTemplateCacheSize() {
+        return templateCacheSize;
+    }
+
+    public void setTemplateCacheSize(int templateCacheSize) {
+        this.templateCacheSize = templateCacheSize;
+    }
+
+    public int getTemplateStoreMaxEntries() {
+        return templateStoreMaxEntries;
+    }
+
+    public void setTemplateStoreMaxEntries(int templateStoreMaxEntries) {
+        this.templateStoreMaxEntries = templateStoreMaxEntries;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.kineticsimulatorwebsocker.controller;
+
+import com.example.kineticsimulatorwebsocker.diagnostics.PushEvents;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 推送诊断控制器
+ * 导出采样的推送事件，运行时调整采样率，按会话开启完整消息日志
+ */
+@RestController
+public class DiagnosticsController {
+
+    /**
+     * 采样率、缓冲区大小、已记录事件数和开启了消息日志的会话
+     */
+    @GetMapping("/api/diagnostics")
+    public Map<String, Object> getDiagnostics() {
+        return PushEvents.getStats();
+    }
+
+    /**
+     * 调整采样率：每N个事件采样一个，0关闭
+     */
+    @PostMapping("/api/diagnostics")
+    public Map<String, Object> setSampleRate(@RequestParam int sampleRate) {
+        PushEvents.setSampleRate(sampleRate);
+        return PushEvents.getStats();
+    }
+
+    /**
+     * 环形缓冲区中最近的事件，按发生顺序排列
+     */
+    @GetMapping("/api/diagnostics/events")
+    public List<Map<String, Object>> getEvents(@RequestParam(defaultValue = "200") int limit) {
+        return PushEvents.dump(limit);
+    }
+
+    /**
+     * 开启或关闭指定会话的完整消息日志
+     */
+    @PostMapping("/api/diagnostics/payload-logging")
+    public Map<String, Object> setPayloadLogging(@RequestParam String sessionId, @RequestParam(defaultValue = "true") boolean enabled) {
+        PushEvents.setPayloadLogging(sessionId, enabled);
+        return PushEvents.getStats();
+    }
+}
@@ -1,17 +1,88 @@
 package com.example.kineticsimulatorwebsocker.controller;
 
+import com.example.kineticsimulatorwebsocker.metrics.TickTimings;
+import com.example.kineticsimulatorwebsocker.scheduler.TickScheduler;
+import com.example.kineticsimulatorwebsocker.websocket.BroadcastGroups;
+import com.example.kineticsimulatorwebsocker.websocket.CompressionStats;
 import com.example.kineticsimulatorwebsocker.websocket.DynamicWebSocketServer;
+import com.example.kineticsimulatorwebsocker.websocket.SessionSender;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 public class DynamicOnlineCountController {
+    @Autowired
+    private TickScheduler tickScheduler;
+
     @GetMapping("/api/connection-count")
     public Map<String, Object> getConnectionCount() {
         Map<String, Object> response = new HashMap<>();
         response.put("count", DynamicWebSocketServer.getOnlineCount());
+        response.put("broadcastGroups", BroadcastGroups.getGroupCount());
         return response;
     }
-} 
\ No newline at end of file
+
+    /**
+     * 推送调度统计：已调度会话数、执行/跳过次数、相对计划时间的平均和最大延迟
+     */
+    @GetMapping("/api/tick-stats")
+    public Map<String, Object> getTickStats() {
+        return tickScheduler.getStats();
+    }
+
+    /**
+     * tick时间精度：所有会话汇总及各会话的延迟、抖动、发送完成延迟分位数（毫秒），可按sessionId只查询一个会话
+     */
+    @GetMapping("/api/tick-timings")
+    public Map<String, Object> getTickTimings(@RequestParam(required = false) String sessionId) {
+        Map<String, Object> response = new HashMap<>();
+        List<Map<String, Object>> sessions = new ArrayList<>();
+        for (SessionSender sender : SessionSender.all()) {
+            if (sessionId != null && !sessionId.equals(sender.getSessionId())) continue;
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("sessionId", sender.getSessionId());
+            item.put("endpoint", sender.getEndpoint());
+            item.putAll(sender.getTimings().snapshot());
+            sessions.add(item);
+        }
+        if (sessionId == null) response.put("aggregate", TickTimings.aggregate());
+        response.put("sessions", sessions);
+        return response;
+    }
+
+    /**
+     * 各连接的发送队列深度、已发送和已丢弃消息数
+     */
+    @GetMapping("/api/send-queues")
+    public List<Map<String, Object>> getSendQueues() {
+        List<Map<String, Object>> queues = new ArrayList<>();
+        for (SessionSender sender : SessionSender.all()) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("sessionId", sender.getSessionId());
+            item.put("queueDepth", sender.getQueueDepth());
+            item.put("sent", sender.getSentCount());
+            item.put("dropped", sender.getDroppedCount());
+            queues.add(item);
+        }
+        return queues;
+    }
+
+    /**
+     * 各端点压缩统计：协商结果、采样压缩率、单帧耗时及推算的总CPU时间和节省字节数
+     */
+    @GetMapping("/api/compression-stats")
+    public List<Map<String, Object>> getCompressionStats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        for (CompressionStats endpointStats : CompressionStats.all().values()) {
+            stats.add(endpointStats.snapshot());
+        }
+        return stats;
+    }
+}
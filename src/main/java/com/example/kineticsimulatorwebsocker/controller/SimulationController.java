@@ -0,0 +1,55 @@
+package com.example.kineticsimulatorwebsocker.controller;
+
+import com.example.kineticsimulatorwebsocker.service.KineticDataService;
+import com.example.kineticsimulatorwebsocker.simulation.TrackSimulator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 雷达目标仿真控制器
+ * 查看仿真统计，运行时调整目标数和推送间隔
+ */
+@RestController
+public class SimulationController {
+    @Autowired
+    private TrackSimulator trackSimulator;
+
+    @Autowired
+    private KineticDataService kineticDataService;
+
+    /**
+     * 雷达目标仿真统计：目标数、仿真步数、累计出生/消亡数、最近一步耗时
+     */
+    @GetMapping("/api/simulation-stats")
+    public Map<String, Object> getSimulationStats() {
+        return trackSimulator.getStats();
+    }
+
+    /**
+     * 当前目标数和推送间隔
+     */
+    @GetMapping("/api/simulation-config")
+    public Map<String, Object> getSimulationConfig() {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("targetCount", kineticDataService.getTargetCount());
+        config.put("pushIntervalMillis", kineticDataService.getPushIntervalMillis());
+        return config;
+    }
+
+    /**
+     * 调整目标数和/或推送间隔，未提供的参数保持不变
+     */
+    @PostMapping("/api/simulation-config")
+    public Map<String, Object> updateSimulationConfig(@RequestParam(required = false) Integer targetCount,
+                                                      @RequestParam(required = false) Long pushIntervalMillis) {
+        if (targetCount != null) kineticDataService.setTargetCount(targetCount);
+        if (pushIntervalMillis != null) kineticDataService.setPushIntervalMillis(pushIntervalMillis);
+        return getSimulationConfig();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.kineticsimulatorwebsocker.controller;
+
+import com.example.kineticsimulatorwebsocker.generator.TemplateRegistry;
+import com.example.kineticsimulatorwebsocker.websocket.DynamicWebSocketServer;
+import com.example.kineticsimulatorwebsocker.websocket.DynamicWebSocketServer.TemplateConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 模板注册表控制器
+ * 预先注册模板，客户端通过ws://host:1883/?template=<id>连接即可直接推送
+ */
+@RestController
+public class TemplateController {
+
+    /**
+     * 已注册模板数、缓存中的模板ID及命中统计
+     */
+    @GetMapping("/api/templates")
+    public Map<String, Object> getTemplates() {
+        return TemplateRegistry.getStats();
+    }
+
+    /**
+     * 注册模板，请求体与WebSocket首条模板消息格式相同，返回模板ID和通过该ID连接时的默认推送频率；
+     * 字段范围等配置无法解析时仍会注册，warnings中列出已改用默认值的字段
+     */
+    @PostMapping("/api/templates")
+    public Map<String, Object> registerTemplate(@RequestBody JsonNode body) {
+        TemplateConfig config;
+        try {
+            config = DynamicWebSocketServer.buildTemplateConfig(body);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "模板解析失败: " + e.getMessage());
+        }
+        TemplateConfig registered = TemplateRegistry.register(config);
+        if (registered == null) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "模板必须是JSON对象或数组");
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("id", registered.templateHash);
+        // 同一模板已注册过时为先注册时保存的默认推送频率
+        response.put("pushInterval", registered.pushInterval);
+        response.put("warnings", config.plan.getWarnings());
+        return response;
+    }
+
+    @GetMapping("/api/templates/{id}")
+    public Map<String, Object> getTemplate(@PathVariable String id) {
+        TemplateConfig config = TemplateRegistry.get(id);
+        if (config == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "模板不存在: " + id);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("id", config.templateHash);
+        response.put("template", config.template);
+        response.put("fieldTypes", config.fieldTypes);
+        response.put("fieldDefaults", config.fieldDefaults);
+        response.put("mode", config.mode);
+        response.put("groupCount", config.groupCount);
+        response.put("pushInterval", config.pushInterval);
+        return response;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.kineticsimulatorwebsocker.diagnostics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 推送诊断事件
+ * 每个tick的生成、发送、丢弃事件按1/N采样写入固定大小的无锁环形缓冲区，只在内存中保留最近的事件，
+ * 通过/api/diagnostics/events按需导出；可选把采样事件同时写入日志。
+ * 完整消息内容只对显式开启的会话记录。采样率为0时每个tick只做一次volatile读，不产生任何诊断开销
+ */
+public final class PushEvents {
+    private static final Logger logger = LoggerFactory.getLogger(PushEvents.class);
+
+    public enum Kind {
+        // 一次数据生成和序列化
+        GENERATE,
+        // 一条消息进入会话发送队列
+        SEND,
+        // 发送队列已满，按溢出策略丢弃
+        DROP
+    }
+
+    /**
+     * 不可变的事件记录，写入环形缓冲区后可被并发读取
+     */
+    public static final class Event {
+        public final long sequence;
+        public final long timeMillis;
+        public final Kind kind;
+        public final String endpoint;
+        public final String sessionId;
+        public final String detail;
+        public final int bytes;
+        public final long durationNanos;
+
+        Event(long sequence, Kind kind, String endpoint, String sessionId, String detail, int bytes, long durationNanos) {
+            this.sequence = sequence;
+            this.timeMillis = System.currentTimeMillis();
+            this.kind = kind;
+            this.endpoint = endpoint;
+            this.sessionId = sessionId;
+            this.detail = detail;
+            this.bytes = bytes;
+            this.durationNanos = durationNanos;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("sequence", sequence);
+            map.put("timeMillis", timeMillis);
+            map.put("kind", kind);
+            map.put("endpoint", endpoint);
+            map.put("sessionId", sessionId);
+            map.put("detail", detail);
+            map.put("bytes", bytes);
+            map.put("durationMicros", durationNanos / 1000.0);
+            return map;
+        }
+
+        @Override
+        public String toString() {
+            return kind + " endpoint=" + endpoint + " session=" + sessionId + " detail=" + detail
+                    + " bytes=" + bytes + " durationMicros=" + durationNanos / 1000.0;
+        }
+    }
+
+    private static volatile int sampleRate = 64;
+    private static volatile boolean logSampled = false;
+    private static volatile AtomicReferenceArray<Event> ring = new AtomicReferenceArray<>(1024);
+    private static final AtomicLong writeSequence = new AtomicLong();
+    // 开启了完整消息日志的会话ID
+    private static final Set<String> payloadSessions = ConcurrentHashMap.newKeySet();
+
+    private PushEvents() {}
+
+    /**
+     * capacity为环形缓冲区大小，sampleRate为每N个事件采样一个（0关闭），logSampled为是否把采样事件写入日志
+     */
+    public static void configure(int capacity, int sampleRate, boolean logSampled) {
+        if (capacity != ring.length()) {
+            ring = new AtomicReferenceArray<>(Math.max(capacity, 1));
+        }
+        setSampleRate(sampleRate);
+        PushEvents.logSampled = logSampled;
+    }
+
+    public static void setSampleRate(int sampleRate) {
+        PushEvents.sampleRate = Math.max(sampleRate, 0);
+    }
+
+    public static int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * 本次事件是否采样；调用方只在返回true时计时和记录。使用线程本地随机数，推送线程之间没有共享计数器
+     */
+    public static boolean sample() {
+        int rate = sampleRate;
+        return rate > 0 && (rate == 1 || ThreadLocalRandom.current().nextInt(rate) == 0);
+    }
+
+    public static void record(Kind kind, String endpoint, String sessionId, String detail, int bytes, long durationNanos) {
+        long sequence = writeSequence.getAndIncrement();
+        Event event = new Event(sequence, kind, endpoint, sessionId, detail, bytes, durationNanos);
+        AtomicReferenceArray<Event> buffer = ring;
+        buffer.set((int) (sequence % buffer.length()), event);
+        if (logSampled) logger.info("推送事件: {}", event);
+    }
+
+    /**
+     * 最近的至多limit个事件，按发生顺序排列
+     */
+    public static List<Map<String, Object>> dump(int limit) {
+        AtomicReferenceArray<Event> buffer = ring;
+        long end = writeSequence.get();
+        long start = Math.max(0, end - Math.min(Math.max(limit, 0), buffer.length()));
+        List<Map<String, Object>> events = new ArrayList<>();
+        for (long seq = start; seq < end; seq++) {
+            Event event = buffer.get((int) (seq % buffer.length()));
+            // 读取期间被新事件覆盖的槽位跳过
+            if (event != null && event.sequence == seq) events.add(event.toMap());
+        }
+        return events;
+    }
+
+    public static void setPayloadLogging(String sessionId, boolean enabled) {
+        if (enabled) payloadSessions.add(sessionId);
+        else payloadSessions.remove(sessionId);
+    }
+
+    public static Set<String> getPayloadLoggingSessions() {
+        return payloadSessions;
+    }
+
+    /**
+     * 会话开启了完整消息日志时记录消息内容；没有会话开启时只做一次isEmpty判断
+     */
+    public static void logPayload(String endpoint, String sessionId, Object message) {
+        if (payloadSessions.isEmpty() || !payloadSessions.contains(sessionId)) return;
+        if (message instanceof ByteBuffer) {
+            logger.info("连接{}({})发送二进制消息: {}字节", sessionId, endpoint, ((ByteBuffer) message).remaining());
+        } else {
+            logger.info("连接{}({})发送消息: {}", sessionId, endpoint, message);
+        }
+    }
+
+    public static void removeSession(String sessionId) {
+        payloadSessions.remove(sessionId);
+    }
+
+    public static Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sampleRate", sampleRate);
+        stats.put("capacity", ring.length());
+        stats.put("recorded", writeSequence.get());
+        stats.put("logSampled", logSampled);
+        stats.put("payloadLoggingSessions", payloadSessions);
+        return stats;
+    }
+}
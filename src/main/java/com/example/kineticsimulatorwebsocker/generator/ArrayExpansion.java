@@ -0,0 +1,68 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * 数组展开策略
+ * 决定模板中的非空数组生成多少个元素、每个元素沿用模板数组中哪个元素的结构，
+ * 按生成模式（TemplateConfig.mode）通过GeneratorEngine.registerArrayExpansion注册。
+ * 内置normal（每次随机1~3个元素，或arrayLengths指定的个数）和advanced（按groupCount复制模板元素，长度固定）两种
+ */
+@FunctionalInterface
+public interface ArrayExpansion {
+
+    /**
+     * templateSize为模板数组的元素个数（大于0），groupCount为模板的组数，只对根数组传入，嵌套数组为1；
+     * lengthRange为模板arrayLengths中为该数组路径设置的元素个数范围{min, max}（已限制在GeneratorEngine.getMaxArraySize()内），未设置时为null。
+     * 通过elements编译每个下标的元素，返回数组节点
+     */
+    GeneratorNode expand(int templateSize, int groupCount, int[] lengthRange, ElementCompiler elements);
+
+    /**
+     * 数组元素编译器，由TemplateCompiler提供
+     */
+    interface ElementCompiler {
+        /**
+         * 编译下标index处的元素，结构取自模板数组的第templateIdx个元素；
+         * 该下标下没有按下标覆盖的字段配置时，同一templateIdx的元素共享一个编译节点
+         */
+        GeneratorNode compile(int index, int templateIdx);
+
+        /**
+         * 从该下标起，按下标覆盖的字段配置都已结束：templateIdx相同的元素编译出同一个节点，不必逐个下标编译。
+         * 返回值不小于templateSize
+         */
+        default int distinctLength(int templateSize) {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * 长度在[minLength, elements.length]之间随机的数组节点
+     */
+    static GeneratorNode randomLength(GeneratorNode[] elements, int minLength) {
+        return new ArrayGeneratorNode(elements, minLength);
+    }
+
+    /**
+     * 长度在[minLength, maxLength]之间随机的数组节点，下标不小于elements.length的元素都使用rest
+     */
+    static GeneratorNode randomLength(GeneratorNode[] elements, GeneratorNode rest, int minLength, int maxLength) {
+        return new ArrayGeneratorNode(elements, rest, minLength, maxLength);
+    }
+
+    /**
+     * 固定长度的数组节点，所有元素都是常量时在编译期生成整个数组
+     */
+    static GeneratorNode fixedLength(GeneratorNode[] elements) {
+        ArrayNode folded = JsonNodeFactory.instance.arrayNode(elements.length);
+        for (GeneratorNode element : elements) {
+            if (!(element instanceof ConstantGeneratorNode)) {
+                return new ArrayGeneratorNode(elements, elements.length);
+            }
+            folded.add(((ConstantGeneratorNode) element).getValue());
+        }
+        return new ConstantGeneratorNode(folded);
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import com.example.kineticsimulatorwebsocker.random.RandomSource;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * 数组节点
+ * 前elements.length个下标各对应一个预编译的元素节点，之后的下标共用rest，长度在[minLength, maxLength]之间随机，
+ * 两者相等时为固定长度（高级模式按groupCount复制）。
+ * 本次长度不少于parallelThreshold时按chunkSize分块，在GeneratorEngine的分块线程池上并行生成各块（JSON直接写成文本），
+ * 调用线程按顺序取回已完成的块写出后即释放，同时在途的块数有上限，整个数组不会一次全部驻留内存。
+ * 分块线程上生成的嵌套大数组不再分块，直接顺序生成
+ */
+class ArrayGeneratorNode implements GeneratorNode {
+    private final GeneratorNode[] elements;
+    // 下标不小于elements.length的元素节点，没有这样的下标时为null
+    private final GeneratorNode rest;
+    private final int minLength;
+    private final int maxLength;
+    private final int parallelThreshold;
+    private final int chunkSize;
+    // JSON文本块的缓冲区在写出后归还复用，数量有上限，多出的直接丢弃
+    private final ArrayBlockingQueue<TextChunk> textChunks =
+            new ArrayBlockingQueue<>(GeneratorEngine.getArrayParallelThreads() * 4);
+
+    ArrayGeneratorNode(GeneratorNode[] elements, int minLength) {
+        this(elements, null, minLength, elements.length);
+    }
+
+    ArrayGeneratorNode(GeneratorNode[] elements, GeneratorNode rest, int minLength, int maxLength) {
+        this(elements, rest, minLength, maxLength, GeneratorEngine.getArrayParallelThreshold(), GeneratorEngine.getArrayChunkSize());
+    }
+
+    ArrayGeneratorNode(GeneratorNode[] elements, GeneratorNode rest, int minLength, int maxLength, int parallelThreshold, int chunkSize) {
+        this.elements = elements;
+        this.rest = rest;
+        this.minLength = minLength;
+        this.maxLength = rest != null ? maxLength : Math.min(maxLength, elements.length);
+        this.parallelThreshold = parallelThreshold > 0 ? parallelThreshold : Integer.MAX_VALUE;
+        this.chunkSize = Math.max(chunkSize, 1);
+    }
+
+    private int nextLength(RandomSource random) {
+        return minLength < maxLength ? minLength + random.nextInt(maxLength - minLength + 1) : maxLength;
+    }
+
+    private GeneratorNode element(int index) {
+        return index < elements.length ? elements[index] : rest;
+    }
+
+    private boolean inChunks(int len) {
+        return len >= parallelThreshold && !GeneratorEngine.isArrayWorker();
+    }
+
+    @Override
+    public JsonNode generate(RandomSource random) {
+        int len = nextLength(random);
+        ArrayNode arr = JsonNodeFactory.instance.arrayNode(len);
+        if (inChunks(len)) {
+            try {
+                fillInChunks(len, random, this::generateRange, chunk -> {
+                    for (JsonNode value : chunk) arr.add(value);
+                });
+            } catch (IOException e) {
+                // 构建树时不会出现IO异常
+                throw new IllegalStateException(e);
+            }
+            return arr;
+        }
+        for (int i = 0; i < len; i++) {
+            arr.add(element(i).generate(random));
+        }
+        return arr;
+    }
+
+    @Override
+    public void write(JsonGenerator gen, RandomSource random) throws IOException {
+        int len = nextLength(random);
+        gen.writeStartArray();
+        if (!inChunks(len)) {
+            for (int i = 0; i < len; i++) {
+                element(i).write(gen, random);
+            }
+        } else if (gen instanceof CBORGenerator) {
+            // CBOR不能拼接原始字节，各块生成节点后由调用线程按顺序序列化
+            fillInChunks(len, random, this::generateRange, chunk -> {
+                for (JsonNode value : chunk) GeneratorPlan.writeNode(gen, value);
+            });
+        } else {
+            // JSON：各块直接写成逗号分隔的文本，调用线程按顺序原样拼接
+            boolean[] first = {true};
+            fillInChunks(len, random, this::writeRange, chunk -> {
+                if (!first[0]) gen.writeRaw(',');
+                first[0] = false;
+                chunk.writeTo(gen);
+                chunk.reset();
+                textChunks.offer(chunk);
+            });
+        }
+        gen.writeEndArray();
+    }
+
+    private interface ChunkTask<T> {
+        T run(int from, int to, RandomSource random) throws IOException;
+    }
+
+    private interface ChunkConsumer<T> {
+        void accept(T chunk) throws IOException;
+    }
+
+    // 各元素使用由分块种子和元素下标派生的独立随机序列，结果与分块大小、并行度和完成顺序无关；在途块数不超过线程数的2倍
+    private <T> void fillInChunks(int len, RandomSource random, ChunkTask<T> task, ChunkConsumer<T> consumer) throws IOException {
+        ExecutorService pool = GeneratorEngine.getArrayPool();
+        int chunks = (len + chunkSize - 1) / chunkSize;
+        int window = GeneratorEngine.getArrayParallelThreads() * 2;
+        long chunkSeed = random.nextLong();
+        ArrayDeque<Future<T>> inFlight = new ArrayDeque<>(window);
+        int submitted = 0;
+        try {
+            for (int c = 0; c < chunks; c++) {
+                while (submitted < chunks && submitted - c < window) {
+                    int from = submitted * chunkSize;
+                    int to = Math.min(len, from + chunkSize);
+                    RandomSource chunkRandom = RandomSource.forChunk(random, chunkSeed);
+                    inFlight.add(pool.submit(() -> task.run(from, to, chunkRandom)));
+                    submitted++;
+                }
+                consumer.accept(await(inFlight.poll()));
+            }
+        } finally {
+            for (Future<T> pending : inFlight) pending.cancel(false);
+        }
+    }
+
+    private static <T> T await(Future<T> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待数组分块时被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private JsonNode[] generateRange(int from, int to, RandomSource random) {
+        JsonNode[] values = new JsonNode[to - from];
+        for (int i = from; i < to; i++) {
+            random.seekElement(i);
+            values[i - from] = element(i).generate(random);
+        }
+        return values;
+    }
+
+    // 块内元素作为逗号分隔的根值写出，与写在数组中的文本相同
+    private TextChunk writeRange(int from, int to, RandomSource random) throws IOException {
+        TextChunk chunk = textChunks.poll();
+        if (chunk == null) chunk = new TextChunk((to - from) * 32);
+        try (JsonGenerator gen = GeneratorPlan.createGenerator(chunk)) {
+            gen.setRootValueSeparator(CHUNK_SEPARATOR);
+            for (int i = from; i < to; i++) {
+                random.seekElement(i);
+                element(i).write(gen, random);
+            }
+        }
+        return chunk;
+    }
+
+    private static final SerializedString CHUNK_SEPARATOR = new SerializedString(",");
+
+    // 可直接取出内部缓冲区的字符输出，拼接时不再复制一次
+    private static final class TextChunk extends CharArrayWriter {
+        TextChunk(int initialSize) {
+            super(initialSize);
+        }
+
+        void writeTo(JsonGenerator gen) throws IOException {
+            gen.writeRaw(buf, 0, count);
+        }
+    }
+}
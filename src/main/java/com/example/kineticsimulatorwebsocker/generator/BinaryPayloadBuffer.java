@@ -0,0 +1,66 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 可复用的二进制推送数据缓冲区
+ * 与PayloadBuffer对应，供CBOR等二进制编码使用，每个推送线程持有一个
+ */
+public final class BinaryPayloadBuffer extends OutputStream {
+    private static final int INITIAL_CAPACITY = 4096;
+    // 偶发的超大推送之后释放缓冲区，避免长期占用内存
+    private static final int MAX_RETAINED_CAPACITY = 4 * 1024 * 1024;
+    private static final ThreadLocal<BinaryPayloadBuffer> threadBuffers = ThreadLocal.withInitial(BinaryPayloadBuffer::new);
+
+    private byte[] buf = new byte[INITIAL_CAPACITY];
+    private int count;
+
+    /**
+     * 获取当前线程的缓冲区并清空
+     */
+    public static BinaryPayloadBuffer forCurrentThread() {
+        BinaryPayloadBuffer buffer = threadBuffers.get();
+        buffer.reset();
+        return buffer;
+    }
+
+    public void reset() {
+        if (buf.length > MAX_RETAINED_CAPACITY) {
+            buf = new byte[INITIAL_CAPACITY];
+        }
+        count = 0;
+    }
+
+    private void ensureCapacity(int extra) {
+        int required = count + extra;
+        if (required > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length << 1, required));
+        }
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(1);
+        buf[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(len);
+        System.arraycopy(b, off, buf, count, len);
+        count += len;
+    }
+
+    public int length() {
+        return count;
+    }
+
+    /**
+     * 复制出独立的ByteBuffer，发送队列中的消息不受缓冲区复用影响
+     */
+    public ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(Arrays.copyOf(buf, count));
+    }
+}
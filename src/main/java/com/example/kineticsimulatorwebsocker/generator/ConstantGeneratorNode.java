@@ -0,0 +1,33 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import com.example.kineticsimulatorwebsocker.random.RandomSource;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+
+/**
+ * 常量节点：字段默认值等在编译期即可确定的内容
+ * 生成结果只用于序列化，直接共享同一个JsonNode实例
+ */
+class ConstantGeneratorNode implements GeneratorNode {
+    private final JsonNode value;
+
+    ConstantGeneratorNode(JsonNode value) {
+        this.value = value;
+    }
+
+    JsonNode getValue() {
+        return value;
+    }
+
+    @Override
+    public JsonNode generate(RandomSource random) {
+        return value;
+    }
+
+    @Override
+    public void write(JsonGenerator gen, RandomSource random) throws IOException {
+        GeneratorPlan.writeNode(gen, value);
+    }
+}
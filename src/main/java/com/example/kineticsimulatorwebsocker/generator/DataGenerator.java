@@ -0,0 +1,21 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import com.example.kineticsimulatorwebsocker.websocket.DynamicWebSocketServer.FieldLimit;
+
+import java.util.Collection;
+
+/**
+ * 字段类型生成器插件
+ * 通过GeneratorEngine.registerType按类型名注册，模板中fieldTypes使用该类型名的字段由插件生成；
+ * 模板编译时对每个字段调用一次resolve，返回的生成函数在每个tick执行，可被多个推送线程共享。
+ * 注册与内置类型同名的插件会替换内置实现
+ */
+@FunctionalInterface
+public interface DataGenerator {
+
+    /**
+     * limit为字段限制（未设置时为null），path为字段的完整路径；
+     * 限制无法使用时应改用默认值，并把原因加入warnings，由编译器在接收模板时统一告警
+     */
+    ValueGenerator resolve(FieldLimit limit, String path, Collection<String> warnings);
+}
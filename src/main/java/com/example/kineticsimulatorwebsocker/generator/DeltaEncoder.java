@@ -0,0 +1,128 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * 增量推送编码器
+ * 每个会话一个，记住上一帧生成的数据：关键帧推送完整文档，其余帧只推送发生变化的路径和新值。
+ * 关键帧：{"seq":0,"keyframe":true,"data":{...}}
+ * 增量帧：{"seq":1,"changes":{"a.b[0].c":1,"list":[...]}}
+ * 路径格式与fieldTypes一致，空路径表示整个文档；数组长度变化或结构不同时整体替换该子树，客户端按顺序应用即可。
+ * 字段名本身包含'.'、'['或']'时路径会产生歧义，此时整体替换该字段所在的对象。
+ * 编译期折叠的常量子树每帧是同一个实例，比较时按引用直接跳过
+ */
+public class DeltaEncoder {
+    private final int keyframeInterval;
+    private JsonNode previous;
+    private long seq;
+    // 复用的路径缓冲区，递归时追加、返回时截断
+    private final StringBuilder path = new StringBuilder();
+
+    /**
+     * @param keyframeInterval 每隔多少帧推送一次完整关键帧，小于1时只有第一帧是关键帧
+     */
+    public DeltaEncoder(int keyframeInterval) {
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * 下一帧强制为关键帧，用于上一帧未送达客户端（被丢弃或发送失败）的情况
+     */
+    public synchronized void forceKeyframe() {
+        previous = null;
+    }
+
+    public synchronized void writeTo(Writer out, JsonNode current) throws IOException {
+        try (JsonGenerator gen = GeneratorPlan.createGenerator(out)) {
+            write(gen, current);
+        }
+    }
+
+    public synchronized void writeCborTo(OutputStream out, JsonNode current) throws IOException {
+        try (JsonGenerator gen = GeneratorPlan.createCborGenerator(out)) {
+            write(gen, current);
+        }
+    }
+
+    private void write(JsonGenerator gen, JsonNode current) throws IOException {
+        boolean keyframe = previous == null || (keyframeInterval > 0 && seq % keyframeInterval == 0);
+        gen.writeStartObject();
+        gen.writeNumberField("seq", seq++);
+        if (keyframe) {
+            gen.writeBooleanField("keyframe", true);
+            gen.writeFieldName("data");
+            GeneratorPlan.writeNode(gen, current);
+        } else {
+            gen.writeFieldName("changes");
+            gen.writeStartObject();
+            path.setLength(0);
+            diff(gen, previous, current);
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+        previous = current;
+    }
+
+    // 比较同一路径上前后两帧的值，变化的叶子或需要整体替换的子树写为一条changes记录
+    private void diff(JsonGenerator gen, JsonNode before, JsonNode after) throws IOException {
+        if (before == after) return;
+        if (before.isObject() && after.isObject() && before.size() == after.size()) {
+            if (!sameKeys(before, after)) {
+                // 字段集合不同，或字段名无法无歧义地拼入路径，整体替换当前对象
+                writeChange(gen, after);
+                return;
+            }
+            int mark = path.length();
+            Iterator<Map.Entry<String, JsonNode>> fields = after.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (mark > 0) path.append('.');
+                path.append(field.getKey());
+                diff(gen, before.get(field.getKey()), field.getValue());
+                path.setLength(mark);
+            }
+            return;
+        }
+        if (before.isArray() && after.isArray() && before.size() == after.size()) {
+            int mark = path.length();
+            for (int i = 0; i < after.size(); i++) {
+                path.append('[').append(i).append(']');
+                diff(gen, before.get(i), after.get(i));
+                path.setLength(mark);
+            }
+            return;
+        }
+        if (!before.equals(after)) {
+            writeChange(gen, after);
+        }
+    }
+
+    private static boolean sameKeys(JsonNode before, JsonNode after) {
+        Iterator<String> names = after.fieldNames();
+        while (names.hasNext()) {
+            String key = names.next();
+            if (!before.has(key) || isAmbiguous(key)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isAmbiguous(String key) {
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == '.' || c == '[' || c == ']') return true;
+        }
+        return false;
+    }
+
+    private void writeChange(JsonGenerator gen, JsonNode value) throws IOException {
+        gen.writeFieldName(path.toString());
+        GeneratorPlan.writeNode(gen, value);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import com.example.kineticsimulatorwebsocker.websocket.DynamicWebSocketServer.FieldLimit;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 按数组下标感知的字段配置查找表
+ * 构建时把字段类型、限制、默认值、数组元素个数的key一次性拆分为归一化配置（所有下标均为[0]）和按下标覆盖的配置（如data[2].x），
+ * 查找时优先按完整路径命中覆盖配置，查不到再使用归一化配置，不再为每个数组元素复制配置表
+ */
+class FieldResolver {
+    private final Map<String, String> types = new HashMap<>();
+    private final Map<String, FieldLimit> limits = new HashMap<>();
+    private final Map<String, String> defaults = new HashMap<>();
+    private final Map<String, FieldLimit> lengths = new HashMap<>();
+    private final Map<String, String> typeOverrides = new HashMap<>();
+    private final Map<String, FieldLimit> limitOverrides = new HashMap<>();
+    private final Map<String, String> defaultOverrides = new HashMap<>();
+    private final Map<String, FieldLimit> lengthOverrides = new HashMap<>();
+    // 所有覆盖配置的完整路径，用于判断某个数组元素下是否存在覆盖
+    private final NavigableSet<String> overridePaths = new TreeSet<>();
+    // 编译期发现的字段配置问题，每条只报告一次
+    final Set<String> warnings = new LinkedHashSet<>();
+
+    FieldResolver(Map<String, String> fieldTypes, Map<String, FieldLimit> fieldLimits, Map<String, String> fieldDefaults,
+                  Map<String, FieldLimit> arrayLengths) {
+        split(fieldTypes, types, typeOverrides);
+        split(fieldLimits, limits, limitOverrides);
+        split(fieldDefaults, defaults, defaultOverrides);
+        split(arrayLengths, lengths, lengthOverrides);
+    }
+
+    private <V> void split(Map<String, V> source, Map<String, V> normalized, Map<String, V> overrides) {
+        if (source == null) source = Collections.emptyMap();
+        for (Map.Entry<String, V> entry : source.entrySet()) {
+            String key = entry.getKey();
+            if (entry.getValue() == null) continue;
+            if (key.equals(normalizeArrayPath(key))) {
+                normalized.put(key, entry.getValue());
+            } else {
+                overrides.put(key, entry.getValue());
+                overridePaths.add(key);
+            }
+        }
+    }
+
+    // 类型查找：优先完整路径，查不到再归一化
+    String getType(String path, String normPath) {
+        String type = overridePaths.isEmpty() ? null : typeOverrides.get(path);
+        if (type != null) return type;
+        return types.getOrDefault(normPath, "string");
+    }
+
+    // 限制查找：优先完整路径，查不到再归一化
+    FieldLimit getLimit(String path, String normPath) {
+        FieldLimit limit = overridePaths.isEmpty() ? null : limitOverrides.get(path);
+        if (limit != null) return limit;
+        return limits.get(normPath);
+    }
+
+    // 数组元素个数查找：优先完整路径，查不到再归一化
+    FieldLimit getLength(String path, String normPath) {
+        FieldLimit length = overridePaths.isEmpty() ? null : lengthOverrides.get(path);
+        if (length != null) return length;
+        return lengths.get(normPath);
+    }
+
+    // 默认值查找：优先完整路径，查不到再归一化，空字符串视为未设置
+    String getDefault(String path, String normPath) {
+        String val = overridePaths.isEmpty() ? null : defaultOverrides.get(path);
+        if (val != null && !val.isEmpty()) return val;
+        val = defaults.get(normPath);
+        return (val != null && !val.isEmpty()) ? val : null;
+    }
+
+    /**
+     * 判断某个路径（通常是数组元素，如data[2]）之下是否存在按下标覆盖的配置
+     * 没有覆盖时该元素与同一模板元素的其它下标生成结构完全相同，可共享同一个编译节点
+     */
+    boolean hasOverridesUnder(String path) {
+        String candidate = overridePaths.ceiling(path);
+        return candidate != null && candidate.startsWith(path);
+    }
+
+    /**
+     * 数组路径（如data）下存在覆盖配置的最大下标加1，没有覆盖时为0；
+     * 不小于该值的下标都没有覆盖，各自的编译节点只取决于对应的模板元素
+     */
+    int overriddenIndexBound(String arrayPath) {
+        String prefix = arrayPath + "[";
+        int bound = 0;
+        // 反斜杠紧跟在'['之后，子集即所有以prefix开头的路径
+        for (String key : overridePaths.subSet(prefix, true, arrayPath + "\\", false)) {
+            int end = key.indexOf(']', prefix.length());
+            if (end < 0) continue;
+            try {
+                bound = Math.max(bound, Integer.parseInt(key.substring(prefix.length(), end)) + 1);
+            } catch (NumberFormatException ignore) {
+            }
+        }
+        return bound;
+    }
+
+    // 工具方法：路径归一化，将所有[数字]替换为[0]，仅在构建查找表时使用
+    static String normalizeArrayPath(String path) {
+        return path == null ? null : path.replaceAll("\\[\\d+\\]", "[0]");
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 字段类型
+ * 模板中的类型字符串在编译期解析为枚举，整数、浮点数类型同时带有未设置字段限制时的默认范围，
+ * 浮点数类型还带有保留精度（乘以scale后四舍五入）
+ */
+public enum FieldType {
+    INT(0, 10000),
+    AGE(1, 100),
+    YEAR(2000, 2024),
+    MONTH(1, 12),
+    DAY(1, 31),
+    HOUR(0, 23),
+    MINUTE(0, 59),
+    SECOND(0, 59),
+    PORT(1024, 65535),
+    ID(1, 1000000),
+    DOUBLE(0.0, 100.0, 100.0),
+    PRICE(0.0, 1000.0, 100.0),
+    RATE(0.0, 100.0, 100.0),
+    SCORE(0.0, 10.0, 10.0),
+    TEMPERATURE(-10.0, 40.0, 10.0),
+    LATITUDE(-90.0, 90.0, 1000000.0),
+    LONGITUDE(-180.0, 180.0, 1000000.0),
+    TIMESTAMP_REALTIME,
+    TIMESTAMP_EDITABLE,
+    BOOLEAN,
+    EMAIL,
+    PHONE,
+    DATE,
+    IP,
+    URL,
+    UUID,
+    NAME,
+    COLOR,
+    STRING,
+    ARRAY,
+    OBJECT;
+
+    private static final Map<String, FieldType> byName = new HashMap<>();
+
+    static {
+        for (FieldType type : values()) {
+            byName.put(type.name().toLowerCase(), type);
+        }
+    }
+
+    private final boolean integer;
+    private final boolean decimal;
+    private final int defaultIntMin;
+    private final int defaultIntMax;
+    private final double defaultDoubleMin;
+    private final double defaultDoubleMax;
+    private final double scale;
+
+    FieldType() {
+        this(false, false, 0, 0, 0, 0, 1);
+    }
+
+    FieldType(int defaultMin, int defaultMax) {
+        this(true, false, defaultMin, defaultMax, 0, 0, 1);
+    }
+
+    FieldType(double defaultMin, double defaultMax, double scale) {
+        this(false, true, 0, 0, defaultMin, defaultMax, scale);
+    }
+
+    FieldType(boolean integer, boolean decimal, int defaultIntMin, int defaultIntMax,
+              double defaultDoubleMin, double defaultDoubleMax, double scale) {
+        this.integer = integer;
+        this.decimal = decimal;
+        this.defaultIntMin = defaultIntMin;
+        this.defaultIntMax = defaultIntMax;
+        this.defaultDoubleMin = defaultDoubleMin;
+        this.defaultDoubleMax = defaultDoubleMax;
+        this.scale = scale;
+    }
+
+    /**
+     * 按模板中的类型字符串查找（区分大小写），未知类型按字符串生成
+     */
+    public static FieldType of(String type) {
+        FieldType fieldType = type != null ? byName.get(type) : null;
+        return fieldType != null ? fieldType : STRING;
+    }
+
+    public boolean isInteger() {
+        return integer;
+    }
+
+    public boolean isDecimal() {
+        return decimal;
+    }
+
+    public int getDefaultIntMin() {
+        return defaultIntMin;
+    }
+
+    public int getDefaultIntMax() {
+        return defaultIntMax;
+    }
+
+    public double getDefaultDoubleMin() {
+        return defaultDoubleMin;
+    }
+
+    public double getDefaultDoubleMax() {
+        return defaultDoubleMax;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import com.example.kineticsimulatorwebsocker.random.RandomSource;
+import com.example.kineticsimulatorwebsocker.websocket.DynamicWebSocketServer.FieldLimit;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+
+/**
+ * 内置字段类型的值生成工具，普通模式和高级模式共用
+ */
+public final class FieldValueGenerators {
+    private static final Logger logger = LoggerFactory.getLogger(FieldValueGenerators.class);
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final long DEFAULT_TIMESTAMP_MIN = 1577808000000L; // 2020-01-01 00:00:00
+    private static final long ONE_YEAR_MILLIS = 365L * 24 * 3600 * 1000;
+
+    private FieldValueGenerators() {}
+
+    /**
+     * 在编译期把字段类型和限制解析为生成函数（数组、对象及默认值已在编译期处理）：
+     * 数值、时间戳、日期的范围只解析一次，解析失败时使用默认值并把问题记入warnings，不在每个tick重复解析和告警
+     */
+    public static ValueGenerator resolve(FieldType type, FieldLimit limit, String path, Collection<String> warnings) {
+        if (type.isInteger()) {
+            int[] range = intRange(type, limit, path, warnings);
+            int min = range[0];
+            int bound = range[1] - range[0] + 1;
+            return random -> new IntNode(random.nextInt(bound) + min);
+        }
+        if (type.isDecimal()) {
+            double[] range = doubleRange(type, limit, path, warnings);
+            double min = range[0];
+            double span = range[1] - range[0];
+            double scale = type.getScale();
+            return random -> new DoubleNode(Math.round((random.nextDouble() * span + min) * scale) / scale);
+        }
+        switch (type) {
+            case TIMESTAMP_REALTIME:
+                // 实时时间戳，毫秒
+                return random -> new LongNode(random.currentTimeMillis());
+            case TIMESTAMP_EDITABLE:
+                return editableTimestamp(limit, path, warnings);
+            case BOOLEAN:
+                return random -> BooleanNode.valueOf(random.nextBoolean());
+            case EMAIL:
+                return TextGenerators.EMAIL;
+            case PHONE:
+                return TextGenerators.PHONE;
+            case DATE:
+                return dateTime(limit, path, warnings);
+            case IP:
+                return TextGenerators.IP;
+            case URL:
+                return TextGenerators.URL;
+            case UUID:
+                return TextGenerators.UUID;
+            case NAME:
+                return TextGenerators.NAME;
+            case COLOR:
+                return TextGenerators.COLOR;
+            case STRING:
+            default:
+                return TextGenerators.STRING;
+        }
+    }
+
+    /**
+     * 整数类型的取值范围{min, max}：同时设置了min和max时使用字段限制，否则使用类型的默认范围
+     */
+    public static int[] intRange(FieldType type, FieldLimit limit, String path, Collection<String> warnings) {
+        int min;
+        int max;
+        if (limit != null && limit.min != null && limit.max != null) {
+            min = 0;
+            max = 10000;
+            try {
+                min = Integer.parseInt(limit.min);
+                max = Integer.parseInt(limit.max);
+            } catch (NumberFormatException e) {
+                warnings.add(path + ": 整数范围解析失败(min=" + limit.min + ", max=" + limit.max + ")，使用默认值");
+            }
+        } else {
+            min = type.getDefaultIntMin();
+            max = type.getDefaultIntMax();
+        }
+        if (min > max) {
+            warnings.add(path + ": 整数范围min大于max(min=" + min + ", max=" + max + ")，已交换");
+            int tmp = min;
+            min = max;
+            max = tmp;
+        }
+        if ((long) max - min + 1 > Integer.MAX_VALUE) {
+            warnings.add(path + ": 整数范围过大(min=" + min + ", max=" + max + ")，使用类型默认范围");
+            min = type.getDefaultIntMin();
+            max = type.getDefaultIntMax();
+        }
+        return new int[]{min, max};
+    }
+
+    /**
+     * 浮点数类型的取值范围{min, max}：同时设置了min和max时使用字段限制，否则使用类型的默认范围
+     */
+    public static double[] doubleRange(FieldType type, FieldLimit limit, String path, Collection<String> warnings) {
+        if (limit == null || limit.min == null || limit.max == null) {
+            return new double[]{type.getDefaultDoubleMin(), type.getDefaultDoubleMax()};
+        }
+        double min = 0.0;
+        double max = 100.0;
+        try {
+            min = Double.parseDouble(limit.min);
+            max = Double.parseDouble(limit.max);
+        } catch (NumberFormatException e) {
+            warnings.add(path + ": 浮点数范围解析失败(min=" + limit.min + ", max=" + limit.max + ")，使用默认值");
+        }
+        return new double[]{min, max};
+    }
+
+    /**
+     * 可修改时间戳（毫秒）：最小值默认2020-01-01，未设置最大值时为当前时间之后一年，随逻辑时钟变化
+     */
+    public static ValueGenerator editableTimestamp(FieldLimit limit, String path, Collection<String> warnings) {
+        Long parsedMin = null;
+        Long parsedMax = null;
+        if (limit != null) {
+            try {
+                if (limit.min != null && !limit.min.isEmpty()) parsedMin = Long.parseLong(limit.min);
+                if (limit.max != null && !limit.max.isEmpty()) parsedMax = Long.parseLong(limit.max);
+            } catch (NumberFormatException e) {
+                warnings.add(path + ": 可修改时间戳最大/最小值解析失败(min=" + limit.min + ", max=" + limit.max + ")，使用默认值");
+            }
+        }
+        long fixedMin = parsedMin != null ? parsedMin : DEFAULT_TIMESTAMP_MIN;
+        Long fixedMax = parsedMax;
+        return random -> {
+            long max = fixedMax != null ? fixedMax : random.currentTimeMillis() + ONE_YEAR_MILLIS;
+            long min = fixedMin > max ? max : fixedMin;
+            return new LongNode(min + (long)(random.nextDouble() * (max - min + 1)));
+        };
+    }
+
+    // 日期范围在编译期解析为LocalDateTime，范围无效时使用默认的随机日期
+    private static ValueGenerator dateTime(FieldLimit limit, String path, Collection<String> warnings) {
+        LocalDateTime minDate = null, maxDate = null;
+        try {
+            if (limit != null) {
+                if (limit.min != null && !limit.min.isEmpty()) {
+                    String minStr = limit.min.replace('T', ' ');
+                    if (minStr.length() == 10) minStr += " 00:00:00";
+                    else if (minStr.length() == 16) minStr += ":00";
+                    minDate = LocalDateTime.parse(minStr, DATE_TIME_FORMATTER);
+                }
+                if (limit.max != null && !limit.max.isEmpty()) {
+                    String maxStr = limit.max.replace('T', ' ');
+                    if (maxStr.length() == 10) maxStr += " 23:59:59";
+                    else if (maxStr.length() == 16) maxStr += ":59";
+                    maxDate = LocalDateTime.parse(maxStr, DATE_TIME_FORMATTER);
+                }
+            }
+        } catch (Exception e) {
+            warnings.add(path + ": 日期范围解析失败(min=" + limit.min + ", max=" + limit.max + ")，使用默认值");
+        }
+        if (minDate != null && maxDate != null && !minDate.isAfter(maxDate)) {
+            LocalDateTime from = minDate;
+            long seconds = ChronoUnit.SECONDS.between(minDate, maxDate);
+            return random -> {
+                long randomSeconds = seconds > 0 ? (long)(random.nextDouble() * seconds) : 0;
+                return new TextNode(from.plusSeconds(randomSeconds).format(DATE_TIME_FORMATTER));
+            };
+        }
+        if (minDate != null && maxDate != null) {
+            warnings.add(path + ": 日期范围min晚于max(min=" + limit.min + ", max=" + limit.max + ")，使用默认值");
+        }
+        return TextGenerators.DATE_TIME;
+    }
+
+    // 工具方法：将默认值字符串转为合适的JsonNode
+    public static JsonNode parseDefaultValue(String defVal, String type, JsonNode template) {
+        try {
+            switch (type) {
+                case "int":
+                case "age":
+                case "year":
+                case "month":
+                case "day":
+                case "hour":
+                case "minute":
+                case "second":
+                case "port":
+                case "id":
+                    return new IntNode(Integer.parseInt(defVal));
+                case "double":
+                case "price":
+                case "rate":
+                case "score":
+                case "temperature":
+                case "latitude":
+                case "longitude":
+                    return new DoubleNode(Double.parseDouble(defVal));
+                case "boolean":
+                    return BooleanNode.valueOf("true".equalsIgnoreCase(defVal) || "1".equals(defVal));
+                case "array":
+                    // 支持多行文本或json数组
+                    if (defVal.trim().startsWith("[") && defVal.trim().endsWith("]")) {
+                        return mapper.readTree(defVal);
+                    } else {
+                        // 尝试按逗号分割
+                        ArrayNode arr = mapper.createArrayNode();
+                        for (String s : defVal.split("\n|,")) {
+                            if (!s.trim().isEmpty()) arr.add(s.trim());
+                        }
+                        return arr;
+                    }
+                case "object":
+                    if (defVal.trim().startsWith("{") && defVal.trim().endsWith("}")) {
+                        return mapper.readTree(defVal);
+                    } else {
+                        // 尝试用原模板结构，递归填充
+                        if (template != null && template.isObject()) {
+                            ObjectNode obj = mapper.createObjectNode();
+                            template.fieldNames().forEachRemaining(f -> {
+                                obj.set(f, new TextNode(defVal));
+                            });
+                            return obj;
+                        }
+                        return new TextNode(defVal);
+                    }
+                case "date":
+                    return new TextNode(defVal);
+                default:
+                    return new TextNode(defVal);
+            }
+        } catch (Exception e) {
+            logger.warn("解析默认值失败: {} type={}，原样返回字符串", defVal, type);
+            return new TextNode(defVal);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 生成引擎的插件注册表
+ * 普通模式和高级模式共用同一个编译器（TemplateCompiler）和同一套叶子值生成函数，只在数组展开策略上不同；
+ * 生成模式到数组展开策略、自定义类型名到字段生成器的映射都在这里注册。
+ * 插件在模板编译时查找，已编译的模板不受之后注册的插件影响
+ */
+public final class GeneratorEngine {
+    public static final String NORMAL = "normal";
+    public static final String ADVANCED = "advanced";
+
+    // 普通模式下数组默认每次随机生成1~3个元素，每个下标沿用模板数组同一下标（超出时为第一个）元素的结构
+    private static final int NORMAL_MIN_ARRAY_LENGTH = 1;
+    private static final int NORMAL_MAX_ARRAY_LENGTH = 3;
+
+    // 数组元素个数上限，groupCount和arrayLengths都不能超过
+    private static volatile int maxArraySize = 10000;
+    // 元素个数不少于该值的数组分块并行生成，0表示不并行
+    private static volatile int arrayParallelThreshold = 4096;
+    private static volatile int arrayChunkSize = 512;
+    // 分块并行生成使用的线程数
+    private static volatile int arrayParallelThreads = Runtime.getRuntime().availableProcessors();
+    // 分块生成专用线程池，首次使用时创建；不使用ForkJoin公共池，等待分块结果的推送线程不会占用或拖慢公共池
+    private static ExecutorService arrayPool;
+
+    // 模板的arrayLengths为数组路径设置了元素个数范围时，元素个数在[min, max]之间随机。
+    // 只逐个编译模板元素和有按下标覆盖配置的下标，之后的下标共用模板第一个元素的节点，编译结果不随元素个数上限增长
+    public static final ArrayExpansion RANDOM_LENGTH = (templateSize, groupCount, lengthRange, elements) -> {
+        int minLength = lengthRange != null ? lengthRange[0] : NORMAL_MIN_ARRAY_LENGTH;
+        int maxLength = lengthRange != null ? lengthRange[1] : NORMAL_MAX_ARRAY_LENGTH;
+        GeneratorNode[] nodes = new GeneratorNode[Math.min(maxLength, elements.distinctLength(templateSize))];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = elements.compile(i, i < templateSize ? i : 0);
+        }
+        GeneratorNode rest = nodes.length < maxLength ? elements.compile(nodes.length, 0) : null;
+        return ArrayExpansion.randomLength(nodes, rest, minLength, maxLength);
+    };
+
+    // 高级模式下模板数组的元素按groupCount整体复制，长度固定，不超过maxArraySize
+    public static final ArrayExpansion GROUP_REPLICATION = (templateSize, groupCount, lengthRange, elements) -> {
+        int groups = Math.max(1, Math.min(groupCount, maxArraySize / templateSize));
+        GeneratorNode[] nodes = new GeneratorNode[templateSize * groups];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = elements.compile(i, i % templateSize);
+        }
+        return ArrayExpansion.fixedLength(nodes);
+    };
+
+    private static final Map<String, ArrayExpansion> arrayExpansions = new ConcurrentHashMap<>();
+    private static final Map<String, DataGenerator> dataGenerators = new ConcurrentHashMap<>();
+
+    static {
+        arrayExpansions.put(NORMAL, RANDOM_LENGTH);
+        arrayExpansions.put(ADVANCED, GROUP_REPLICATION);
+    }
+
+    private GeneratorEngine() {}
+
+    /**
+     * 大数组参数：maxArraySize为数组元素个数上限，parallelThreshold为分块并行生成的最小元素个数（0关闭），chunkSize为每块的元素个数；
+     * 只影响之后编译的模板
+     */
+    public static void configureLargeArrays(int maxArraySize, int parallelThreshold, int chunkSize) {
+        configureLargeArrays(maxArraySize, parallelThreshold, chunkSize, arrayParallelThreads);
+    }
+
+    /**
+     * parallelThreads为分块生成线程池的线程数，小于1时按CPU核数；线程数变化时替换线程池，已提交的分块在旧线程池上完成
+     */
+    public static void configureLargeArrays(int maxArraySize, int parallelThreshold, int chunkSize, int parallelThreads) {
+        GeneratorEngine.maxArraySize = Math.max(maxArraySize, 1);
+        GeneratorEngine.arrayParallelThreshold = Math.max(parallelThreshold, 0);
+        GeneratorEngine.arrayChunkSize = Math.max(chunkSize, 1);
+        int threads = parallelThreads > 0 ? parallelThreads : Runtime.getRuntime().availableProcessors();
+        synchronized (GeneratorEngine.class) {
+            if (threads != arrayParallelThreads && arrayPool != null) {
+                arrayPool.shutdown();
+                arrayPool = null;
+            }
+            arrayParallelThreads = threads;
+        }
+    }
+
+    public static int getMaxArraySize() {
+        return maxArraySize;
+    }
+
+    public static int getArrayParallelThreshold() {
+        return arrayParallelThreshold;
+    }
+
+    public static int getArrayChunkSize() {
+        return arrayChunkSize;
+    }
+
+    public static int getArrayParallelThreads() {
+        return arrayParallelThreads;
+    }
+
+    /**
+     * 分块生成线程池：线程数固定、队列有界，队列满或线程池已关闭时由提交分块的线程自己执行，
+     * 推送线程越多、数组越大，生成越多地回到推送线程上，不会无限堆积分块
+     */
+    static synchronized ExecutorService getArrayPool() {
+        if (arrayPool == null) {
+            int threads = arrayParallelThreads;
+            AtomicInteger counter = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(threads * 4),
+                    r -> {
+                        Thread thread = new ChunkWorker(r, "array-chunk-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    (task, executor) -> task.run());
+            pool.allowCoreThreadTimeOut(true);
+            arrayPool = pool;
+        }
+        return arrayPool;
+    }
+
+    /**
+     * 当前线程是否是分块生成线程：分块内的嵌套大数组在本线程顺序生成，避免线程池线程互相等待
+     */
+    static boolean isArrayWorker() {
+        return Thread.currentThread() instanceof ChunkWorker;
+    }
+
+    private static final class ChunkWorker extends Thread {
+        ChunkWorker(Runnable task, String name) {
+            super(task, name);
+        }
+    }
+
+    /**
+     * 为生成模式注册数组展开策略，模板消息中的mode字段选择模式；可以替换内置的normal、advanced
+     */
+    public static void registerArrayExpansion(String mode, ArrayExpansion expansion) {
+        arrayExpansions.put(mode, expansion);
+    }
+
+    /**
+     * 生成模式对应的数组展开策略，未注册的模式按普通模式处理
+     */
+    public static ArrayExpansion getArrayExpansion(String mode) {
+        ArrayExpansion expansion = mode != null ? arrayExpansions.get(mode) : null;
+        return expansion != null ? expansion : RANDOM_LENGTH;
+    }
+
+    /**
+     * 注册自定义字段类型，或替换内置类型的生成器；array、object描述模板结构，不能替换
+     */
+    public static void registerType(String type, DataGenerator generator) {
+        if (FieldType.of(type) == FieldType.ARRAY || FieldType.of(type) == FieldType.OBJECT) {
+            throw new IllegalArgumentException("不能替换结构类型: " + type);
+        }
+        dataGenerators.put(type, generator);
+    }
+
+    public static void unregisterType(String type) {
+        dataGenerators.remove(type);
+    }
+
+    /**
+     * 类型名对应的插件生成器，内置类型未被替换时返回null
+     */
+    static DataGenerator getDataGenerator(String type) {
+        return dataGenerators.isEmpty() || type == null ? null : dataGenerators.get(type);
+    }
+
+    public static Set<String> getModes() {
+        return new TreeSet<>(arrayExpansions.keySet());
+    }
+
+    public static Set<String> getCustomTypes() {
+        return new TreeSet<>(dataGenerators.keySet());
+    }
+}
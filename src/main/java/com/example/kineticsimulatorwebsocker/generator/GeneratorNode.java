@@ -0,0 +1,24 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import com.example.kineticsimulatorwebsocker.random.RandomSource;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+
+/**
+ * 生成计划中的节点
+ * 由TemplateCompiler在收到模板时一次性构建，节点本身不可变，可被多个推送线程共享
+ */
+public interface GeneratorNode {
+
+    /**
+     * 按本节点的结构生成一次数据
+     */
+    JsonNode generate(RandomSource random);
+
+    /**
+     * 按本节点的结构生成一次数据，直接写入JsonGenerator，不构建JsonNode树
+     */
+    void write(JsonGenerator gen, RandomSource random) throws IOException;
+}
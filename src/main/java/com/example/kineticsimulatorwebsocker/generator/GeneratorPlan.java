@@ -0,0 +1,83 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import com.example.kineticsimulatorwebsocker.random.RandomSource;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.BaseJsonNode;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 编译后的模板生成计划
+ * 每个tick只需执行计划，不再遍历原始模板、拼接路径或查找字段配置
+ */
+public class GeneratorPlan {
+    // 不随JsonGenerator关闭而关闭目标Writer，便于复用缓冲区
+    private static final JsonFactory jsonFactory = new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private static final CBORFactory cborFactory = (CBORFactory) new CBORFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final GeneratorNode root;
+    // 编译期发现的字段配置问题（如范围无法解析），对应字段已改用默认值
+    private final List<String> warnings;
+
+    public GeneratorPlan(GeneratorNode root) {
+        this(root, Collections.emptyList());
+    }
+
+    public GeneratorPlan(GeneratorNode root, List<String> warnings) {
+        this.root = root;
+        this.warnings = Collections.unmodifiableList(warnings);
+    }
+
+    public JsonNode generate(RandomSource random) {
+        random.beginTick();
+        return root.generate(random);
+    }
+
+    /**
+     * 流式生成：边生成边写入out，不构建JsonNode树，也不产生中间字符串
+     */
+    public void writeTo(Writer out, RandomSource random) throws IOException {
+        random.beginTick();
+        try (JsonGenerator gen = createGenerator(out)) {
+            root.write(gen, random);
+        }
+    }
+
+    /**
+     * 流式生成CBOR编码的数据，节点写入逻辑与JSON相同
+     */
+    public void writeCborTo(OutputStream out, RandomSource random) throws IOException {
+        random.beginTick();
+        try (JsonGenerator gen = createCborGenerator(out)) {
+            root.write(gen, random);
+        }
+    }
+
+    public GeneratorNode getRoot() {
+        return root;
+    }
+
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    static JsonGenerator createGenerator(Writer out) throws IOException {
+        return jsonFactory.createGenerator(out);
+    }
+
+    static JsonGenerator createCborGenerator(OutputStream out) throws IOException {
+        return cborFactory.createGenerator(out);
+    }
+
+    // 单个值节点直接序列化，不经过ObjectMapper（树节点不需要SerializerProvider）
+    static void writeNode(JsonGenerator gen, JsonNode node) throws IOException {
+        ((BaseJsonNode) node).serialize(gen, null);
+    }
+}
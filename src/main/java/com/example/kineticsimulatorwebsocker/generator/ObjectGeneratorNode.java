@@ -0,0 +1,41 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import com.example.kineticsimulatorwebsocker.random.RandomSource;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+
+/**
+ * 对象节点：字段名和子节点在编译期按模板顺序确定
+ */
+class ObjectGeneratorNode implements GeneratorNode {
+    private final String[] fieldNames;
+    private final GeneratorNode[] fieldNodes;
+
+    ObjectGeneratorNode(String[] fieldNames, GeneratorNode[] fieldNodes) {
+        this.fieldNames = fieldNames;
+        this.fieldNodes = fieldNodes;
+    }
+
+    @Override
+    public JsonNode generate(RandomSource random) {
+        ObjectNode obj = JsonNodeFactory.instance.objectNode();
+        for (int i = 0; i < fieldNames.length; i++) {
+            obj.set(fieldNames[i], fieldNodes[i].generate(random));
+        }
+        return obj;
+    }
+
+    @Override
+    public void write(JsonGenerator gen, RandomSource random) throws IOException {
+        gen.writeStartObject();
+        for (int i = 0; i < fieldNames.length; i++) {
+            gen.writeFieldName(fieldNames[i]);
+            fieldNodes[i].write(gen, random);
+        }
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 可复用的推送数据字符缓冲区
+ * 每个推送线程持有一个，流式生成的数据先写入这里，再整体写入会话的发送Writer，
+ * 避免每次推送都分配新的字符串。
+ * 字符按段保存，每段最多SEGMENT_SIZE个字符，超大的帧不需要一块连续的大数组；
+ * 超过分片阈值的帧直接交出各段（TextFragments）按分片消息发送，不再合并成一个完整字符串
+ */
+public final class PayloadBuffer extends Writer {
+    private static final int INITIAL_CAPACITY = 4096;
+    // 单段字符数，也是分片发送时每个分片的大小
+    static final int SEGMENT_SIZE = 64 * 1024;
+    private static final ThreadLocal<PayloadBuffer> threadBuffers = ThreadLocal.withInitial(PayloadBuffer::new);
+
+    // 超过该字符数的帧按分片发送，0表示不分片
+    private static volatile int fragmentThreshold = 1024 * 1024;
+
+    // 已写满的段，每段SEGMENT_SIZE个字符
+    private final List<char[]> full = new ArrayList<>();
+    // 当前段，未满SEGMENT_SIZE前按倍数增长
+    private char[] buf = new char[INITIAL_CAPACITY];
+    private int count;
+
+    /**
+     * 设置分片发送阈值（字符数），0表示总是整帧发送
+     */
+    public static void configure(int fragmentThreshold) {
+        PayloadBuffer.fragmentThreshold = Math.max(fragmentThreshold, 0);
+    }
+
+    /**
+     * 获取当前线程的缓冲区并清空
+     */
+    public static PayloadBuffer forCurrentThread() {
+        PayloadBuffer buffer = threadBuffers.get();
+        buffer.reset();
+        return buffer;
+    }
+
+    // 偶发的超大推送之后只保留当前段，最多占用一段的内存
+    public void reset() {
+        full.clear();
+        count = 0;
+    }
+
+    // 当前段写满时先增长到SEGMENT_SIZE，已是整段时换新段
+    private void ensureSpace() {
+        if (count < buf.length) return;
+        if (buf.length < SEGMENT_SIZE) {
+            buf = Arrays.copyOf(buf, Math.min(buf.length << 1, SEGMENT_SIZE));
+        } else {
+            full.add(buf);
+            buf = new char[SEGMENT_SIZE];
+            count = 0;
+        }
+    }
+
+    @Override
+    public void write(int c) {
+        ensureSpace();
+        buf[count++] = (char) c;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+        while (len > 0) {
+            ensureSpace();
+            int n = Math.min(len, buf.length - count);
+            System.arraycopy(cbuf, off, buf, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+        while (len > 0) {
+            ensureSpace();
+            int n = Math.min(len, buf.length - count);
+            str.getChars(off, off + n, buf, count);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    public int length() {
+        return full.size() * SEGMENT_SIZE + count;
+    }
+
+    /**
+     * 把缓冲区内容整体写入目标Writer（如会话的getSendWriter）
+     */
+    public void writeTo(Writer out) throws IOException {
+        for (char[] segment : full) {
+            out.write(segment, 0, segment.length);
+        }
+        out.write(buf, 0, count);
+    }
+
+    /**
+     * 取出要发送的帧：不超过分片阈值时为String；否则为TextFragments，直接交出已写入的各段（不复制），
+     * 缓冲区改用新的段继续复用
+     */
+    public Object toFrame() {
+        int threshold = fragmentThreshold;
+        if (threshold <= 0 || length() <= threshold) return toString();
+        char[][] segments = new char[full.size() + 1][];
+        full.toArray(segments);
+        segments[full.size()] = buf;
+        TextFragments fragments = new TextFragments(segments, count);
+        full.clear();
+        buf = new char[INITIAL_CAPACITY];
+        count = 0;
+        return fragments;
+    }
+
+    @Override
+    public String toString() {
+        if (full.isEmpty()) return new String(buf, 0, count);
+        char[] all = new char[length()];
+        int pos = 0;
+        for (char[] segment : full) {
+            System.arraycopy(segment, 0, all, pos, segment.length);
+            pos += segment.length;
+        }
+        System.arraycopy(buf, 0, all, pos, count);
+        return new String(all);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
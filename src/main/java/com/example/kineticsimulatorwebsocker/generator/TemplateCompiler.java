@@ -0,0 +1,186 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import com.example.kineticsimulatorwebsocker.websocket.DynamicWebSocketServer.FieldLimit;
+import com.example.kineticsimulatorwebsocker.websocket.DynamicWebSocketServer.TemplateConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * 模板编译器
+ * 在收到模板时把TemplateConfig（模板、字段类型、字段限制、默认值、数组元素个数、组数）编译为不可变的生成计划，
+ * 路径拼接、数组路径归一化和字段配置查找都只在编译时做一次。
+ * 普通模式和高级模式走同一条编译路径，只有数组展开策略不同（见GeneratorEngine）；叶子字段由内置生成函数或注册的插件生成。
+ * 子节点全部为常量的对象和定长数组折叠为一个常量节点，每个tick直接复用，不再重新生成
+ */
+public final class TemplateCompiler {
+    private static final Logger logger = LoggerFactory.getLogger(TemplateCompiler.class);
+
+    private static final GeneratorNode EMPTY_ARRAY = new ConstantGeneratorNode(JsonNodeFactory.instance.arrayNode());
+    private static final GeneratorNode EMPTY_OBJECT = new ConstantGeneratorNode(JsonNodeFactory.instance.objectNode());
+
+    private TemplateCompiler() {}
+
+    public static GeneratorPlan compile(TemplateConfig config) {
+        return compile(config.template, config.fieldTypes, config.fieldLimits, config.fieldDefaults, config.arrayLengths,
+                config.mode, config.groupCount);
+    }
+
+    public static GeneratorPlan compile(JsonNode template, Map<String, String> fieldTypes, Map<String, FieldLimit> fieldLimits,
+                                        Map<String, String> fieldDefaults, String mode, int groupCount) {
+        return compile(template, fieldTypes, fieldLimits, fieldDefaults, null, mode, groupCount);
+    }
+
+    public static GeneratorPlan compile(JsonNode template, Map<String, String> fieldTypes, Map<String, FieldLimit> fieldLimits,
+                                        Map<String, String> fieldDefaults, Map<String, FieldLimit> arrayLengths,
+                                        String mode, int groupCount) {
+        FieldResolver resolver = new FieldResolver(fieldTypes, fieldLimits, fieldDefaults, arrayLengths);
+        ArrayExpansion expansion = GeneratorEngine.getArrayExpansion(mode);
+        GeneratorNode root = compileNode(template, resolver, expansion, "", "", groupCount);
+        if (!resolver.warnings.isEmpty()) {
+            logger.warn("模板字段配置有误，已使用默认值: {}", resolver.warnings);
+        }
+        return new GeneratorPlan(root, new ArrayList<>(resolver.warnings));
+    }
+
+    // 默认值优先；数组按展开策略生成元素，每个下标沿用[0]的字段配置，按下标覆盖的配置优先；groupCount只作用于根数组
+    private static GeneratorNode compileNode(JsonNode template, FieldResolver resolver, ArrayExpansion expansion,
+                                             String path, String normPath, int groupCount) {
+        String defVal = resolver.getDefault(path, normPath);
+        if (defVal != null) {
+            return new ConstantGeneratorNode(FieldValueGenerators.parseDefaultValue(defVal, resolver.getType(path, normPath), template));
+        }
+        if (template.isArray()) {
+            if (template.size() == 0) return EMPTY_ARRAY;
+            GeneratorNode[] shared = new GeneratorNode[template.size()];
+            int[] lengthRange = arrayLengthRange(resolver.getLength(path, normPath), path, resolver.warnings);
+            int overrideBound = resolver.overriddenIndexBound(path);
+            return expansion.expand(template.size(), groupCount, lengthRange, new ArrayExpansion.ElementCompiler() {
+                @Override
+                public GeneratorNode compile(int index, int templateIdx) {
+                    return compileElement(template.get(templateIdx), resolver, expansion, path + "[" + index + "]", normPath + "[0]", shared, templateIdx);
+                }
+
+                @Override
+                public int distinctLength(int templateSize) {
+                    return Math.max(templateSize, overrideBound);
+                }
+            });
+        } else if (template.isObject()) {
+            return compileObject(template, resolver, expansion, path, normPath);
+        }
+        return compileValue(resolver, path, normPath);
+    }
+
+    // arrayLengths中的元素个数范围，限制在[0, maxArraySize]内；min、max都为空时视为未设置
+    private static int[] arrayLengthRange(FieldLimit limit, String path, Collection<String> warnings) {
+        if (limit == null || limit.min == null || limit.max == null || limit.min.isEmpty() || limit.max.isEmpty()) {
+            return null;
+        }
+        int min;
+        int max;
+        try {
+            min = Integer.parseInt(limit.min);
+            max = Integer.parseInt(limit.max);
+        } catch (NumberFormatException e) {
+            warnings.add(path + ": 数组元素个数解析失败(min=" + limit.min + ", max=" + limit.max + ")，使用默认值");
+            return null;
+        }
+        if (min > max) {
+            warnings.add(path + ": 数组元素个数min大于max(min=" + min + ", max=" + max + ")，已交换");
+            int tmp = min;
+            min = max;
+            max = tmp;
+        }
+        int maxArraySize = GeneratorEngine.getMaxArraySize();
+        if (max > maxArraySize) {
+            warnings.add(path + ": 数组元素个数超过上限" + maxArraySize + "(max=" + max + ")，已截断");
+            max = maxArraySize;
+        }
+        min = Math.max(0, Math.min(min, max));
+        return new int[]{min, Math.max(max, 0)};
+    }
+
+    // 数组元素：下标下没有覆盖配置时，同一个模板元素的所有下标共享一个编译节点
+    private static GeneratorNode compileElement(JsonNode elementTemplate, FieldResolver resolver, ArrayExpansion expansion,
+                                                String path, String normPath, GeneratorNode[] shared, int templateIdx) {
+        boolean overridden = resolver.hasOverridesUnder(path);
+        if (!overridden && shared[templateIdx] != null) {
+            return shared[templateIdx];
+        }
+        GeneratorNode node = compileNode(elementTemplate, resolver, expansion, path, normPath, 1);
+        if (!overridden) shared[templateIdx] = node;
+        return node;
+    }
+
+    private static GeneratorNode compileObject(JsonNode template, FieldResolver resolver, ArrayExpansion expansion, String path, String normPath) {
+        int size = template.size();
+        String[] fieldNames = new String[size];
+        GeneratorNode[] fieldNodes = new GeneratorNode[size];
+        Iterator<Map.Entry<String, JsonNode>> fields = template.fields();
+        for (int i = 0; fields.hasNext(); i++) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String fieldPath = path.isEmpty() ? field.getKey() : path + "." + field.getKey();
+            String fieldNormPath = normPath.isEmpty() ? field.getKey() : normPath + "." + field.getKey();
+            fieldNames[i] = field.getKey();
+            fieldNodes[i] = compileNode(field.getValue(), resolver, expansion, fieldPath, fieldNormPath, 1);
+        }
+        return foldObject(fieldNames, fieldNodes);
+    }
+
+    // 所有字段都是常量时在编译期生成整个对象
+    private static GeneratorNode foldObject(String[] fieldNames, GeneratorNode[] fieldNodes) {
+        ObjectNode folded = JsonNodeFactory.instance.objectNode();
+        for (int i = 0; i < fieldNodes.length; i++) {
+            if (!(fieldNodes[i] instanceof ConstantGeneratorNode)) {
+                return new ObjectGeneratorNode(fieldNames, fieldNodes);
+            }
+            folded.set(fieldNames[i], ((ConstantGeneratorNode) fieldNodes[i]).getValue());
+        }
+        return new ConstantGeneratorNode(folded);
+    }
+
+    // 取值范围退化为单个值的时间戳和整数字段，编译期即可确定结果
+    private static JsonNode pinnedValue(FieldType type, FieldLimit limit) {
+        if (limit == null || limit.min == null || limit.max == null || !limit.min.equals(limit.max)) {
+            return null;
+        }
+        try {
+            if (type == FieldType.TIMESTAMP_EDITABLE) return new LongNode(Long.parseLong(limit.min));
+            if (type.isInteger()) return new IntNode(Integer.parseInt(limit.min));
+            return null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // 字段类型和限制在这里一次性解析为生成函数，每个tick不再按类型名分派或解析范围；注册了插件的类型由插件生成
+    private static GeneratorNode compileValue(FieldResolver resolver, String path, String normPath) {
+        String typeName = resolver.getType(path, normPath);
+        FieldLimit limit = resolver.getLimit(path, normPath);
+        DataGenerator plugin = GeneratorEngine.getDataGenerator(typeName);
+        if (plugin != null) {
+            return new ValueGeneratorNode(plugin.resolve(limit, path, resolver.warnings));
+        }
+        FieldType type = FieldType.of(typeName);
+        switch (type) {
+            case ARRAY:
+                return EMPTY_ARRAY;
+            case OBJECT:
+                return EMPTY_OBJECT;
+            default:
+                JsonNode pinned = pinnedValue(type, limit);
+                if (pinned != null) return new ConstantGeneratorNode(pinned);
+                return new ValueGeneratorNode(FieldValueGenerators.resolve(type, limit, path, resolver.warnings));
+        }
+    }
+}
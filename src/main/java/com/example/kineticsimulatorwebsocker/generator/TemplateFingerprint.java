@@ -0,0 +1,69 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import com.example.kineticsimulatorwebsocker.websocket.DynamicWebSocketServer.FieldLimit;
+import com.example.kineticsimulatorwebsocker.websocket.DynamicWebSocketServer.TemplateConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 模板指纹
+ * 对模板及其字段类型、限制、默认值、生成模式、组数做规范化后计算SHA-256，
+ * 内容相同的模板得到相同的指纹（配置表按key排序，模板本身保留字段顺序，因为它决定输出顺序）
+ */
+public final class TemplateFingerprint {
+
+    private TemplateFingerprint() {}
+
+    public static String of(TemplateConfig config) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("template=").append(config.template).append('\n');
+        sb.append("mode=").append(config.mode).append('\n');
+        sb.append("groupCount=").append(config.groupCount).append('\n');
+        appendSorted(sb, "types", config.fieldTypes);
+        if (config.fieldLimits != null) {
+            sb.append("limits=");
+            for (Map.Entry<String, FieldLimit> entry : new TreeMap<>(config.fieldLimits).entrySet()) {
+                sb.append(entry.getKey()).append('=').append(entry.getValue().min).append('~').append(entry.getValue().max).append(';');
+            }
+            sb.append('\n');
+        }
+        appendSorted(sb, "defaults", config.fieldDefaults);
+        // 未设置数组元素个数时不参与指纹，已注册模板的ID保持不变
+        if (config.arrayLengths != null && !config.arrayLengths.isEmpty()) {
+            sb.append("arrayLengths=");
+            for (Map.Entry<String, FieldLimit> entry : new TreeMap<>(config.arrayLengths).entrySet()) {
+                sb.append(entry.getKey()).append('=').append(entry.getValue().min).append('~').append(entry.getValue().max).append(';');
+            }
+            sb.append('\n');
+        }
+        return sha256Hex(sb.toString());
+    }
+
+    private static void appendSorted(StringBuilder sb, String name, Map<String, String> map) {
+        if (map == null) return;
+        sb.append(name).append('=');
+        for (Map.Entry<String, String> entry : new TreeMap<>(map).entrySet()) {
+            sb.append(entry.getKey()).append('=').append(entry.getValue()).append(';');
+        }
+        sb.append('\n');
+    }
+
+    private static String sha256Hex(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            char[] hex = new char[digest.length * 2];
+            String digits = "0123456789abcdef";
+            for (int i = 0; i < digest.length; i++) {
+                hex[i * 2] = digits.charAt((digest[i] >> 4) & 0xF);
+                hex[i * 2 + 1] = digits.charAt(digest[i] & 0xF);
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import com.example.kineticsimulatorwebsocker.websocket.DynamicWebSocketServer.FieldLimit;
+import com.example.kineticsimulatorwebsocker.websocket.DynamicWebSocketServer.TemplateConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 模板注册表
+ * 以模板指纹为ID保存编译好的模板：内存中是有界LRU缓存，同时追加写入本地文件（每行一条JSON记录），重启后仍可使用。
+ * 客户端连接时通过?template=<id>直接引用已注册的模板，缓存命中时不需要解析和编译。
+ * 启动时扫描文件建立ID到文件偏移的索引，并预编译最近写入的模板填满缓存；缓存未命中时按偏移读取该行重新编译。
+ * 同一模板只写入一次；写入由单独的写线程异步完成，注册（在WebSocket I/O线程上）不等待磁盘。
+ * 文件中的模板数超过上限时压缩为最近写入的3/4，重写文件并重建索引；加载时发现重复或损坏的记录也会压缩。
+ * 缓存和文件索引都以记录中保存的模板ID为键，即客户端注册时拿到的ID
+ */
+public final class TemplateRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(TemplateRegistry.class);
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static volatile int cacheCapacity = 256;
+    private static volatile int storeMaxEntries = 10000;
+    // 编译后的模板，按访问顺序淘汰
+    private static final LinkedHashMap<String, TemplateConfig> cache = new LinkedHashMap<String, TemplateConfig>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TemplateConfig> eldest) {
+            return size() > cacheCapacity;
+        }
+    };
+    // 已持久化模板在文件中的起始偏移，按写入顺序排列（压缩时保留最后写入的）
+    private static final Map<String, Long> offsets = new LinkedHashMap<>();
+    // 已注册、等待写线程写入文件的模板，被缓存淘汰后仍可按ID找到
+    private static final Map<String, TemplateConfig> pending = new ConcurrentHashMap<>();
+    // 单个写线程：文件追加、压缩都在这里串行执行
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "template-store-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // 为null时只使用内存缓存
+    private static Path storePath;
+    private static long storeSize;
+    private static long hits;
+    private static long misses;
+
+    private TemplateRegistry() {}
+
+    /**
+     * path为模板文件路径（为空时不持久化），capacity为缓存的模板数；加载已有文件并预编译最近写入的模板
+     */
+    public static void configure(String path, int capacity) {
+        configure(path, capacity, storeMaxEntries);
+    }
+
+    /**
+     * maxEntries为文件中保存的模板数上限；先等待尚未写完的模板落盘，再重新加载
+     */
+    public static void configure(String path, int capacity, int maxEntries) {
+        flush();
+        synchronized (TemplateRegistry.class) {
+            cacheCapacity = Math.max(capacity, 1);
+            storeMaxEntries = Math.max(maxEntries, 1);
+            synchronized (cache) {
+                cache.clear();
+            }
+            pending.clear();
+            offsets.clear();
+            storeSize = 0;
+            storePath = path != null && !path.trim().isEmpty() ? Paths.get(path.trim()) : null;
+            if (storePath == null || !Files.exists(storePath)) return;
+            try {
+                load();
+            } catch (IOException e) {
+                logger.warn("加载模板文件{}失败: {}", storePath, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 等待已提交的写入完成
+     */
+    public static void flush() {
+        try {
+            writer.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.warn("等待模板写入完成失败: {}", e.getMessage());
+        }
+    }
+
+    // 逐行扫描文件：记录每条模板的偏移，并编译最后cacheCapacity条放入缓存；末尾不完整的行（写入中断）忽略
+    private static void load() throws IOException {
+        byte[] content = Files.readAllBytes(storePath);
+        List<JsonNode> recent = new ArrayList<>();
+        int lineStart = 0;
+        int records = 0;
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] != '\n') continue;
+            if (i > lineStart) {
+                try {
+                    JsonNode record = mapper.readTree(new String(content, lineStart, i - lineStart, StandardCharsets.UTF_8));
+                    records++;
+                    // 重复的ID以第一条为准，与注册时一致
+                    offsets.putIfAbsent(record.path("id").asText(), (long) lineStart);
+                    recent.add(record);
+                    if (recent.size() > cacheCapacity) recent.remove(0);
+                } catch (IOException e) {
+                    records++;
+                    logger.warn("模板文件{}偏移{}处的记录无法解析，已跳过", storePath, lineStart);
+                }
+            }
+            lineStart = i + 1;
+        }
+        storeSize = lineStart;
+        for (JsonNode record : recent) {
+            try {
+                TemplateConfig config = fromRecord(record);
+                synchronized (cache) {
+                    cache.put(config.templateHash, config);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("模板{}编译失败，已跳过: {}", record.path("id").asText(), e.getMessage());
+            }
+        }
+        logger.info("从{}加载{}个模板，预编译{}个", storePath, offsets.size(), recent.size());
+        if (records > offsets.size() || offsets.size() > storeMaxEntries || storeSize < content.length) {
+            compact(Math.min(offsets.size(), storeMaxEntries));
+        }
+    }
+
+    /**
+     * 注册编译好的模板，返回注册表中保存的模板，其templateHash即模板ID；会话自己的种子和广播设置不属于模板，不会保存。
+     * 推送频率作为通过?template=<id>连接时的默认值保存，以同一指纹第一次注册时的为准，之后重复注册不会改变。
+     * 模板不是JSON对象或数组（如空消息）时不注册，返回null
+     */
+    public static TemplateConfig register(TemplateConfig config) {
+        if (config.template == null || !config.template.isContainerNode()) return null;
+        String id = config.templateHash;
+        TemplateConfig existing = null;
+        synchronized (cache) {
+            existing = cache.get(id);
+        }
+        if (existing == null) existing = loadFromStore(id);
+        if (existing != null) {
+            synchronized (cache) {
+                cache.put(id, existing);
+            }
+            return existing;
+        }
+        TemplateConfig stored = config.copy();
+        stored.seed = null;
+        stored.broadcast = false;
+        synchronized (cache) {
+            cache.put(id, stored);
+        }
+        persist(stored);
+        return stored;
+    }
+
+    // 交给写线程追加到文件，调用方不等待磁盘I/O
+    private static void persist(TemplateConfig config) {
+        Path path = storePath;
+        if (path == null || pending.putIfAbsent(config.templateHash, config) != null) return;
+        writer.execute(() -> append(path, config));
+    }
+
+    private static synchronized void append(Path path, TemplateConfig config) {
+        try {
+            // 提交后重新配置了文件路径的写入作废
+            if (!path.equals(storePath) || offsets.containsKey(config.templateHash)) return;
+            byte[] line = (mapper.writeValueAsString(toRecord(config)) + "\n").getBytes(StandardCharsets.UTF_8);
+            if (storePath.getParent() != null) Files.createDirectories(storePath.getParent());
+            Files.write(storePath, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            offsets.put(config.templateHash, storeSize);
+            storeSize += line.length;
+            if (offsets.size() > storeMaxEntries) compact(storeMaxEntries * 3 / 4);
+        } catch (IOException e) {
+            logger.warn("模板{}写入{}失败: {}", config.templateHash, storePath, e.getMessage());
+        } finally {
+            pending.remove(config.templateHash, config);
+        }
+    }
+
+    // 只保留最后写入的keep条记录：写入临时文件后替换原文件并重建索引；失败时原文件和索引不变
+    private static void compact(int keep) throws IOException {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(offsets.entrySet());
+        List<Map.Entry<String, Long>> kept = entries.subList(Math.max(entries.size() - keep, 0), entries.size());
+        Map<String, Long> compacted = new LinkedHashMap<>();
+        Path temp = storePath.resolveSibling(storePath.getFileName() + ".tmp");
+        long size = 0;
+        try (RandomAccessFile in = new RandomAccessFile(storePath.toFile(), "r")) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (Map.Entry<String, Long> entry : kept) {
+                byte[] line = readLine(in, entry.getValue());
+                compacted.put(entry.getKey(), size);
+                out.write(line);
+                out.write('\n');
+                size += line.length + 1;
+            }
+            Files.write(temp, out.toByteArray());
+        }
+        Files.move(temp, storePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("模板文件{}已压缩: {}条记录保留{}条", storePath, entries.size(), compacted.size());
+        offsets.clear();
+        offsets.putAll(compacted);
+        storeSize = size;
+    }
+
+    private static byte[] readLine(RandomAccessFile file, long offset) throws IOException {
+        file.seek(offset);
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = file.read()) != -1 && b != '\n') {
+            line.write(b);
+        }
+        return line.toByteArray();
+    }
+
+    /**
+     * 按ID查找模板，返回一份会话可以独立修改推送频率的副本；不存在时返回null
+     */
+    public static TemplateConfig get(String id) {
+        if (id == null) return null;
+        synchronized (cache) {
+            TemplateConfig config = cache.get(id);
+            if (config != null) {
+                hits++;
+                return config.copy();
+            }
+            misses++;
+        }
+        TemplateConfig config = loadFromStore(id);
+        if (config == null) return null;
+        synchronized (cache) {
+            cache.put(config.templateHash, config);
+        }
+        return config.copy();
+    }
+
+    private static synchronized TemplateConfig loadFromStore(String id) {
+        TemplateConfig queued = pending.get(id);
+        if (queued != null) return queued;
+        Long offset = offsets.get(id);
+        if (offset == null || storePath == null) return null;
+        try (RandomAccessFile file = new RandomAccessFile(storePath.toFile(), "r")) {
+            return fromRecord(mapper.readTree(new String(readLine(file, offset), StandardCharsets.UTF_8)));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("从{}读取模板{}失败: {}", storePath, id, e.getMessage());
+            return null;
+        }
+    }
+
+    private static ObjectNode toRecord(TemplateConfig config) {
+        ObjectNode record = mapper.createObjectNode();
+        record.put("id", config.templateHash);
+        record.set("template", config.template);
+        record.set("fieldTypes", mapper.valueToTree(config.fieldTypes));
+        putLimits(record.putObject("fieldLimits"), config.fieldLimits);
+        if (!config.arrayLengths.isEmpty()) putLimits(record.putObject("arrayLengths"), config.arrayLengths);
+        record.set("fieldDefaults", mapper.valueToTree(config.fieldDefaults));
+        record.put("mode", config.mode);
+        record.put("groupCount", config.groupCount);
+        record.put("pushInterval", config.pushInterval);
+        if (config.keyframeInterval != null) record.put("keyframeInterval", config.keyframeInterval);
+        return record;
+    }
+
+    private static void putLimits(ObjectNode target, Map<String, FieldLimit> source) {
+        for (Map.Entry<String, FieldLimit> entry : source.entrySet()) {
+            ObjectNode limit = target.putObject(entry.getKey());
+            limit.put("min", entry.getValue().min);
+            limit.put("max", entry.getValue().max);
+        }
+    }
+
+    private static Map<String, FieldLimit> readLimits(JsonNode source) {
+        Map<String, FieldLimit> limits = new ConcurrentHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> entries = source.fields();
+        while (entries.hasNext()) {
+            Map.Entry<String, JsonNode> e = entries.next();
+            JsonNode min = e.getValue().get("min");
+            JsonNode max = e.getValue().get("max");
+            limits.put(e.getKey(), new FieldLimit(min != null && !min.isNull() ? min.asText() : null,
+                    max != null && !max.isNull() ? max.asText() : null));
+        }
+        return limits;
+    }
+
+    private static TemplateConfig fromRecord(JsonNode record) {
+        Map<String, String> fieldTypes = new ConcurrentHashMap<>();
+        record.path("fieldTypes").fields().forEachRemaining(e -> fieldTypes.put(e.getKey(), e.getValue().asText()));
+        Map<String, FieldLimit> fieldLimits = readLimits(record.path("fieldLimits"));
+        Map<String, String> fieldDefaults = new ConcurrentHashMap<>();
+        record.path("fieldDefaults").fields().forEachRemaining(e -> fieldDefaults.put(e.getKey(), e.getValue().asText()));
+        TemplateConfig config = new TemplateConfig(record.get("template"), fieldTypes, fieldLimits, fieldDefaults,
+                record.path("pushInterval").asDouble(1.0), record.path("mode").asText("normal"));
+        config.groupCount = record.path("groupCount").asInt(1);
+        config.arrayLengths = readLimits(record.path("arrayLengths"));
+        JsonNode keyframe = record.get("keyframeInterval");
+        if (keyframe != null && keyframe.canConvertToInt()) config.keyframeInterval = keyframe.asInt();
+        config.plan = TemplateCompiler.compile(config);
+        config.templateHash = TemplateFingerprint.of(config);
+        // 客户端按保存的ID引用模板，指纹算法变化时仍使用原ID，缓存和文件索引的键保持一致
+        String id = record.path("id").asText();
+        if (!id.isEmpty() && !id.equals(config.templateHash)) {
+            logger.warn("模板{}重新计算的指纹为{}，仍按原ID注册", id, config.templateHash);
+            config.templateHash = id;
+        }
+        return config;
+    }
+
+    public static boolean contains(String id) {
+        synchronized (cache) {
+            if (cache.containsKey(id)) return true;
+        }
+        if (pending.containsKey(id)) return true;
+        synchronized (TemplateRegistry.class) {
+            return offsets.containsKey(id);
+        }
+    }
+
+    /**
+     * 已注册模板的ID及缓存状态
+     */
+    public static Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (cache) {
+            stats.put("cached", new ArrayList<>(cache.keySet()));
+            stats.put("cacheCapacity", cacheCapacity);
+            stats.put("hits", hits);
+            stats.put("misses", misses);
+        }
+        synchronized (TemplateRegistry.class) {
+            stats.put("persisted", offsets.size());
+            stats.put("storeMaxEntries", storeMaxEntries);
+            stats.put("storePath", storePath != null ? storePath.toString() : null);
+        }
+        stats.put("pendingWrites", pending.size());
+        return stats;
+    }
+}
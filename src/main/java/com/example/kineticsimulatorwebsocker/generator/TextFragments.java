@@ -0,0 +1,51 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 按段保存的超大文本帧
+ * 由PayloadBuffer.toFrame()交出，内容不再改变，可以同时发送给多个会话；
+ * 发送时每段作为一个分片消息写出，只在发送该段时创建该段的字符串
+ */
+public final class TextFragments {
+    private final char[][] segments;
+    // 最后一段的有效字符数，其余各段都是整段
+    private final int lastLength;
+
+    TextFragments(char[][] segments, int lastLength) {
+        this.segments = segments;
+        this.lastLength = lastLength;
+    }
+
+    public int count() {
+        return segments.length;
+    }
+
+    public int length() {
+        int length = lastLength;
+        for (int i = 0; i < segments.length - 1; i++) {
+            length += segments[i].length;
+        }
+        return length;
+    }
+
+    /**
+     * 第index段的文本
+     */
+    public String fragment(int index) {
+        return new String(segments[index], 0, index == segments.length - 1 ? lastLength : segments[index].length);
+    }
+
+    public void writeTo(Writer out) throws IOException {
+        for (int i = 0; i < segments.length; i++) {
+            out.write(segments[i], 0, i == segments.length - 1 ? lastLength : segments[i].length);
+        }
+    }
+
+    // 日志中只输出概要，不拼接完整内容
+    @Override
+    public String toString() {
+        return "TextFragments[" + count() + "段, " + length() + "字符]";
+    }
+}
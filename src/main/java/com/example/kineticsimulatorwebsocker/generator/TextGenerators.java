@@ -0,0 +1,180 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import com.example.kineticsimulatorwebsocker.random.RandomSource;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.io.IOException;
+
+/**
+ * 文本类字段（邮箱、手机号、IP、URL、UUID、姓名、颜色、随机字符串、日期）的生成函数
+ * 候选值都是静态字符表，生成时把字符直接填入线程本地的字符缓冲区，流式输出时从缓冲区写入JsonGenerator，
+ * 不创建中间字符串，也不使用String.format和字符串拼接；只有构建JsonNode树时才创建一个字符串。
+ * 随机数的抽取顺序与原来的实现一致，相同种子生成的文本不变
+ */
+public final class TextGenerators {
+
+    private static final char[] ALPHANUMERIC = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final char[][] EMAIL_DOMAINS = chars("gmail.com", "yahoo.com", "hotmail.com", "outlook.com", "qq.com", "163.com");
+    private static final char[][] PHONE_PREFIXES = chars("130", "131", "132", "133", "134", "135", "136", "137", "138", "139",
+            "150", "151", "152", "153", "155", "156", "157", "158", "159",
+            "180", "181", "182", "183", "184", "185", "186", "187", "188", "189");
+    private static final char[][] URL_PROTOCOLS = chars("http://", "https://");
+    private static final char[][] URL_DOMAINS = chars("example.com/", "test.com/", "demo.com/", "sample.com/");
+    private static final char[][] URL_PATHS = chars("api/", "data/", "user/", "product/", "order/");
+    private static final char[][] FIRST_NAMES = chars("张", "李", "王", "刘", "陈", "杨", "赵", "黄", "周", "吴");
+    private static final char[][] LAST_NAMES = chars("伟", "芳", "娜", "秀英", "敏", "静", "丽", "强", "磊", "军");
+    // 颜色的候选值很少，直接缓存为节点，两种输出方式都不分配对象
+    private static final TextNode[] COLORS = nodes("red", "blue", "green", "yellow", "purple", "orange", "pink", "brown", "black", "white");
+
+    // 所有文本类型的最大长度都远小于缓冲区大小
+    private static final ThreadLocal<char[]> buffers = ThreadLocal.withInitial(() -> new char[64]);
+
+    /**
+     * 把文本写入缓冲区的生成函数：流式输出直接写出缓冲区中的字符，构建JsonNode树时才创建字符串
+     */
+    private interface TextWriter extends ValueGenerator {
+        // 从下标0开始写入buf，返回写入的字符数
+        int fill(char[] buf, RandomSource random);
+
+        @Override
+        default JsonNode generate(RandomSource random) {
+            char[] buf = buffers.get();
+            return new TextNode(new String(buf, 0, fill(buf, random)));
+        }
+
+        @Override
+        default void write(JsonGenerator gen, RandomSource random) throws IOException {
+            char[] buf = buffers.get();
+            gen.writeString(buf, 0, fill(buf, random));
+        }
+    }
+
+    // 8位随机字符@域名
+    public static final ValueGenerator EMAIL = (TextWriter) (buf, random) -> {
+        int pos = randomChars(buf, 0, 8, random);
+        buf[pos++] = '@';
+        return append(buf, pos, EMAIL_DOMAINS[random.nextInt(EMAIL_DOMAINS.length)]);
+    };
+
+    // 3位号段加8位数字（不足8位补0）
+    public static final ValueGenerator PHONE = (TextWriter) (buf, random) -> {
+        int pos = append(buf, 0, PHONE_PREFIXES[random.nextInt(PHONE_PREFIXES.length)]);
+        return digits(buf, pos, random.nextInt(100000000), 8);
+    };
+
+    public static final ValueGenerator IP = (TextWriter) (buf, random) -> {
+        int pos = 0;
+        for (int i = 0; i < 4; i++) {
+            if (i > 0) buf[pos++] = '.';
+            pos = decimal(buf, pos, random.nextInt(256));
+        }
+        return pos;
+    };
+
+    // 协议://域名/路径/0~999
+    public static final ValueGenerator URL = (TextWriter) (buf, random) -> {
+        int pos = append(buf, 0, URL_PROTOCOLS[random.nextInt(URL_PROTOCOLS.length)]);
+        pos = append(buf, pos, URL_DOMAINS[random.nextInt(URL_DOMAINS.length)]);
+        pos = append(buf, pos, URL_PATHS[random.nextInt(URL_PATHS.length)]);
+        return decimal(buf, pos, random.nextInt(1000));
+    };
+
+    /**
+     * 版本4格式的UUID：128位全部取自会话的随机源（非加密），指定种子时可复现，
+     * 不经过UUID.randomUUID()的SecureRandom，也不创建UUID对象，按8-4-4-4-12格式直接写出十六进制字符
+     */
+    public static final ValueGenerator UUID = (TextWriter) (buf, random) -> {
+        long mostSigBits = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        hex(buf, 0, mostSigBits >>> 32, 8);
+        buf[8] = '-';
+        hex(buf, 9, mostSigBits >>> 16, 4);
+        buf[13] = '-';
+        hex(buf, 14, mostSigBits, 4);
+        buf[18] = '-';
+        hex(buf, 19, leastSigBits >>> 48, 4);
+        buf[23] = '-';
+        hex(buf, 24, leastSigBits, 12);
+        return 36;
+    };
+
+    public static final ValueGenerator NAME = (TextWriter) (buf, random) -> {
+        int pos = append(buf, 0, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+        return append(buf, pos, LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+    };
+
+    public static final ValueGenerator COLOR = random -> COLORS[random.nextInt(COLORS.length)];
+
+    // 6位随机字母数字，未知类型的默认值
+    public static final ValueGenerator STRING = (TextWriter) (buf, random) -> randomChars(buf, 0, 6, random);
+
+    // 未设置日期范围时的随机日期时间：2020~2024年，yyyy-MM-dd HH:mm:ss
+    public static final ValueGenerator DATE_TIME = (TextWriter) (buf, random) -> {
+        int pos = digits(buf, 0, 2020 + random.nextInt(5), 4);
+        buf[pos++] = '-';
+        pos = digits(buf, pos, random.nextInt(12) + 1, 2);
+        buf[pos++] = '-';
+        pos = digits(buf, pos, random.nextInt(28) + 1, 2);
+        buf[pos++] = ' ';
+        pos = digits(buf, pos, random.nextInt(24), 2);
+        buf[pos++] = ':';
+        pos = digits(buf, pos, random.nextInt(60), 2);
+        buf[pos++] = ':';
+        return digits(buf, pos, random.nextInt(60), 2);
+    };
+
+    private TextGenerators() {}
+
+    private static int randomChars(char[] buf, int pos, int len, RandomSource random) {
+        for (int i = 0; i < len; i++) {
+            buf[pos++] = ALPHANUMERIC[random.nextInt(ALPHANUMERIC.length)];
+        }
+        return pos;
+    }
+
+    private static int append(char[] buf, int pos, char[] value) {
+        System.arraycopy(value, 0, buf, pos, value.length);
+        return pos + value.length;
+    }
+
+    // 非负整数按width位写出，不足补0
+    private static int digits(char[] buf, int pos, int value, int width) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + width;
+    }
+
+    // 0~999的整数按实际位数写出（IP段和URL编号）
+    private static int decimal(char[] buf, int pos, int value) {
+        return digits(buf, pos, value, value >= 100 ? 3 : (value >= 10 ? 2 : 1));
+    }
+
+    // value的低width*4位按width个十六进制字符写出
+    private static void hex(char[] buf, int pos, long value, int width) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            buf[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    private static char[][] chars(String... values) {
+        char[][] result = new char[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i].toCharArray();
+        }
+        return result;
+    }
+
+    private static TextNode[] nodes(String... values) {
+        TextNode[] result = new TextNode[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = new TextNode(values[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import com.example.kineticsimulatorwebsocker.random.RandomSource;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+
+/**
+ * 叶子值生成函数
+ * 由字段类型和字段限制在编译期构建，取值范围、格式化器等都已准备好，每个tick只需取随机数生成值
+ */
+public interface ValueGenerator {
+    JsonNode generate(RandomSource random);
+
+    /**
+     * 流式输出时直接写入gen；默认先生成节点再序列化，文本类生成函数会覆盖为直接写出字符
+     */
+    default void write(JsonGenerator gen, RandomSource random) throws IOException {
+        GeneratorPlan.writeNode(gen, generate(random));
+    }
+}
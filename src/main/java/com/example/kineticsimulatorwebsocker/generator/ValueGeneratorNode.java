@@ -0,0 +1,29 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import com.example.kineticsimulatorwebsocker.random.RandomSource;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+
+/**
+ * 叶子节点：字段类型和字段限制在编译期已解析为生成函数（内置类型来自FieldValueGenerators，或GeneratorEngine中注册的插件），
+ * 普通模式与高级模式共用同一套叶子生成路径
+ */
+class ValueGeneratorNode implements GeneratorNode {
+    private final ValueGenerator generator;
+
+    ValueGeneratorNode(ValueGenerator generator) {
+        this.generator = generator;
+    }
+
+    @Override
+    public JsonNode generate(RandomSource random) {
+        return generator.generate(random);
+    }
+
+    @Override
+    public void write(JsonGenerator gen, RandomSource random) throws IOException {
+        generator.write(gen, random);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.kineticsimulatorwebsocker.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 推送路径上的指标
+ * 推送代码通过静态方法记录，与SessionSender、BroadcastGroups一样不依赖Spring注入；
+ * 绑定MeterRegistry之前所有记录方法都是空操作
+ */
+public final class PushMetrics {
+    // 端点标签，取端点的映射路径（不含servlet上下文路径），由各端点在连接时交给SessionSender
+    public static final String DYNAMIC = "/";
+    public static final String KINETIC = "/websocket/kinetic";
+
+    /**
+     * 构建一帧的阶段：GENERATE生成数据，SERIALIZE序列化，STREAMING为流式生成（生成和序列化在同一遍完成，无法拆分）
+     */
+    public enum Stage {
+        GENERATE,
+        SERIALIZE,
+        STREAMING
+    }
+
+    private static final class EndpointMeters {
+        final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+        final Counter ticks;
+        final Counter sentMessages;
+        final Counter sentBytes;
+        final Counter sendFailures;
+        final Counter dropped;
+
+        EndpointMeters(MeterRegistry registry, String endpoint) {
+            for (Stage stage : Stage.values()) {
+                stages.put(stage, Timer.builder("websocket.frame.build")
+                        .description("构建一帧推送数据的耗时")
+                        .tag("endpoint", endpoint)
+                        .tag("stage", stage.name().toLowerCase())
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofNanos(1000))
+                        .maximumExpectedValue(Duration.ofSeconds(1))
+                        .register(registry));
+            }
+            ticks = Counter.builder("websocket.ticks").description("生成的推送帧数")
+                    .tag("endpoint", endpoint).register(registry);
+            sentMessages = Counter.builder("websocket.sent.messages").description("发送成功的消息数")
+                    .tag("endpoint", endpoint).register(registry);
+            sentBytes = Counter.builder("websocket.sent.bytes").description("发送成功的消息大小（文本按字符数计）")
+                    .baseUnit("bytes").tag("endpoint", endpoint).register(registry);
+            sendFailures = Counter.builder("websocket.send.failures").description("发送失败或超时的消息数")
+                    .tag("endpoint", endpoint).register(registry);
+            dropped = Counter.builder("websocket.send.dropped").description("发送队列溢出丢弃的消息数")
+                    .tag("endpoint", endpoint).register(registry);
+        }
+    }
+
+    private static volatile Map<String, EndpointMeters> endpoints;
+
+    private PushMetrics() {}
+
+    public static void bind(MeterRegistry registry) {
+        Map<String, EndpointMeters> meters = new HashMap<>();
+        meters.put(DYNAMIC, new EndpointMeters(registry, DYNAMIC));
+        meters.put(KINETIC, new EndpointMeters(registry, KINETIC));
+        endpoints = meters;
+    }
+
+    /**
+     * 是否已绑定MeterRegistry；未绑定时调用方可以省去计时
+     */
+    public static boolean isEnabled() {
+        return endpoints != null;
+    }
+
+    private static EndpointMeters meters(String endpoint) {
+        Map<String, EndpointMeters> current = endpoints;
+        return current != null && endpoint != null ? current.get(endpoint) : null;
+    }
+
+    public static void recordStage(String endpoint, Stage stage, long nanos) {
+        EndpointMeters meters = meters(endpoint);
+        if (meters != null) meters.stages.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static void recordTick(String endpoint) {
+        EndpointMeters meters = meters(endpoint);
+        if (meters != null) meters.ticks.increment();
+    }
+
+    public static void recordSent(String endpoint, int bytes) {
+        EndpointMeters meters = meters(endpoint);
+        if (meters != null) {
+            meters.sentMessages.increment();
+            meters.sentBytes.increment(bytes);
+        }
+    }
+
+    public static void recordSendFailure(String endpoint) {
+        EndpointMeters meters = meters(endpoint);
+        if (meters != null) meters.sendFailures.increment();
+    }
+
+    public static void recordDropped(String endpoint, int count) {
+        EndpointMeters meters = meters(endpoint);
+        if (meters != null) meters.dropped.increment(count);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.kineticsimulatorwebsocker.metrics;
+
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个会话的tick时间精度统计
+ * 每个tick记录三项，单位微秒，保存在HdrHistogram中（2位有效数字，范围自动扩展）：
+ * lateness为实际执行时间相对计划时间的延迟，jitter为相邻两次tick延迟之差的绝对值，
+ * completion为该tick的消息发送完成时间相对计划时间的延迟（包含生成、排队和网络发送）。
+ * 所有会话的记录同时汇总到全局直方图；延迟或抖动超过阈值时按间隔限流输出告警日志
+ */
+public class TickTimings {
+    private static final Logger logger = LoggerFactory.getLogger(TickTimings.class);
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private static final ConcurrentHistogram totalLateness = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private static final ConcurrentHistogram totalJitter = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private static final ConcurrentHistogram totalCompletion = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+
+    private static volatile long warnThresholdNanos = TimeUnit.MILLISECONDS.toNanos(100);
+    private static volatile long warnIntervalNanos = TimeUnit.SECONDS.toNanos(10);
+    private static final AtomicLong lastWarnNanos = new AtomicLong(System.nanoTime() - TimeUnit.DAYS.toNanos(1));
+    // 上次告警以来超过阈值的tick数
+    private static final LongAdder lateSinceWarn = new LongAdder();
+
+    private final Histogram lateness = new Histogram(SIGNIFICANT_DIGITS);
+    private final Histogram jitter = new Histogram(SIGNIFICANT_DIGITS);
+    private final Histogram completion = new Histogram(SIGNIFICANT_DIGITS);
+    private long previousLatenessNanos = -1;
+
+    /**
+     * thresholdMillis为延迟或抖动的告警阈值（0关闭告警），intervalMillis为两次告警日志的最小间隔
+     */
+    public static void configure(long thresholdMillis, long intervalMillis) {
+        warnThresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(thresholdMillis, 0));
+        warnIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(intervalMillis, 0));
+    }
+
+    public static long getWarnThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(warnThresholdNanos);
+    }
+
+    /**
+     * 记录一次tick的计划执行时间和实际执行时间（System.nanoTime()）
+     */
+    public void recordTick(String sessionId, long intendedNanos, long firedNanos) {
+        long latenessNanos = Math.max(firedNanos - intendedNanos, 0);
+        long jitterNanos;
+        synchronized (this) {
+            jitterNanos = previousLatenessNanos >= 0 ? Math.abs(latenessNanos - previousLatenessNanos) : 0;
+            previousLatenessNanos = latenessNanos;
+            lateness.recordValue(toMicros(latenessNanos));
+            jitter.recordValue(toMicros(jitterNanos));
+        }
+        totalLateness.recordValue(toMicros(latenessNanos));
+        totalJitter.recordValue(toMicros(jitterNanos));
+        long threshold = warnThresholdNanos;
+        if (threshold > 0 && (latenessNanos > threshold || jitterNanos > threshold)) {
+            warnLate(sessionId, latenessNanos, jitterNanos);
+        }
+    }
+
+    /**
+     * 记录一条tick消息的发送完成时间，intendedNanos为该tick的计划执行时间
+     */
+    public void recordCompletion(long intendedNanos, long completedNanos) {
+        long micros = toMicros(Math.max(completedNanos - intendedNanos, 0));
+        synchronized (this) {
+            completion.recordValue(micros);
+        }
+        totalCompletion.recordValue(micros);
+    }
+
+    public synchronized Map<String, Object> snapshot() {
+        return toMap(lateness, jitter, completion);
+    }
+
+    /**
+     * 所有会话汇总的统计
+     */
+    public static Map<String, Object> aggregate() {
+        Map<String, Object> stats = toMap(totalLateness.copy(), totalJitter.copy(), totalCompletion.copy());
+        stats.put("warnThresholdMillis", getWarnThresholdMillis());
+        return stats;
+    }
+
+    public static void resetAggregate() {
+        totalLateness.reset();
+        totalJitter.reset();
+        totalCompletion.reset();
+    }
+
+    // 限流告警：每个间隔内只输出一条日志，附带间隔内超过阈值的tick数
+    private static void warnLate(String sessionId, long latenessNanos, long jitterNanos) {
+        lateSinceWarn.increment();
+        long now = System.nanoTime();
+        long last = lastWarnNanos.get();
+        if (now - last < warnIntervalNanos || !lastWarnNanos.compareAndSet(last, now)) return;
+        logger.warn("推送tick超过时间精度阈值{}ms: 连接{}延迟{}ms、抖动{}ms，上次告警以来共{}次，全局p99延迟{}ms",
+                getWarnThresholdMillis(), sessionId, latenessNanos / 1_000_000.0, jitterNanos / 1_000_000.0,
+                lateSinceWarn.sumThenReset(), totalLateness.getValueAtPercentile(99) / 1000.0);
+    }
+
+    private static long toMicros(long nanos) {
+        return nanos / 1000;
+    }
+
+    private static Map<String, Object> toMap(AbstractHistogram lateness, AbstractHistogram jitter, AbstractHistogram completion) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("latenessMillis", percentiles(lateness));
+        stats.put("jitterMillis", percentiles(jitter));
+        stats.put("completionMillis", percentiles(completion));
+        return stats;
+    }
+
+    private static Map<String, Object> percentiles(AbstractHistogram histogram) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("count", histogram.getTotalCount());
+        stats.put("mean", histogram.getMean() / 1000.0);
+        stats.put("p50", histogram.getValueAtPercentile(50) / 1000.0);
+        stats.put("p90", histogram.getValueAtPercentile(90) / 1000.0);
+        stats.put("p99", histogram.getValueAtPercentile(99) / 1000.0);
+        stats.put("p999", histogram.getValueAtPercentile(99.9) / 1000.0);
+        stats.put("max", histogram.getMaxValue() / 1000.0);
+        return stats;
+    }
+}
@@ -1,22 +1,26 @@
 package com.example.kineticsimulatorwebsocker.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 /**
  * 动力学数据模型
+ * 字段使用基本类型，推送时由KineticDataJsonWriter按原有格式（全部为字符串，坐标保留两位小数）输出
  */
+@JsonSerialize(using = KineticDataSerializer.class)
 public class KineticData {
-    private String id;
-    private String type;
-    private String x;
-    private String y;
-    private String z;
-    private String a;
-    private String d;
-    private String vx;
-    private String vy;
+    private int id;
+    private int type;
+    private double x;
+    private double y;
+    private double z;
+    private double a;
+    private double d;
+    private double vx;
+    private double vy;
 
     public KineticData() {}
 
-    public KineticData(String id, String type, String x, String y, String z, String a, String d, String vx, String vy) {
+    public KineticData(int id, int type, double x, double y, double z, double a, double d, double vx, double vy) {
         this.id = id;
         this.type = type;
         this.x = x;
@@ -28,76 +32,102 @@ public class KineticData {
         this.vy = vy;
     }
 
+    /**
+     * 兼容原来的字符串字段构造方式；无法解析的编号、类型为0，坐标为NaN，不抛出异常
+     */
+    public KineticData(String id, String type, String x, String y, String z, String a, String d, String vx, String vy) {
+        this(parseInt(id), parseInt(type), parseDouble(x), parseDouble(y), parseDouble(z),
+                parseDouble(a), parseDouble(d), parseDouble(vx), parseDouble(vy));
+    }
+
+    private static int parseInt(String text) {
+        if (text == null) return 0;
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static double parseDouble(String text) {
+        if (text == null) return Double.NaN;
+        try {
+            return Double.parseDouble(text.trim());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
     // Getters and Setters
-    public String getId() {
+    public int getId() {
         return id;
     }
 
-    public void setId(String id) {
+    public void setId(int id) {
         this.id = id;
     }
 
-    public String getType() {
+    public int getType() {
         return type;
     }
 
-    public void setType(String type) {
+    public void setType(int type) {
         this.type = type;
     }
 
-    public String getX() {
+    public double getX() {
         return x;
     }
 
-    public void setX(String x) {
+    public void setX(double x) {
         this.x = x;
     }
 
-    public String getY() {
+    public double getY() {
         return y;
     }
 
-    public void setY(String y) {
+    public void setY(double y) {
         this.y = y;
     }
 
-    public String getZ() {
+    public double getZ() {
         return z;
     }
 
-    public void setZ(String z) {
+    public void setZ(double z) {
         this.z = z;
     }
 
-    public String getA() {
+    public double getA() {
         return a;
     }
 
-    public void setA(String a) {
+    public void setA(double a) {
         this.a = a;
     }
 
-    public String getD() {
+    public double getD() {
         return d;
     }
 
-    public void setD(String d) {
+    public void setD(double d) {
         this.d = d;
     }
 
-    public String getVx() {
+    public double getVx() {
         return vx;
     }
 
-    public void setVx(String vx) {
+    public void setVx(double vx) {
         this.vx = vx;
     }
 
-    public String getVy() {
+    public double getVy() {
         return vy;
     }
 
-    public void setVy(String vy) {
+    public void setVy(double vy) {
         this.vy = vy;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,163 @@
+package com.example.kineticsimulatorwebsocker.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 雷达数据专用JSON序列化
+ * 输出与原ObjectMapper序列化MessageResponse完全相同的结构：
+ * {"data":[{"id":"2522","type":"1","x":"-1.09",...}]}，坐标按String.format("%.2f")的规则保留两位小数：
+ * 对Double.toString的十进制数字按HALF_UP进位（2.675进位为2.68，0.0049999999999舍去为0.00）。
+ * 直接把ASCII字节写入当前线程复用的缓冲区，不经过反射、Formatter和中间字符串
+ */
+public final class KineticDataJsonWriter {
+    private static final int INITIAL_CAPACITY = 1024;
+    // 超过该大小的缓冲区用完后不再保留，避免偶发的大消息长期占用内存
+    private static final int MAX_RETAINED_CAPACITY = 1 << 20;
+    // 乘以100后不超过该值时整数运算的误差远小于TIE_MARGIN
+    private static final double FAST_PATH_LIMIT = 1e9;
+    // 第三位小数起离0.5（进位边界）不超过该距离时按十进制数字精确进位，否则直接取整
+    private static final double TIE_MARGIN = 1e-6;
+    private static final byte[] DIGITS = "0123456789".getBytes(StandardCharsets.US_ASCII);
+    private static final ThreadLocal<KineticDataJsonWriter> writers = ThreadLocal.withInitial(KineticDataJsonWriter::new);
+
+    private byte[] buf = new byte[INITIAL_CAPACITY];
+    private int len;
+
+    private KineticDataJsonWriter() {}
+
+    /**
+     * 序列化为{"data":[...]}，dataList为null时输出{"data":null}
+     */
+    public static String toJson(List<KineticData> dataList) {
+        KineticDataJsonWriter writer = writers.get();
+        writer.len = 0;
+        writer.writeResponse(dataList);
+        // 内容只有ASCII，按Latin-1解码即为一次数组拷贝
+        String json = new String(writer.buf, 0, writer.len, StandardCharsets.ISO_8859_1);
+        if (writer.buf.length > MAX_RETAINED_CAPACITY) writer.buf = new byte[INITIAL_CAPACITY];
+        return json;
+    }
+
+    /**
+     * 按String.format("%.2f", value)的规则格式化
+     */
+    public static String formatFixed2(double value) {
+        KineticDataJsonWriter writer = new KineticDataJsonWriter();
+        writer.buf = new byte[32];
+        writer.writeFixed2(value);
+        return new String(writer.buf, 0, writer.len, StandardCharsets.ISO_8859_1);
+    }
+
+    private void writeResponse(List<KineticData> dataList) {
+        writeAscii("{\"data\":");
+        if (dataList == null) {
+            writeAscii("null");
+        } else {
+            writeChar('[');
+            for (int i = 0; i < dataList.size(); i++) {
+                if (i > 0) writeChar(',');
+                writeData(dataList.get(i));
+            }
+            writeChar(']');
+        }
+        writeChar('}');
+    }
+
+    private void writeData(KineticData data) {
+        writeAscii("{\"id\":\"");
+        writeLong(data.getId());
+        writeAscii("\",\"type\":\"");
+        writeLong(data.getType());
+        writeAscii("\",\"x\":\"");
+        writeFixed2(data.getX());
+        writeAscii("\",\"y\":\"");
+        writeFixed2(data.getY());
+        writeAscii("\",\"z\":\"");
+        writeFixed2(data.getZ());
+        writeAscii("\",\"a\":\"");
+        writeFixed2(data.getA());
+        writeAscii("\",\"d\":\"");
+        writeFixed2(data.getD());
+        writeAscii("\",\"vx\":\"");
+        writeFixed2(data.getVx());
+        writeAscii("\",\"vy\":\"");
+        writeFixed2(data.getVy());
+        writeAscii("\"}");
+    }
+
+    private void writeFixed2(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            writeAscii(Double.toString(value));
+            return;
+        }
+        // 与%.2f一致：按绝对值进位，负数舍入为0时仍输出"-0.00"
+        boolean negative = value < 0 || (value == 0 && 1 / value < 0);
+        double abs = Math.abs(value);
+        double scaled = abs * 100.0;
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        if (negative) writeChar('-');
+        if (scaled >= FAST_PATH_LIMIT || Math.abs(fraction - 0.5) <= TIE_MARGIN) {
+            // 接近进位边界或数值很大时，乘法的误差可能改变进位结果，按十进制数字精确计算
+            writeAscii(new BigDecimal(Double.toString(abs)).setScale(2, RoundingMode.HALF_UP).toPlainString());
+            return;
+        }
+        long rounded = (long) floor + (fraction > 0.5 ? 1 : 0);
+        writeLong(rounded / 100);
+        writeChar('.');
+        int cents = (int) (rounded % 100);
+        writeByte(DIGITS[cents / 10]);
+        writeByte(DIGITS[cents % 10]);
+    }
+
+    private void writeLong(long value) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                writeAscii(Long.toString(value));
+                return;
+            }
+            writeChar('-');
+            value = -value;
+        }
+        ensureCapacity(20);
+        int start = len;
+        do {
+            buf[len++] = DIGITS[(int) (value % 10)];
+            value /= 10;
+        } while (value != 0);
+        // 逆序写入后翻转
+        for (int i = start, j = len - 1; i < j; i++, j--) {
+            byte tmp = buf[i];
+            buf[i] = buf[j];
+            buf[j] = tmp;
+        }
+    }
+
+    private void writeAscii(String s) {
+        int n = s.length();
+        ensureCapacity(n);
+        for (int i = 0; i < n; i++) {
+            buf[len++] = (byte) s.charAt(i);
+        }
+    }
+
+    private void writeChar(char c) {
+        ensureCapacity(1);
+        buf[len++] = (byte) c;
+    }
+
+    private void writeByte(byte b) {
+        ensureCapacity(1);
+        buf[len++] = b;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (len + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + extra));
+        }
+    }
+}
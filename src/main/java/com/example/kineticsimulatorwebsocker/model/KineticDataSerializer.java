@@ -0,0 +1,32 @@
+package com.example.kineticsimulatorwebsocker.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * 通过Jackson序列化KineticData时保持原有格式：所有字段为字符串，坐标保留两位小数
+ */
+public class KineticDataSerializer extends StdSerializer<KineticData> {
+
+    public KineticDataSerializer() {
+        super(KineticData.class);
+    }
+
+    @Override
+    public void serialize(KineticData data, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("id", String.valueOf(data.getId()));
+        gen.writeStringField("type", String.valueOf(data.getType()));
+        gen.writeStringField("x", KineticDataJsonWriter.formatFixed2(data.getX()));
+        gen.writeStringField("y", KineticDataJsonWriter.formatFixed2(data.getY()));
+        gen.writeStringField("z", KineticDataJsonWriter.formatFixed2(data.getZ()));
+        gen.writeStringField("a", KineticDataJsonWriter.formatFixed2(data.getA()));
+        gen.writeStringField("d", KineticDataJsonWriter.formatFixed2(data.getD()));
+        gen.writeStringField("vx", KineticDataJsonWriter.formatFixed2(data.getVx()));
+        gen.writeStringField("vy", KineticDataJsonWriter.formatFixed2(data.getVy()));
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.kineticsimulatorwebsocker.model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+/**
+ * 雷达数据定长二进制编码（小端序）
+ * <pre>
+ * 帧头 8字节：uint16 布局版本(=2)，uint16 保留(=0)，uint32 记录数
+ * 记录 36字节：int32 id，int32 type，float32 x, y, z, a, d, vx, vy
+ * </pre>
+ * 浏览器端可直接用DataView按偏移读取，记录从第8字节开始、长度为4的倍数，也可以用Float32Array/Int32Array视图读取；
+ * 同样的数据JSON文本约为其3倍大小。
+ * 布局版本1的帧头为4字节（uint16 版本，uint16 记录数），记录数超过65535时会被截断，已不再使用
+ */
+public final class KineticDataStructWriter {
+    public static final int LAYOUT_VERSION = 2;
+    public static final int HEADER_BYTES = 8;
+    public static final int RECORD_BYTES = 36;
+    // 记录数字段为uint32，实际上限由单个ByteBuffer的容量决定
+    public static final int MAX_RECORDS = (Integer.MAX_VALUE - HEADER_BYTES) / RECORD_BYTES;
+
+    private KineticDataStructWriter() {}
+
+    /**
+     * 编码为独立的ByteBuffer（position=0），可直接提交到发送队列
+     *
+     * @throws IllegalArgumentException 记录数超过MAX_RECORDS，一帧无法容纳
+     */
+    public static ByteBuffer encode(List<KineticData> dataList) {
+        int count = dataList == null ? 0 : dataList.size();
+        if (count > MAX_RECORDS) {
+            throw new IllegalArgumentException("记录数" + count + "超过单帧上限" + MAX_RECORDS);
+        }
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + count * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putShort((short) LAYOUT_VERSION);
+        buf.putShort((short) 0);
+        buf.putInt(count);
+        for (int i = 0; i < count; i++) {
+            KineticData data = dataList.get(i);
+            buf.putInt(data.getId());
+            buf.putInt(data.getType());
+            buf.putFloat((float) data.getX());
+            buf.putFloat((float) data.getY());
+            buf.putFloat((float) data.getZ());
+            buf.putFloat((float) data.getA());
+            buf.putFloat((float) data.getD());
+            buf.putFloat((float) data.getVx());
+            buf.putFloat((float) data.getVy());
+        }
+        buf.flip();
+        return buf;
+    }
+}
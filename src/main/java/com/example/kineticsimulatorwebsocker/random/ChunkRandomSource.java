@@ -0,0 +1,48 @@
+package com.example.kineticsimulatorwebsocker.random;
+
+/**
+ * 大数组分块生成时单个分块使用的随机源
+ * 序列为SplitMix64，每个元素的序列起始状态只由分块种子和元素下标决定（seekElement），同一数组按不同分块大小切分结果相同；
+ * 时间戳字段沿用派生时父随机源的当前时间。非线程安全，每个分块由一个线程独占
+ */
+class ChunkRandomSource implements RandomSource {
+    private final long chunkSeed;
+    private final long timeMillis;
+    private long state;
+
+    ChunkRandomSource(long chunkSeed, long timeMillis) {
+        this.chunkSeed = chunkSeed;
+        this.state = SplitMix64.stateFor(chunkSeed, 0);
+        this.timeMillis = timeMillis;
+    }
+
+    @Override
+    public void seekElement(int index) {
+        state = SplitMix64.stateFor(chunkSeed, index);
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return timeMillis;
+    }
+
+    @Override
+    public long nextLong() {
+        return SplitMix64.mix64(state += SplitMix64.GAMMA);
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return SplitMix64.nextInt(this, bound);
+    }
+
+    @Override
+    public double nextDouble() {
+        return SplitMix64.toDouble(nextLong());
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+}
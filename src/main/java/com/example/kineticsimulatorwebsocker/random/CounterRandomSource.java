@@ -0,0 +1,112 @@
+package com.example.kineticsimulatorwebsocker.random;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 计数器型随机源，用于确定性回放
+ * 第N帧的随机序列只由(seed, N)决定：帧起始状态为mix(seed, N)，帧内第i次取数为mix(起始状态 + i * GAMMA)（SplitMix64），
+ * 生成第N帧不需要先重放第0~N-1帧。时间戳字段使用逻辑时钟：epochMillis + N * tickMillis，
+ * 推送间隔变化时通过rebase从某一帧起按新间隔计时，之前各帧的时间不变。
+ * 帧号由调用方按调度器的tick序号通过seekTick指定，被跳过或丢弃的tick不会使后续帧号和时间错位。
+ * 非线程安全，只能由一个会话使用
+ */
+public class CounterRandomSource implements RandomSource {
+    // 逻辑时钟起点：2024-01-01 00:00:00 UTC
+    public static final long DEFAULT_EPOCH_MILLIS = 1704067200000L;
+
+    private final long seed;
+    // 逻辑时钟：第originTick帧的时间为originMillis，之后每帧增加tickMillis；
+    // 之前各段按起点帧号升序保存为{originTick, originMillis, tickMillis}，用于计算rebase之前的帧
+    private final List<long[]> previousSegments = new ArrayList<>();
+    private long originTick = 0;
+    private long originMillis;
+    private long tickMillis;
+    private long nextTick = 0;
+    private long tick = 0;
+    private long state;
+
+    public CounterRandomSource(long seed, long epochMillis, long tickMillis) {
+        this.seed = seed;
+        this.originMillis = epochMillis;
+        this.tickMillis = tickMillis;
+        this.state = stateFor(0);
+    }
+
+    /**
+     * 指定下一次beginTick()对应的帧号
+     */
+    @Override
+    public void seekTick(long tick) {
+        this.nextTick = tick;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * 从第fromTick帧起改为每帧tickMillis：第fromTick帧的时间按原来的间隔计算，之后的帧按新间隔递增
+     */
+    public void rebase(long fromTick, long tickMillis) {
+        if (fromTick < originTick) throw new IllegalArgumentException("fromTick不能早于当前计时起点: " + fromTick);
+        if (fromTick > originTick) previousSegments.add(new long[]{originTick, originMillis, this.tickMillis});
+        originMillis = timeOf(fromTick);
+        originTick = fromTick;
+        this.tickMillis = tickMillis;
+    }
+
+    /**
+     * 当前计时起点的帧号，即最近一次rebase的fromTick
+     */
+    public long getOriginTick() {
+        return originTick;
+    }
+
+    @Override
+    public void beginTick() {
+        tick = nextTick++;
+        state = stateFor(tick);
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return timeOf(tick);
+    }
+
+    private long timeOf(long tick) {
+        if (tick >= originTick || previousSegments.isEmpty()) {
+            return originMillis + (tick - originTick) * tickMillis;
+        }
+        for (int i = previousSegments.size() - 1; i > 0; i--) {
+            long[] segment = previousSegments.get(i);
+            if (tick >= segment[0]) return segment[1] + (tick - segment[0]) * segment[2];
+        }
+        long[] first = previousSegments.get(0);
+        return first[1] + (tick - first[0]) * first[2];
+    }
+
+    @Override
+    public long nextLong() {
+        return SplitMix64.mix64(state += SplitMix64.GAMMA);
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return SplitMix64.nextInt(this, bound);
+    }
+
+    @Override
+    public double nextDouble() {
+        return SplitMix64.toDouble(nextLong());
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    private long stateFor(long tick) {
+        return SplitMix64.stateFor(seed, tick);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.kineticsimulatorwebsocker.random;
+
+/**
+ * 随机数来源
+ * 生成器只依赖这个接口，不直接使用共享的java.util.Random（多线程下每次取数都会CAS同一个种子）。
+ * 实现可以是线程本地的ThreadLocalRandom，也可以是每个会话独立、可指定种子的SplittableRandom
+ */
+public interface RandomSource {
+
+    /**
+     * [0, bound)范围内的随机整数
+     */
+    int nextInt(int bound);
+
+    long nextLong();
+
+    /**
+     * [0, 1)范围内的随机浮点数
+     */
+    double nextDouble();
+
+    boolean nextBoolean();
+
+    /**
+     * 是否可被多个线程同时使用而不需要同步；会话独享的随机源都有可变状态，返回false
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
+    /**
+     * 开始生成新的一帧，每帧调用一次；计数器型随机源据此切换到该帧对应的随机序列
+     */
+    default void beginTick() {
+    }
+
+    /**
+     * 指定下一帧的帧号（调度器的tick序号），只有计数器型随机源使用，其余随机源忽略
+     */
+    default void seekTick(long tick) {
+    }
+
+    /**
+     * 大数组分块生成时切换到第index个元素的随机序列，只有分块随机源使用，其余随机源忽略
+     */
+    default void seekElement(int index) {
+    }
+
+    /**
+     * 生成时间戳字段使用的当前时间（毫秒），确定性回放时为逻辑时钟
+     */
+    default long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * 当前线程的ThreadLocalRandom，无竞争、不可指定种子，可在任意线程共享
+     */
+    static RandomSource threadLocal() {
+        return ThreadLocalRandomSource.INSTANCE;
+    }
+
+    /**
+     * 以seed为种子的独立随机源，同一种子产生相同序列；不是线程安全的，只能由一个会话（或广播组）使用
+     */
+    static RandomSource seeded(long seed) {
+        return new SplittableRandomSource(seed);
+    }
+
+    /**
+     * 大数组并行分块生成时一个分块的随机源：每个元素生成前通过seekElement切换到该元素的序列，
+     * 序列只由chunkSeed（从parent取得）和元素下标决定，与分块大小、执行线程和分块完成顺序无关，指定种子的会话仍可复现；
+     * 时间戳字段沿用parent的当前时间。parent为线程本地随机源时直接返回线程本地随机源，各工作线程使用自己的ThreadLocalRandom
+     */
+    static RandomSource forChunk(RandomSource parent, long chunkSeed) {
+        if (parent == ThreadLocalRandomSource.INSTANCE) return parent;
+        return new ChunkRandomSource(chunkSeed, parent.currentTimeMillis());
+    }
+}
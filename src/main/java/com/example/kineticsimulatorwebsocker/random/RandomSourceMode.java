@@ -0,0 +1,15 @@
+package com.example.kineticsimulatorwebsocker.random;
+
+/**
+ * 未指定种子的会话使用的随机源类型
+ */
+public enum RandomSourceMode {
+    /**
+     * 所有会话共用线程本地的ThreadLocalRandom
+     */
+    THREAD_LOCAL,
+    /**
+     * 每个会话从根随机源派生一个独立的SplittableRandom，配置根种子后整体可复现
+     */
+    SPLITTABLE
+}
@@ -0,0 +1,34 @@
+package com.example.kineticsimulatorwebsocker.random;
+
+import java.util.SplittableRandom;
+
+/**
+ * 为会话、广播组分配随机源
+ * 指定了种子的会话总是得到以该种子初始化的独立随机源；
+ * 其余会话按配置的模式共用ThreadLocalRandom，或从根随机源派生独立的SplittableRandom
+ */
+public final class RandomSources {
+    private static volatile RandomSourceMode mode = RandomSourceMode.THREAD_LOCAL;
+    private static SplittableRandomSource root = new SplittableRandomSource(new SplittableRandom());
+
+    private RandomSources() {}
+
+    /**
+     * rootSeed不为null时根随机源使用该种子，按连接顺序派生的会话随机源可复现
+     */
+    public static synchronized void configure(RandomSourceMode randomSourceMode, Long rootSeed) {
+        mode = randomSourceMode != null ? randomSourceMode : RandomSourceMode.THREAD_LOCAL;
+        root = new SplittableRandomSource(rootSeed != null ? new SplittableRandom(rootSeed) : new SplittableRandom());
+    }
+
+    /**
+     * 为一个会话（或广播组）分配随机源，seed为null表示未指定种子
+     */
+    public static RandomSource forSession(Long seed) {
+        if (seed != null) return RandomSource.seeded(seed);
+        if (mode == RandomSourceMode.THREAD_LOCAL) return RandomSource.threadLocal();
+        synchronized (RandomSources.class) {
+            return root.split();
+        }
+    }
+}
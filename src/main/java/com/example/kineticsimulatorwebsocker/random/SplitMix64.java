@@ -0,0 +1,49 @@
+package com.example.kineticsimulatorwebsocker.random;
+
+/**
+ * SplitMix64序列的公共实现，供计数器型随机源和大数组分块随机源共用
+ * 两者的取数方式必须完全一致，带种子的会话（包括其中的大数组）才能逐字节重放
+ */
+final class SplitMix64 {
+    static final long GAMMA = 0x9E3779B97F4A7C15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private SplitMix64() {}
+
+    /**
+     * 由种子和序号（帧号、数组元素下标）派生的序列起始状态
+     */
+    static long stateFor(long seed, long index) {
+        return mix64(seed ^ mix64(index + GAMMA));
+    }
+
+    /**
+     * SplitMix64的混合函数：序列第i个输出为mix64(起始状态 + i * GAMMA)
+     */
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * 从random取数得到[0, bound)范围内的整数
+     */
+    static int nextInt(RandomSource random, int bound) {
+        if (bound <= 0) throw new IllegalArgumentException("bound必须为正数");
+        int m = bound - 1;
+        int r = (int) (random.nextLong() >>> 32);
+        if ((bound & m) == 0) return r & m;
+        // 拒绝采样，避免取模偏差
+        for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = (int) (random.nextLong() >>> 33)) {
+        }
+        return r;
+    }
+
+    /**
+     * 64位随机数转为[0, 1)范围内的浮点数
+     */
+    static double toDouble(long bits) {
+        return (bits >>> 11) * DOUBLE_UNIT;
+    }
+}
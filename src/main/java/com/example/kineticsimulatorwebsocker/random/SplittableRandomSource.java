@@ -0,0 +1,45 @@
+package com.example.kineticsimulatorwebsocker.random;
+
+import java.util.SplittableRandom;
+
+/**
+ * 基于SplittableRandom的独立随机源，非线程安全
+ */
+class SplittableRandomSource implements RandomSource {
+    private final SplittableRandom random;
+
+    SplittableRandomSource(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    SplittableRandomSource(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * 派生一个统计上独立的新随机源
+     */
+    SplittableRandomSource split() {
+        return new SplittableRandomSource(random.split());
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    @Override
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return random.nextBoolean();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.kineticsimulatorwebsocker.random;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 委托给当前线程的ThreadLocalRandom
+ */
+enum ThreadLocalRandomSource implements RandomSource {
+    INSTANCE;
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return ThreadLocalRandom.current().nextInt(bound);
+    }
+
+    @Override
+    public long nextLong() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    @Override
+    public double nextDouble() {
+        return ThreadLocalRandom.current().nextDouble();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return ThreadLocalRandom.current().nextBoolean();
+    }
+}
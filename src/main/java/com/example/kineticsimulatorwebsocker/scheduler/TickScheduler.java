@@ -0,0 +1,352 @@
+package com.example.kineticsimulatorwebsocker.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+/**
+ * 基于时间轮（hashed timing wheel）的推送调度器
+ * 单个时间轮线程按固定粒度推进，到期的会话按批次分发给工作线程池执行，
+ * 注册和取消都是O(1)，不会像ScheduledThreadPoolExecutor的延迟队列那样在大量会话时产生锁竞争。
+ * 同时统计每次tick实际执行时间相对计划时间的延迟
+ */
+public class TickScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(TickScheduler.class);
+    // 每批分发给工作线程的到期任务数
+    private static final int DISPATCH_BATCH_SIZE = 64;
+
+    private final long tickNanos;
+    private final int mask;
+    private final ArrayList<Registration>[] wheel;
+    private ArrayList<Registration> spare = new ArrayList<>();
+    private final Queue<Registration> pending = new ConcurrentLinkedQueue<>();
+    private final ExecutorService workers;
+    private final int workerThreads;
+    private final Thread wheelThread;
+    private final long startNanos;
+    private volatile boolean running = true;
+    // 下一个待处理的tick序号，仅时间轮线程访问
+    private long currentTick = 0;
+
+    private final AtomicInteger scheduledCount = new AtomicInteger();
+    private final LongAdder firedCount = new LongAdder();
+    private final LongAdder skippedCount = new LongAdder();
+    private final LongAdder shedCount = new LongAdder();
+    // 是否丢弃延迟已超过一个推送间隔的tick（负载过高时减载，保持后续tick准时）
+    private volatile boolean shedLateTicks = false;
+    private final LongAdder totalLatenessNanos = new LongAdder();
+    private final AtomicLong maxLatenessNanos = new AtomicLong();
+    // 每次tick延迟（纳秒）的监听器，用于导出延迟分布
+    private volatile LongConsumer latenessListener;
+
+    /**
+     * 需要知道计划执行时间的定时任务，intendedNanos为计划执行时间，firedNanos为实际开始执行时间（均为System.nanoTime()）
+     */
+    public interface TimedTask {
+        void run(long intendedNanos, long firedNanos);
+    }
+
+    /**
+     * 需要知道tick序号的定时任务：tickIndex为本次是该任务的第几次计划执行（首次为1），
+     * 被跳过或减载丢弃的tick同样占用序号，确定性回放据此把tick映射到帧号
+     */
+    public interface IndexedTask {
+        void run(long tickIndex, long intendedNanos, long firedNanos);
+    }
+
+    /**
+     * 可取消的定时推送句柄
+     */
+    public interface TickHandle {
+        void cancel();
+
+        boolean isCancelled();
+
+        /**
+         * 到当前时间为止已到期的tick数（不论是否执行），尚未首次到期时为0
+         */
+        long getElapsedTicks();
+    }
+
+    private final class Registration implements TickHandle {
+        final IndexedTask task;
+        final long intervalNanos;
+        // 首次计划执行时间，相对startNanos
+        final long firstDeadline;
+        // 下一次计划执行时间，相对startNanos
+        long deadline;
+        long remainingRounds;
+        // 并发取消（如stopPush与onClose同时发生）时只有一次能递减scheduledCount
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final AtomicBoolean executing = new AtomicBoolean();
+
+        Registration(IndexedTask task, long intervalNanos, long deadline) {
+            this.task = task;
+            this.intervalNanos = intervalNanos;
+            this.firstDeadline = deadline;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled.compareAndSet(false, true)) {
+                scheduledCount.decrementAndGet();
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+
+        @Override
+        public long getElapsedTicks() {
+            long elapsed = System.nanoTime() - startNanos - firstDeadline;
+            return elapsed < 0 ? 0 : elapsed / intervalNanos + 1;
+        }
+
+        void fire(long intendedNanos) {
+            if (cancelled.get()) return;
+            // 上一次还没执行完（如生成过慢）时跳过本次，避免任务堆积
+            if (!executing.compareAndSet(false, true)) {
+                skippedCount.increment();
+                return;
+            }
+            try {
+                long firedNanos = System.nanoTime();
+                recordLateness(firedNanos - intendedNanos);
+                // 下一个tick已经到期，本次数据已过时
+                if (shedLateTicks && firedNanos - intendedNanos > intervalNanos) {
+                    shedCount.increment();
+                    return;
+                }
+                task.run((intendedNanos - startNanos - firstDeadline) / intervalNanos + 1, intendedNanos, firedNanos);
+            } catch (Throwable e) {
+                logger.warn("定时推送任务执行失败: {}", e.getMessage());
+            } finally {
+                executing.set(false);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public TickScheduler(long tickMillis, int wheelSize, int workerThreads) {
+        int size = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(tickMillis, 1));
+        this.mask = size - 1;
+        this.wheel = new ArrayList[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new ArrayList<>();
+        }
+        this.workerThreads = Math.max(workerThreads, 1);
+        this.workers = Executors.newFixedThreadPool(this.workerThreads, namedThreadFactory("tick-worker-"));
+        this.startNanos = System.nanoTime();
+        this.wheelThread = namedThreadFactory("tick-wheel-").newThread(this::runWheel);
+        this.wheelThread.start();
+    }
+
+    /**
+     * 按固定频率调度任务，首次在intervalMillis后执行
+     */
+    public TickHandle schedule(Runnable task, long intervalMillis) {
+        return schedule((intendedNanos, firedNanos) -> task.run(), intervalMillis);
+    }
+
+    /**
+     * 按固定频率调度需要计划执行时间的任务，首次在intervalMillis后执行
+     */
+    public TickHandle schedule(TimedTask task, long intervalMillis) {
+        return schedule((tickIndex, intendedNanos, firedNanos) -> task.run(intendedNanos, firedNanos), intervalMillis);
+    }
+
+    /**
+     * 按固定频率调度需要tick序号的任务，首次在intervalMillis后执行
+     */
+    public TickHandle schedule(IndexedTask task, long intervalMillis) {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(intervalMillis, 1));
+        Registration registration = new Registration(task, intervalNanos, System.nanoTime() - startNanos + intervalNanos);
+        scheduledCount.incrementAndGet();
+        pending.add(registration);
+        return registration;
+    }
+
+    public void shutdown() {
+        running = false;
+        wheelThread.interrupt();
+        workers.shutdownNow();
+    }
+
+    private void runWheel() {
+        while (running) {
+            long deadline = startNanos + (currentTick + 1) * tickNanos;
+            long sleepNanos;
+            while ((sleepNanos = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(sleepNanos);
+                if (!running) return;
+            }
+            try {
+                transferPending();
+                processBucket();
+            } catch (Throwable e) {
+                logger.error("时间轮处理失败", e);
+            }
+            currentTick++;
+        }
+    }
+
+    private void transferPending() {
+        Registration registration;
+        while ((registration = pending.poll()) != null) {
+            if (!registration.cancelled.get()) place(registration, currentTick);
+        }
+    }
+
+    // 把任务放入其deadline对应的槽位，fromTick为该槽位下一次可能被处理的最早tick
+    private void place(Registration registration, long fromTick) {
+        long targetTick = Math.max((registration.deadline - 1) / tickNanos, fromTick);
+        registration.remainingRounds = (targetTick - fromTick) / wheel.length;
+        wheel[(int) (targetTick & mask)].add(registration);
+    }
+
+    private void processBucket() {
+        int idx = (int) (currentTick & mask);
+        ArrayList<Registration> bucket = wheel[idx];
+        wheel[idx] = spare;
+        spare = bucket;
+        long now = System.nanoTime() - startNanos;
+        Registration[] batch = null;
+        long[] intended = null;
+        int batchSize = 0;
+        for (int i = 0; i < bucket.size(); i++) {
+            Registration registration = bucket.get(i);
+            if (registration.cancelled.get()) continue;
+            if (registration.remainingRounds > 0) {
+                registration.remainingRounds--;
+                wheel[idx].add(registration);
+                continue;
+            }
+            if (batch == null) {
+                batch = new Registration[DISPATCH_BATCH_SIZE];
+                intended = new long[DISPATCH_BATCH_SIZE];
+            }
+            batch[batchSize] = registration;
+            intended[batchSize++] = startNanos + registration.deadline;
+            if (batchSize == DISPATCH_BATCH_SIZE) {
+                dispatch(batch, intended, batchSize);
+                batch = null;
+                batchSize = 0;
+            }
+            reschedule(registration, now);
+        }
+        if (batchSize > 0) dispatch(batch, intended, batchSize);
+        bucket.clear();
+    }
+
+    // 固定频率：下次计划时间顺延一个间隔；落后超过一个间隔时丢弃错过的tick，避免追赶式连发
+    private void reschedule(Registration registration, long now) {
+        long intended = registration.deadline;
+        registration.deadline = intended + registration.intervalNanos;
+        if (registration.deadline <= now) {
+            long missed = (now - intended) / registration.intervalNanos;
+            skippedCount.add(missed);
+            registration.deadline = intended + (missed + 1) * registration.intervalNanos;
+        }
+        place(registration, currentTick + 1);
+    }
+
+    // 一批到期任务作为一个整体提交给工作线程，intended为各任务的计划执行时间
+    private void dispatch(Registration[] batch, long[] intended, int size) {
+        try {
+            workers.execute(() -> {
+                for (int i = 0; i < size; i++) {
+                    batch[i].fire(intended[i]);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (running) logger.warn("推送任务分发被拒绝: {}", e.getMessage());
+        }
+    }
+
+    private void recordLateness(long latenessNanos) {
+        if (latenessNanos < 0) latenessNanos = 0;
+        firedCount.increment();
+        totalLatenessNanos.add(latenessNanos);
+        long max;
+        while (latenessNanos > (max = maxLatenessNanos.get())) {
+            if (maxLatenessNanos.compareAndSet(max, latenessNanos)) break;
+        }
+        LongConsumer listener = latenessListener;
+        if (listener != null) listener.accept(latenessNanos);
+    }
+
+    public void setShedLateTicks(boolean shedLateTicks) {
+        this.shedLateTicks = shedLateTicks;
+    }
+
+    public void setLatenessListener(LongConsumer latenessListener) {
+        this.latenessListener = latenessListener;
+    }
+
+    public int getScheduledCount() {
+        return scheduledCount.get();
+    }
+
+    public long getFiredCount() {
+        return firedCount.sum();
+    }
+
+    public long getSkippedCount() {
+        return skippedCount.sum();
+    }
+
+    public long getShedCount() {
+        return shedCount.sum();
+    }
+
+    /**
+     * 调度统计：已执行次数、跳过次数、减载丢弃次数、平均/最大延迟（毫秒）
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long fired = firedCount.sum();
+        stats.put("scheduled", scheduledCount.get());
+        stats.put("fired", fired);
+        stats.put("skipped", skippedCount.sum());
+        stats.put("shed", shedCount.sum());
+        stats.put("shedLateTicks", shedLateTicks);
+        stats.put("avgLatenessMillis", fired > 0 ? totalLatenessNanos.sum() / (double) fired / 1_000_000.0 : 0.0);
+        stats.put("maxLatenessMillis", maxLatenessNanos.get() / 1_000_000.0);
+        stats.put("tickMillis", TimeUnit.NANOSECONDS.toMillis(tickNanos));
+        stats.put("wheelSize", wheel.length);
+        stats.put("workerThreads", workerThreads);
+        return stats;
+    }
+
+    /**
+     * 以prefix加序号命名的守护线程工厂
+     */
+    public static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
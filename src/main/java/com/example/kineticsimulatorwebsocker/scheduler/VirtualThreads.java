@@ -0,0 +1,45 @@
+package com.example.kineticsimulatorwebsocker.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 虚拟线程支持
+ * 项目仍按Java 8编译，通过反射调用JDK 21的Executors.newVirtualThreadPerTaskExecutor()，
+ * 运行在低版本JDK上时返回null，由调用方回退到平台线程池
+ */
+public final class VirtualThreads {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private VirtualThreads() {}
+
+    public static boolean isSupported() {
+        return findFactoryMethod() != null;
+    }
+
+    /**
+     * 每个任务一个虚拟线程的执行器，当前JDK不支持时返回null
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        Method method = findFactoryMethod();
+        if (method == null) return null;
+        try {
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            logger.warn("创建虚拟线程执行器失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static Method findFactoryMethod() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
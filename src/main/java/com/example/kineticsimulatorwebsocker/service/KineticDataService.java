@@ -1,15 +1,22 @@
 package com.example.kineticsimulatorwebsocker.service;
 
+import com.example.kineticsimulatorwebsocker.config.SimulatorProperties;
 import com.example.kineticsimulatorwebsocker.model.KineticData;
+import com.example.kineticsimulatorwebsocker.scheduler.TickScheduler;
+import com.example.kineticsimulatorwebsocker.scheduler.TickScheduler.TickHandle;
+import com.example.kineticsimulatorwebsocker.simulation.Region;
+import com.example.kineticsimulatorwebsocker.simulation.TrackSimulator;
 import com.example.kineticsimulatorwebsocker.websocket.KineticWebSocketServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import javax.annotation.PostConstruct;
+import java.util.Collection;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
 
 /**
  * 动力学数据服务类
@@ -19,47 +26,88 @@ import java.util.Random;
 public class KineticDataService {
 
     private static final Logger logger = LoggerFactory.getLogger(KineticDataService.class);
-    private final Random random = new Random();
+    @Autowired
+    private TrackSimulator trackSimulator;
+
+    @Autowired
+    private SimulatorProperties simulatorProperties;
+
+    @Autowired
+    private TickScheduler tickScheduler;
+
+    // 定时推送任务，调整推送间隔时重新调度
+    private TickHandle pushTask;
+    private long pushIntervalMillis;
+
+    @PostConstruct
+    public void startPush() {
+        setPushIntervalMillis(simulatorProperties.getPushIntervalMillis());
+    }
 
     /**
-     * 生成模拟的雷达数据
+     * 生成模拟的雷达数据：当前所有仿真目标的快照，同一目标在相邻两次推送间连续运动
      */
     public List<KineticData> generateKineticData() {
-        List<KineticData> dataList = new ArrayList<>();
-        
-        // 生成2-5个随机数据项
-        int count = random.nextInt(4) + 2;
-        
-        for (int i = 0; i < count; i++) {
-            String id = String.valueOf(2500 + random.nextInt(100));
-            String type = String.valueOf(random.nextInt(3) + 1);
-            
-            // 生成随机坐标和速度
-            String x = String.format("%.2f", (random.nextDouble() - 0.5) * 10);
-            String y = String.format("%.2f", random.nextDouble() * 100);
-            String z = String.format("%.2f", (random.nextDouble() - 0.5) * 5);
-            String a = String.format("%.2f", (random.nextDouble() - 0.5) * 10);
-            String d = String.format("%.2f", random.nextDouble() * 50);
-            String vx = String.format("%.2f", (random.nextDouble() - 0.5) * 2);
-            String vy = String.format("%.2f", (random.nextDouble() - 0.5) * 2);
-            
-            KineticData data = new KineticData(id, type, x, y, z, a, d, vx, vy);
-            dataList.add(data);
-        }
-        
-        return dataList;
+        return trackSimulator.snapshot();
+    }
+
+    /**
+     * 生成订阅区域内的雷达数据，region为null时返回全部目标
+     */
+    public List<KineticData> generateKineticData(Region region) {
+        return trackSimulator.snapshot(region);
+    }
+
+    /**
+     * 在同一仿真步上为每个订阅区域生成数据，null表示全部目标
+     */
+    public Map<Region, List<KineticData>> generateKineticData(Collection<Region> regions) {
+        return trackSimulator.snapshot(regions);
     }
 
     /**
-     * 定时推送数据（每5秒推送一次）
-     * 可以通过配置文件或启动参数来控制是否启用
+     * 按固定步长推进目标仿真，与推送频率无关
      */
-    @Scheduled(fixedRate = 5000)
-    public void scheduledPush() {
-        // 只有在有客户端连接时才推送
+    @Scheduled(fixedRateString = "${simulator.step-millis:100}")
+    public void advanceSimulation() {
+        trackSimulator.step(simulatorProperties.getStepMillis() / 1000.0);
+    }
+
+    /**
+     * 调整定时推送间隔（毫秒），取消旧任务后按新间隔调度
+     */
+    public synchronized void setPushIntervalMillis(long pushIntervalMillis) {
+        pushIntervalMillis = Math.max(pushIntervalMillis, 1);
+        if (pushTask != null) pushTask.cancel();
+        this.pushIntervalMillis = pushIntervalMillis;
+        pushTask = tickScheduler.schedule(this::scheduledPush, pushIntervalMillis);
+        logger.info("雷达数据推送间隔: {}ms", pushIntervalMillis);
+    }
+
+    public synchronized long getPushIntervalMillis() {
+        return pushIntervalMillis;
+    }
+
+    /**
+     * 调整仿真目标总数
+     */
+    public void setTargetCount(int targetCount) {
+        trackSimulator.setTargetCount(targetCount);
+        logger.info("仿真目标数: {}", trackSimulator.getTargetCount());
+    }
+
+    public int getTargetCount() {
+        return trackSimulator.getTargetCount();
+    }
+
+    /**
+     * 定时推送数据，间隔由simulator.push-interval-millis配置，可在运行时调整；
+     * intendedNanos和firedNanos为本次tick的计划和实际执行时间
+     */
+    public void scheduledPush(long intendedNanos, long firedNanos) {
+        // 只有在有客户端连接时才推送；每个tick不写日志，诊断信息见PushEvents
         if (KineticWebSocketServer.getOnlineCount() > 0) {
-            logger.info("定时推送动力学数据，当前在线客户端数: {}", KineticWebSocketServer.getOnlineCount());
-            KineticWebSocketServer.sendKineticDataToAll();
+            KineticWebSocketServer.sendKineticDataToAll(intendedNanos, firedNanos);
         }
     }
 
@@ -0,0 +1,45 @@
+package com.example.kineticsimulatorwebsocker.simulation;
+
+/**
+ * 订阅区域：x/y平面上的矩形（闭区间，单位米）
+ * 按值比较，订阅相同区域的会话在广播时共享同一份快照和编码结果
+ */
+public class Region {
+    public final double minX;
+    public final double maxX;
+    public final double minY;
+    public final double maxY;
+
+    public Region(double minX, double maxX, double minY, double maxY) {
+        this.minX = Math.min(minX, maxX);
+        this.maxX = Math.max(minX, maxX);
+        this.minY = Math.min(minY, maxY);
+        this.maxY = Math.max(minY, maxY);
+    }
+
+    public boolean contains(double x, double y) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Region)) return false;
+        Region other = (Region) o;
+        return minX == other.minX && maxX == other.maxX && minY == other.minY && maxY == other.maxY;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Double.hashCode(minX);
+        result = 31 * result + Double.hashCode(maxX);
+        result = 31 * result + Double.hashCode(minY);
+        result = 31 * result + Double.hashCode(maxY);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + minX + ", " + maxX + "] x [" + minY + ", " + maxY + "]";
+    }
+}
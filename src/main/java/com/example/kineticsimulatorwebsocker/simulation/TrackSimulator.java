@@ -0,0 +1,321 @@
+package com.example.kineticsimulatorwebsocker.simulation;
+
+import com.example.kineticsimulatorwebsocker.model.KineticData;
+import com.example.kineticsimulatorwebsocker.random.RandomSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * 雷达目标航迹仿真引擎
+ * 维护一批持续存在的目标：每个仿真步按速度积分位置，加速度在上限内随机变化，
+ * 目标飞出监视区域或寿命到期时消亡，并立即补充新目标使总数保持为targetCount。
+ * 状态按结构数组（SoA）存放在基本类型数组中，每步在一个紧凑循环里推进全部目标，目标数较多时分块并行推进。
+ * 按区域订阅时通过均匀网格索引只访问与区域相交的网格，网格在每步之后首次查询时重建一次，由所有订阅共享
+ */
+public class TrackSimulator {
+
+    /**
+     * 仿真参数，含义见SimulatorProperties
+     */
+    public static class Settings {
+        public int targetCount = 4;
+        public double rangeX = 5;
+        public double rangeY = 100;
+        public double rangeZ = 2.5;
+        public double maxSpeed = 1.0;
+        public double maxAcceleration = 0.5;
+        public double meanLifetimeSeconds = 60;
+        public int parallelThreshold = 20000;
+        public int parallelChunkSize = 4096;
+        public int firstId = 2500;
+        public double gridCellSize = 10;
+    }
+
+    // 网格数上限，监视区域相对网格尺寸过大时自动放大网格
+    private static final int MAX_GRID_CELLS = 1 << 20;
+
+    private final Settings settings;
+    private int targetCount;
+    private int count;
+    private int nextId;
+
+    // 结构数组：下标[0, count)为存活目标
+    private int[] ids;
+    private int[] types;
+    private double[] x;
+    private double[] y;
+    private double[] z;
+    private double[] vx;
+    private double[] vy;
+    private boolean[] dead;
+
+    // 均匀网格索引：cellStart[c]到cellStart[c+1]为网格c内的目标在cellTargets中的区间
+    private final double cellSize;
+    private final int gridCols;
+    private final int gridRows;
+    private final int[] cellStart;
+    private final int[] cellFill;
+    private int[] cellTargets;
+    private int[] targetCells;
+    private boolean gridDirty = true;
+
+    private long steps;
+    private long births;
+    private long deaths;
+    private long lastStepNanos;
+
+    public TrackSimulator(Settings settings) {
+        this.settings = settings;
+        this.nextId = settings.firstId;
+        this.targetCount = Math.max(settings.targetCount, 0);
+        double size = settings.gridCellSize > 0 ? settings.gridCellSize : 10;
+        while (gridDimension(2 * settings.rangeX, size) * (long) gridDimension(settings.rangeY, size) > MAX_GRID_CELLS) {
+            size *= 2;
+        }
+        this.cellSize = size;
+        this.gridCols = gridDimension(2 * settings.rangeX, size);
+        this.gridRows = gridDimension(settings.rangeY, size);
+        this.cellStart = new int[gridCols * gridRows + 1];
+        this.cellFill = new int[gridCols * gridRows];
+        allocate(targetCount);
+        spawnUntilFull(RandomSource.threadLocal());
+    }
+
+    /**
+     * 推进一个仿真步，dtSeconds为步长（秒）
+     */
+    public synchronized void step(double dtSeconds) {
+        long start = System.nanoTime();
+        int n = count;
+        int chunk = Math.max(settings.parallelChunkSize, 1);
+        if (n >= settings.parallelThreshold && n > chunk) {
+            int chunks = (n + chunk - 1) / chunk;
+            IntStream.range(0, chunks).parallel()
+                    .forEach(c -> advance(c * chunk, Math.min(n, (c + 1) * chunk), dtSeconds));
+        } else {
+            advance(0, n, dtSeconds);
+        }
+        removeDead();
+        spawnUntilFull(RandomSource.threadLocal());
+        steps++;
+        gridDirty = true;
+        lastStepNanos = System.nanoTime() - start;
+    }
+
+    // 推进[from, to)内的目标；各块只写自己的下标范围，可以并行执行
+    private void advance(int from, int to, double dt) {
+        RandomSource random = RandomSource.threadLocal();
+        double maxDeltaV = settings.maxAcceleration * dt;
+        double maxSpeed = settings.maxSpeed;
+        double maxSpeedSquared = maxSpeed * maxSpeed;
+        double rangeX = settings.rangeX;
+        double rangeY = settings.rangeY;
+        double deathProbability = settings.meanLifetimeSeconds > 0 ? dt / settings.meanLifetimeSeconds : 0;
+        for (int i = from; i < to; i++) {
+            double nvx = vx[i] + (random.nextDouble() * 2 - 1) * maxDeltaV;
+            double nvy = vy[i] + (random.nextDouble() * 2 - 1) * maxDeltaV;
+            double speedSquared = nvx * nvx + nvy * nvy;
+            if (speedSquared > maxSpeedSquared) {
+                double scale = maxSpeed / Math.sqrt(speedSquared);
+                nvx *= scale;
+                nvy *= scale;
+            }
+            double nx = x[i] + nvx * dt;
+            double ny = y[i] + nvy * dt;
+            vx[i] = nvx;
+            vy[i] = nvy;
+            x[i] = nx;
+            y[i] = ny;
+            dead[i] = nx < -rangeX || nx > rangeX || ny < 0 || ny > rangeY
+                    || (deathProbability > 0 && random.nextDouble() < deathProbability);
+        }
+    }
+
+    // 用末尾的目标填补消亡目标的位置，存活目标保持连续
+    private void removeDead() {
+        int i = 0;
+        while (i < count) {
+            if (!dead[i]) {
+                i++;
+                continue;
+            }
+            int last = --count;
+            ids[i] = ids[last];
+            types[i] = types[last];
+            x[i] = x[last];
+            y[i] = y[last];
+            z[i] = z[last];
+            vx[i] = vx[last];
+            vy[i] = vy[last];
+            dead[i] = dead[last];
+            deaths++;
+        }
+    }
+
+    private void spawnUntilFull(RandomSource random) {
+        while (count < targetCount) {
+            int i = count++;
+            double heading = random.nextDouble() * 2 * Math.PI;
+            double speed = random.nextDouble() * settings.maxSpeed;
+            ids[i] = nextId++;
+            types[i] = random.nextInt(3) + 1;
+            x[i] = (random.nextDouble() * 2 - 1) * settings.rangeX;
+            y[i] = random.nextDouble() * settings.rangeY;
+            z[i] = (random.nextDouble() * 2 - 1) * settings.rangeZ;
+            vx[i] = Math.sin(heading) * speed;
+            vy[i] = Math.cos(heading) * speed;
+            dead[i] = false;
+            births++;
+        }
+    }
+
+    private void allocate(int capacity) {
+        ids = new int[capacity];
+        types = new int[capacity];
+        x = new double[capacity];
+        y = new double[capacity];
+        z = new double[capacity];
+        vx = new double[capacity];
+        vy = new double[capacity];
+        dead = new boolean[capacity];
+        cellTargets = new int[capacity];
+        targetCells = new int[capacity];
+    }
+
+    private static int gridDimension(double extent, double size) {
+        return Math.max(1, (int) Math.ceil(extent / size));
+    }
+
+    private int column(double px) {
+        int col = (int) Math.floor((px + settings.rangeX) / cellSize);
+        return col < 0 ? 0 : (col >= gridCols ? gridCols - 1 : col);
+    }
+
+    private int row(double py) {
+        int row = (int) Math.floor(py / cellSize);
+        return row < 0 ? 0 : (row >= gridRows ? gridRows - 1 : row);
+    }
+
+    // 计数排序：统计每个网格的目标数，前缀和得到各网格区间，再按网格填入目标下标
+    private void rebuildGrid() {
+        Arrays.fill(cellStart, 0);
+        for (int i = 0; i < count; i++) {
+            int cell = row(y[i]) * gridCols + column(x[i]);
+            targetCells[i] = cell;
+            cellStart[cell + 1]++;
+        }
+        for (int c = 0; c < cellFill.length; c++) {
+            cellStart[c + 1] += cellStart[c];
+            cellFill[c] = cellStart[c];
+        }
+        for (int i = 0; i < count; i++) {
+            cellTargets[cellFill[targetCells[i]]++] = i;
+        }
+        gridDirty = false;
+    }
+
+    /**
+     * 调整目标总数：减少时丢弃多余目标，增加时在下一步之前补充新目标
+     */
+    public synchronized void setTargetCount(int targetCount) {
+        targetCount = Math.max(targetCount, 0);
+        if (targetCount > ids.length) {
+            ids = Arrays.copyOf(ids, targetCount);
+            types = Arrays.copyOf(types, targetCount);
+            x = Arrays.copyOf(x, targetCount);
+            y = Arrays.copyOf(y, targetCount);
+            z = Arrays.copyOf(z, targetCount);
+            vx = Arrays.copyOf(vx, targetCount);
+            vy = Arrays.copyOf(vy, targetCount);
+            dead = Arrays.copyOf(dead, targetCount);
+            cellTargets = new int[targetCount];
+            targetCells = new int[targetCount];
+        }
+        if (count > targetCount) count = targetCount;
+        this.targetCount = targetCount;
+        spawnUntilFull(RandomSource.threadLocal());
+        gridDirty = true;
+    }
+
+    public synchronized int getTargetCount() {
+        return targetCount;
+    }
+
+    /**
+     * 当前全部目标的快照；方位角a（度，相对y轴）和距离d由位置换算
+     */
+    public synchronized List<KineticData> snapshot() {
+        List<KineticData> dataList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            dataList.add(toKineticData(i));
+        }
+        return dataList;
+    }
+
+    /**
+     * 区域内目标的快照，region为null时返回全部目标；只遍历与区域相交的网格
+     */
+    public synchronized List<KineticData> snapshot(Region region) {
+        if (region == null) return snapshot();
+        List<KineticData> dataList = new ArrayList<>();
+        if (region.maxX < -settings.rangeX || region.minX > settings.rangeX || region.maxY < 0 || region.minY > settings.rangeY) {
+            return dataList;
+        }
+        if (gridDirty) rebuildGrid();
+        int colFrom = column(region.minX);
+        int colTo = column(region.maxX);
+        int rowFrom = row(region.minY);
+        int rowTo = row(region.maxY);
+        for (int r = rowFrom; r <= rowTo; r++) {
+            for (int c = colFrom; c <= colTo; c++) {
+                int cell = r * gridCols + c;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int i = cellTargets[k];
+                    if (region.contains(x[i], y[i])) dataList.add(toKineticData(i));
+                }
+            }
+        }
+        return dataList;
+    }
+
+    /**
+     * 在同一仿真步上为每个区域生成快照（null表示全部目标），保证同一次广播的各区域数据一致
+     */
+    public synchronized Map<Region, List<KineticData>> snapshot(Collection<Region> regions) {
+        Map<Region, List<KineticData>> snapshots = new HashMap<>();
+        for (Region region : regions) {
+            if (!snapshots.containsKey(region)) snapshots.put(region, snapshot(region));
+        }
+        return snapshots;
+    }
+
+    private KineticData toKineticData(int i) {
+        double px = x[i];
+        double py = y[i];
+        return new KineticData(ids[i], types[i], px, py, z[i], Math.toDegrees(Math.atan2(px, py)),
+                Math.sqrt(px * px + py * py), vx[i], vy[i]);
+    }
+
+    /**
+     * 仿真统计：目标数、步数、累计出生/消亡数、最近一步耗时
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("targets", count);
+        stats.put("targetCount", targetCount);
+        stats.put("steps", steps);
+        stats.put("births", births);
+        stats.put("deaths", deaths);
+        stats.put("lastStepMillis", lastStepNanos / 1_000_000.0);
+        stats.put("gridCellSize", cellSize);
+        stats.put("gridCells", gridCols * gridRows);
+        return stats;
+    }
+}
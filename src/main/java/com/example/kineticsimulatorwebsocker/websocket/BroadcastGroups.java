@@ -0,0 +1,129 @@
+package com.example.kineticsimulatorwebsocker.websocket;
+
+import com.example.kineticsimulatorwebsocker.diagnostics.PushEvents;
+import com.example.kineticsimulatorwebsocker.metrics.PushMetrics;
+import com.example.kineticsimulatorwebsocker.generator.BinaryPayloadBuffer;
+import com.example.kineticsimulatorwebsocker.generator.PayloadBuffer;
+import com.example.kineticsimulatorwebsocker.generator.TextFragments;
+import com.example.kineticsimulatorwebsocker.random.RandomSource;
+import com.example.kineticsimulatorwebsocker.random.RandomSources;
+import com.example.kineticsimulatorwebsocker.scheduler.TickScheduler;
+import com.example.kineticsimulatorwebsocker.scheduler.TickScheduler.TickHandle;
+import com.example.kineticsimulatorwebsocker.websocket.DynamicWebSocketServer.TemplateConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.websocket.Session;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 广播组
+ * 模板指纹、推送间隔和编码都相同的会话共享一个定时任务：每个tick只生成、序列化一次，
+ * 再把同一帧数据推送给组内所有会话，CPU开销随不同模板的数量增长，而不是随连接数增长
+ */
+public class BroadcastGroups {
+    private static final Logger logger = LoggerFactory.getLogger(BroadcastGroups.class);
+    private static final Map<String, Group> groups = new ConcurrentHashMap<>();
+    private static final Map<Session, Group> sessionGroups = new ConcurrentHashMap<>();
+
+    private static class Group {
+        final String key;
+        final TemplateConfig config;
+        final FrameEncoding encoding;
+        final Set<Session> members = ConcurrentHashMap.newKeySet();
+        // 组内tick串行执行，独立的随机源即可
+        final RandomSource random = RandomSources.forSession(null);
+        TickHandle task;
+
+        Group(String key, TemplateConfig config, FrameEncoding encoding) {
+            this.key = key;
+            this.config = config;
+            this.encoding = encoding;
+        }
+
+        void tick(long intendedNanos, long firedNanos) {
+            if (members.isEmpty()) return;
+            // 文本帧为String，超过分片阈值时为TextFragments，所有成员共用同一份
+            Object frame = null;
+            ByteBuffer binaryFrame = null;
+            boolean sampled = PushEvents.sample();
+            boolean timed = sampled || PushMetrics.isEnabled();
+            long start = timed ? System.nanoTime() : 0;
+            try {
+                if (encoding == FrameEncoding.CBOR) {
+                    BinaryPayloadBuffer payload = BinaryPayloadBuffer.forCurrentThread();
+                    config.plan.writeCborTo(payload, random);
+                    binaryFrame = payload.toByteBuffer();
+                } else {
+                    PayloadBuffer payload = PayloadBuffer.forCurrentThread();
+                    config.plan.writeTo(payload, random);
+                    frame = payload.toFrame();
+                }
+            } catch (Exception e) {
+                logger.warn("广播组{}生成数据失败: {}", key, e.getMessage());
+                return;
+            }
+            if (timed) {
+                long elapsed = System.nanoTime() - start;
+                PushMetrics.recordStage(PushMetrics.DYNAMIC, PushMetrics.Stage.STREAMING, elapsed);
+                if (sampled) {
+                    PushEvents.record(PushEvents.Kind.GENERATE, "/", null, key + " members=" + members.size(),
+                            binaryFrame != null ? binaryFrame.remaining() : frame instanceof TextFragments
+                                    ? ((TextFragments) frame).length() : ((String) frame).length(), elapsed);
+                }
+            }
+            PushMetrics.recordTick(PushMetrics.DYNAMIC);
+            for (Session session : members) {
+                if (!session.isOpen()) continue;
+                SessionSender sender = SessionSender.of(session);
+                sender.recordTick(intendedNanos, firedNanos);
+                if (binaryFrame != null) {
+                    sender.sendBinary(binaryFrame, intendedNanos);
+                } else if (frame instanceof TextFragments) {
+                    sender.send((TextFragments) frame, intendedNanos);
+                } else {
+                    sender.send((String) frame, intendedNanos);
+                }
+            }
+        }
+    }
+
+    /**
+     * 会话加入与其模板、推送间隔、编码对应的广播组，组不存在时创建并启动定时任务
+     */
+    public static void join(Session session, TemplateConfig config, long intervalMillis, FrameEncoding encoding, TickScheduler tickScheduler) {
+        leave(session);
+        String key = config.templateHash + "@" + intervalMillis + "/" + encoding;
+        Group group = groups.compute(key, (k, existing) -> {
+            Group g = existing != null ? existing : new Group(k, config, encoding);
+            g.members.add(session);
+            if (g.task == null) {
+                g.task = tickScheduler.schedule(g::tick, intervalMillis);
+            }
+            return g;
+        });
+        sessionGroups.put(session, group);
+        logger.info("连接{}加入广播组{}，组内连接数={}", session.getId(), key, group.members.size());
+    }
+
+    /**
+     * 会话离开所在广播组，组内无会话时停止定时任务并移除该组
+     */
+    public static void leave(Session session) {
+        Group group = sessionGroups.remove(session);
+        if (group == null) return;
+        groups.computeIfPresent(group.key, (k, g) -> {
+            g.members.remove(session);
+            if (!g.members.isEmpty()) return g;
+            if (g.task != null) g.task.cancel();
+            return null;
+        });
+    }
+
+    public static int getGroupCount() {
+        return groups.size();
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.kineticsimulatorwebsocker.websocket;
+
+import com.example.kineticsimulatorwebsocker.generator.TextFragments;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+
+/**
+ * 每个端点的压缩统计
+ * 容器内置的permessage-deflate不暴露压缩结果，这里按采样率对实际发送的帧用同样参数（raw deflate、默认级别、SYNC_FLUSH）
+ * 单独压缩一次，统计压缩率和耗时，再按帧数推算总的CPU开销。采样压缩不复用上下文，有上下文复用时实际压缩率会更高
+ */
+public class CompressionStats {
+    private static final Map<String, CompressionStats> byPath = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Deflater> deflaters = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+    private static final ThreadLocal<byte[]> scratchBuffers = ThreadLocal.withInitial(() -> new byte[8192]);
+    // permessage-deflate每条消息末尾省略的4字节（00 00 ff ff）
+    private static final int SYNC_FLUSH_TAIL = 4;
+
+    private final String endpoint;
+    private volatile int sampleRate = 32;
+    private final LongAdder acceptedSessions = new LongAdder();
+    private final LongAdder declinedSessions = new LongAdder();
+    private final AtomicLong frames = new AtomicLong();
+    // 在启用了压缩的会话上发送的帧数
+    private final LongAdder compressedFrames = new LongAdder();
+    private final LongAdder sampledFrames = new LongAdder();
+    private final LongAdder sampledInputBytes = new LongAdder();
+    private final LongAdder sampledOutputBytes = new LongAdder();
+    private final LongAdder sampledNanos = new LongAdder();
+    // 采样帧大小的滑动平均（所有会话，不论是否压缩），握手时不知道连接将推送什么数据时据此判断是否值得压缩
+    private volatile double averageFrameBytes = 0;
+    // 按压缩键（动态端点为模板ID，雷达端点为编码）分别统计的采样帧大小滑动平均，键数达到上限后不再增加
+    private static final int MAX_KEYS = 4096;
+    private final Map<String, Double> averageFrameBytesByKey = new ConcurrentHashMap<>();
+
+    private CompressionStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * 按端点路径获取统计对象，不存在时创建
+     */
+    public static CompressionStats forPath(String path) {
+        return byPath.computeIfAbsent(path, CompressionStats::new);
+    }
+
+    /**
+     * 已登记端点的统计，未登记时返回null
+     */
+    public static CompressionStats findByPath(String path) {
+        return byPath.get(path);
+    }
+
+    public static Map<String, CompressionStats> all() {
+        return byPath;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    void recordHandshake(boolean accepted) {
+        if (accepted) acceptedSessions.increment();
+        else declinedSessions.increment();
+    }
+
+    public double getAverageFrameBytes() {
+        return averageFrameBytes;
+    }
+
+    /**
+     * 压缩键对应的平均帧大小，key为null或还没有该键的采样时返回整个端点的平均帧大小
+     */
+    public double getAverageFrameBytes(String key) {
+        Double average = key != null ? averageFrameBytesByKey.get(key) : null;
+        return average != null ? average : averageFrameBytes;
+    }
+
+    /**
+     * 记录一条发送的消息：按采样率更新端点和key（可为null）的平均帧大小，compressed为true（会话启用了压缩）时对采样帧实际压缩一次
+     */
+    void recordFrame(Object message, boolean compressed, String key) {
+        if (compressed) compressedFrames.increment();
+        if (frames.incrementAndGet() % sampleRate != 0) return;
+        byte[] input;
+        int frameBytes;
+        if (message instanceof ByteBuffer) {
+            ByteBuffer data = ((ByteBuffer) message).duplicate();
+            input = new byte[data.remaining()];
+            data.get(input);
+            frameBytes = input.length;
+        } else if (message instanceof TextFragments) {
+            // 分片发送的超大帧只压缩第一段估算压缩率，不为统计拼出完整内容
+            TextFragments fragments = (TextFragments) message;
+            input = fragments.fragment(0).getBytes(StandardCharsets.UTF_8);
+            frameBytes = fragments.length();
+        } else {
+            input = ((String) message).getBytes(StandardCharsets.UTF_8);
+            frameBytes = input.length;
+        }
+        double average = averageFrameBytes;
+        averageFrameBytes = average == 0 ? frameBytes : average * 0.9 + frameBytes * 0.1;
+        if (key != null && (averageFrameBytesByKey.size() < MAX_KEYS || averageFrameBytesByKey.containsKey(key))) {
+            averageFrameBytesByKey.merge(key, (double) frameBytes, (previous, current) -> previous * 0.9 + current * 0.1);
+        }
+        if (!compressed) return;
+        Deflater deflater = deflaters.get();
+        byte[] scratch = scratchBuffers.get();
+        long start = System.nanoTime();
+        deflater.reset();
+        deflater.setInput(input);
+        int output = 0;
+        int written;
+        do {
+            written = deflater.deflate(scratch, 0, scratch.length, Deflater.SYNC_FLUSH);
+            output += written;
+        } while (written == scratch.length);
+        long elapsed = System.nanoTime() - start;
+        sampledFrames.increment();
+        sampledInputBytes.add(input.length);
+        sampledOutputBytes.add(Math.max(output - SYNC_FLUSH_TAIL, 0));
+        sampledNanos.add(elapsed);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long frameCount = compressedFrames.sum();
+        long samples = sampledFrames.sum();
+        long in = sampledInputBytes.sum();
+        long out = sampledOutputBytes.sum();
+        long nanos = sampledNanos.sum();
+        stats.put("endpoint", endpoint);
+        stats.put("acceptedSessions", acceptedSessions.sum());
+        stats.put("declinedSessions", declinedSessions.sum());
+        stats.put("frames", frames.get());
+        stats.put("compressedFrames", frameCount);
+        stats.put("sampledFrames", samples);
+        stats.put("averageFrameBytes", Math.round(averageFrameBytes));
+        stats.put("trackedKeys", averageFrameBytesByKey.size());
+        stats.put("compressionRatio", in > 0 ? out / (double) in : 0.0);
+        stats.put("nanosPerFrame", samples > 0 ? nanos / samples : 0);
+        stats.put("estimatedCpuMillis", samples > 0 ? frameCount * (nanos / (double) samples) / 1_000_000.0 : 0.0);
+        stats.put("estimatedBytesSaved", samples > 0 ? Math.round(frameCount * ((in - out) / (double) samples)) : 0);
+        return stats;
+    }
+}
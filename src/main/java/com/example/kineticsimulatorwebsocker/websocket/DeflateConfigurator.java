@@ -0,0 +1,219 @@
+package com.example.kineticsimulatorwebsocker.websocket;
+
+import com.example.kineticsimulatorwebsocker.metrics.PushMetrics;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.websocket.Extension;
+import javax.websocket.server.ServerEndpointConfig;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按端点配置permessage-deflate协商
+ * 容器（Tomcat）对协商成功的连接会压缩每一条消息，无法按单帧大小跳过，
+ * 因此阈值在握手时生效：新连接将要推送的数据（动态端点按?template=的模板，雷达端点按?encoding=的编码）
+ * 最近的平均帧大小低于minFrameBytes时不接受压缩扩展；握手时还不知道模板的连接按整个端点的平均帧大小判断。
+ * 容器协商扩展时不提供请求对象，查询参数由HandshakeFilter在升级请求进入容器前记录
+ */
+public class DeflateConfigurator extends ServerEndpointConfig.Configurator {
+    public static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+    private static final String SERVER_NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+    private static final String CLIENT_NO_CONTEXT_TAKEOVER = "client_no_context_takeover";
+
+    private static final Map<String, Settings> settingsByPath = new ConcurrentHashMap<>();
+    // 当前线程正在处理的握手请求的查询字符串
+    private static final ThreadLocal<String> handshakeQuery = new ThreadLocal<>();
+
+    private final String path;
+
+    /**
+     * 单个端点的压缩配置
+     */
+    public static class Settings {
+        public final boolean enabled;
+        public final int minFrameBytes;
+        public final boolean serverNoContextTakeover;
+        public final boolean clientNoContextTakeover;
+
+        public Settings(boolean enabled, int minFrameBytes, boolean serverNoContextTakeover, boolean clientNoContextTakeover) {
+            this.enabled = enabled;
+            this.minFrameBytes = minFrameBytes;
+            this.serverNoContextTakeover = serverNoContextTakeover;
+            this.clientNoContextTakeover = clientNoContextTakeover;
+        }
+    }
+
+    /**
+     * 动态模板端点"/"
+     */
+    public static class Dynamic extends DeflateConfigurator {
+        public Dynamic() {
+            super(PushMetrics.DYNAMIC);
+        }
+
+        @Override
+        protected String compressionKey(String query) {
+            return queryParameter(query, "template");
+        }
+    }
+
+    /**
+     * 雷达数据端点"/websocket/kinetic"
+     */
+    public static class Kinetic extends DeflateConfigurator {
+        public Kinetic() {
+            super(PushMetrics.KINETIC);
+        }
+
+        @Override
+        protected String compressionKey(String query) {
+            // 与KineticWebSocketServer的编码协商一致：只有struct是二进制，其余都按JSON推送
+            FrameEncoding encoding = FrameEncoding.parse(queryParameter(query, "encoding"), FrameEncoding.JSON);
+            return (encoding == FrameEncoding.STRUCT ? FrameEncoding.STRUCT : FrameEncoding.JSON).name();
+        }
+    }
+
+    /**
+     * 记录WebSocket握手请求的查询字符串，需要排在容器的WsFilter之前
+     */
+    public static class HandshakeFilter implements Filter {
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+            if (!(request instanceof HttpServletRequest)
+                    || !"websocket".equalsIgnoreCase(((HttpServletRequest) request).getHeader("Upgrade"))) {
+                chain.doFilter(request, response);
+                return;
+            }
+            handshakeQuery.set(((HttpServletRequest) request).getQueryString());
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                handshakeQuery.remove();
+            }
+        }
+    }
+
+    protected DeflateConfigurator(String path) {
+        this.path = path;
+    }
+
+    /**
+     * 由握手请求的查询字符串得到压缩统计的键，与连接后SessionSender.setCompressionKey设置的键一致；null表示未知
+     */
+    protected String compressionKey(String query) {
+        return null;
+    }
+
+    static String queryParameter(String query, String name) {
+        if (query == null) return null;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq < 0 || !name.equals(pair.substring(0, eq))) continue;
+            try {
+                return URLDecoder.decode(pair.substring(eq + 1), "UTF-8");
+            } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    public static void configure(String path, Settings settings, int sampleRate) {
+        settingsByPath.put(path, settings);
+        CompressionStats.forPath(path).setSampleRate(sampleRate);
+    }
+
+    @Override
+    public List<Extension> getNegotiatedExtensions(List<Extension> installed, List<Extension> requested) {
+        List<Extension> negotiated = super.getNegotiatedExtensions(installed, requested);
+        boolean offered = false;
+        for (Extension extension : negotiated) {
+            if (PERMESSAGE_DEFLATE.equals(extension.getName())) offered = true;
+        }
+        if (!offered) return negotiated;
+        Settings settings = settingsByPath.get(path);
+        CompressionStats stats = CompressionStats.forPath(path);
+        double averageFrameBytes = stats.getAverageFrameBytes(compressionKey(handshakeQuery.get()));
+        boolean accept = settings == null || (settings.enabled
+                && (averageFrameBytes == 0 || averageFrameBytes >= settings.minFrameBytes));
+        stats.recordHandshake(accept);
+        List<Extension> result = new ArrayList<>(negotiated.size());
+        for (Extension extension : negotiated) {
+            if (!PERMESSAGE_DEFLATE.equals(extension.getName())) {
+                result.add(extension);
+            } else if (accept) {
+                result.add(settings == null ? extension : withContextTakeover(extension, settings));
+            }
+        }
+        return result;
+    }
+
+    // 在客户端的报价上追加不复用压缩上下文的参数，容器据此在每条消息后重置字典
+    private static Extension withContextTakeover(Extension offer, Settings settings) {
+        List<Extension.Parameter> parameters = new ArrayList<>(offer.getParameters());
+        if (settings.serverNoContextTakeover && !hasParameter(parameters, SERVER_NO_CONTEXT_TAKEOVER)) {
+            parameters.add(new SimpleParameter(SERVER_NO_CONTEXT_TAKEOVER, null));
+        }
+        if (settings.clientNoContextTakeover && !hasParameter(parameters, CLIENT_NO_CONTEXT_TAKEOVER)) {
+            parameters.add(new SimpleParameter(CLIENT_NO_CONTEXT_TAKEOVER, null));
+        }
+        return new SimpleExtension(offer.getName(), parameters);
+    }
+
+    private static boolean hasParameter(List<Extension.Parameter> parameters, String name) {
+        for (Extension.Parameter parameter : parameters) {
+            if (name.equals(parameter.getName())) return true;
+        }
+        return false;
+    }
+
+    private static class SimpleExtension implements Extension {
+        private final String name;
+        private final List<Parameter> parameters;
+
+        SimpleExtension(String name, List<Parameter> parameters) {
+            this.name = name;
+            this.parameters = parameters;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public List<Parameter> getParameters() {
+            return parameters;
+        }
+    }
+
+    private static class SimpleParameter implements Extension.Parameter {
+        private final String name;
+        private final String value;
+
+        SimpleParameter(String name, String value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getValue() {
+            return value;
+        }
+    }
+}
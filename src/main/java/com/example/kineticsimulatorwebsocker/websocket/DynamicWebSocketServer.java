@@ -1,52 +1,97 @@
 package com.example.kineticsimulatorwebsocker.websocket;
 
+import com.example.kineticsimulatorwebsocker.config.WebSocketProperties;
+import com.example.kineticsimulatorwebsocker.diagnostics.PushEvents;
+import com.example.kineticsimulatorwebsocker.metrics.PushMetrics;
+import com.example.kineticsimulatorwebsocker.generator.BinaryPayloadBuffer;
+import com.example.kineticsimulatorwebsocker.generator.DeltaEncoder;
+import com.example.kineticsimulatorwebsocker.generator.GeneratorEngine;
+import com.example.kineticsimulatorwebsocker.generator.GeneratorPlan;
+import com.example.kineticsimulatorwebsocker.generator.PayloadBuffer;
+import com.example.kineticsimulatorwebsocker.generator.TemplateCompiler;
+import com.example.kineticsimulatorwebsocker.generator.TemplateFingerprint;
+import com.example.kineticsimulatorwebsocker.generator.TemplateRegistry;
+import com.example.kineticsimulatorwebsocker.generator.TextFragments;
+import com.example.kineticsimulatorwebsocker.random.CounterRandomSource;
+import com.example.kineticsimulatorwebsocker.random.RandomSource;
+import com.example.kineticsimulatorwebsocker.random.RandomSources;
+import com.example.kineticsimulatorwebsocker.scheduler.TickScheduler;
+import com.example.kineticsimulatorwebsocker.scheduler.TickScheduler.TickHandle;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.websocket.*;
 import javax.websocket.server.ServerEndpoint;
-import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.Random;
-import java.util.concurrent.ScheduledFuture;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 
 /**
  * 支持动态json结构的WebSocket服务端
  */
-@ServerEndpoint("/")
+@ServerEndpoint(value = "/", configurator = DeflateConfigurator.Dynamic.class)
 @Component
 public class DynamicWebSocketServer {
     private static final Logger logger = LoggerFactory.getLogger(DynamicWebSocketServer.class);
     private static final ObjectMapper mapper = new ObjectMapper();
     private static final Map<Session, TemplateConfig> sessionTemplateMap = new ConcurrentHashMap<>();
-    private static final Map<Session, ScheduledFuture<?>> sessionTaskMap = new ConcurrentHashMap<>();
-    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
-    private static final Random random = new Random();
+    private static final Map<Session, TickHandle> sessionTaskMap = new ConcurrentHashMap<>();
+    // 每个会话的随机源，连接时按?seed=参数或全局配置分配
+    private static final Map<Session, RandomSource> sessionRandomMap = new ConcurrentHashMap<>();
+    // 连接URL中?seed=指定的种子，模板未指定seed时用于确定性回放，这些会话不加入广播组
+    private static final Map<Session, Long> sessionSeedMap = new ConcurrentHashMap<>();
+    // 每个会话的推送编码，连接时按?encoding=协商，模板消息中的"encoding"字段可覆盖
+    private static final Map<Session, FrameEncoding> sessionEncodingMap = new ConcurrentHashMap<>();
+    // 增量推送会话的编码器，连接时按?delta=true开启，模板消息中的"delta"字段可覆盖
+    private static final Map<Session, DeltaEncoder> sessionDeltaMap = new ConcurrentHashMap<>();
     // 全局最新模板配置
     private static volatile TemplateConfig latestGlobalTemplate = null;
 
+    private static WebSocketProperties webSocketProperties;
+    // 会话定时推送调度器（时间轮）
+    private static TickScheduler tickScheduler;
+    // 未收到模板时延迟分配全局模板的调度器
+    private static ScheduledExecutorService scheduler;
+
     private Session session;
+
+    @Autowired
+    public void setWebSocketProperties(WebSocketProperties webSocketProperties) {
+        DynamicWebSocketServer.webSocketProperties = webSocketProperties;
+    }
+
+    @Autowired
+    public void setTickScheduler(TickScheduler tickScheduler) {
+        DynamicWebSocketServer.tickScheduler = tickScheduler;
+    }
+
+    @Autowired
+    public void setTemplateFallbackScheduler(ScheduledExecutorService templateFallbackScheduler) {
+        DynamicWebSocketServer.scheduler = templateFallbackScheduler;
+    }
     
     // 模板配置类
     public static class TemplateConfig {
         public JsonNode template; // 原始模板
         public Map<String, String> fieldTypes; // 字段类型映射
         public Map<String, FieldLimit> fieldLimits; // 字段限制映射
+        public Map<String, FieldLimit> arrayLengths = new ConcurrentHashMap<>(); // 普通模式下数组路径的元素个数范围
         public Map<String, String> fieldDefaults; // 字段默认值映射
         public double pushInterval = 1.0; // 推送频率，单位秒，默认1秒
         public String mode = "normal"; // 生成模式，normal/advanced
         public int groupCount = 1; // 新增
+        public GeneratorPlan plan; // 编译后的生成计划
+        public String templateHash; // 规范化模板指纹
+        public boolean broadcast = false; // 是否加入广播组共享生成
+        public Long seed; // 确定性回放种子，为null时不回放
+        public Integer keyframeInterval; // 增量推送的关键帧间隔，为null时使用全局配置
 
         public TemplateConfig(JsonNode template, Map<String, String> fieldTypes) {
             this.template = template;
@@ -89,6 +134,22 @@ public class DynamicWebSocketServer {
             this.pushInterval = pushInterval > 0.1 ? pushInterval : 1.0;
             this.mode = mode != null ? mode : "normal";
         }
+
+        /**
+         * 复制一份配置：模板、编译结果和指纹共享，推送频率等会话设置可以独立修改
+         */
+        public TemplateConfig copy() {
+            TemplateConfig copy = new TemplateConfig(template, fieldTypes, fieldLimits, fieldDefaults, pushInterval, mode);
+            copy.pushInterval = pushInterval;
+            copy.groupCount = groupCount;
+            copy.arrayLengths = arrayLengths;
+            copy.plan = plan;
+            copy.templateHash = templateHash;
+            copy.broadcast = broadcast;
+            copy.seed = seed;
+            copy.keyframeInterval = keyframeInterval;
+            return copy;
+        }
     }
 
     // 字段限制类
@@ -105,21 +166,43 @@ public class DynamicWebSocketServer {
     @OnOpen
     public void onOpen(Session session) {
         this.session = session;
+        SessionSender.open(session, PushMetrics.DYNAMIC);
+        // 增量帧依赖客户端收到了上一帧，丢弃或发送失败后下一帧改为关键帧
+        SessionSender.of(session).setDropListener(() -> {
+            DeltaEncoder encoder = sessionDeltaMap.get(session);
+            if (encoder != null) encoder.forceKeyframe();
+        });
+        Long seed = parseSeed(session);
+        if (seed != null) sessionSeedMap.put(session, seed);
+        sessionRandomMap.put(session, RandomSources.forSession(seed));
+        List<String> encodings = session.getRequestParameterMap().get("encoding");
+        sessionEncodingMap.put(session, negotiateEncoding(session, encodings != null && !encodings.isEmpty() ? encodings.get(0) : null));
+        List<String> delta = session.getRequestParameterMap().get("delta");
+        if (delta != null && !delta.isEmpty() && Boolean.parseBoolean(delta.get(0))) {
+            sessionDeltaMap.put(session, new DeltaEncoder(getDeltaKeyframeInterval(null)));
+        }
+        // ?template=<id>引用已注册的模板，不需要上传、解析和编译，立即开始推送
+        List<String> templateIds = session.getRequestParameterMap().get("template");
+        if (templateIds != null && !templateIds.isEmpty()) {
+            TemplateConfig registered = TemplateRegistry.get(templateIds.get(0));
+            if (registered != null) {
+                startRegisteredTemplate(session, registered);
+                return;
+            }
+            logger.warn("连接{}引用的模板{}不存在，等待上传模板", session.getId(), templateIds.get(0));
+            sendText(session, "模板不存在: " + templateIds.get(0));
+        }
         logger.info("新连接: {}，等待3秒内收到模板，否则自动使用全局模板", session.getId());
         // 3秒后如果还没收到模板，自动分配全局模板
         scheduler.schedule(() -> {
             if (session.isOpen() && !sessionTemplateMap.containsKey(session)) {
-                if (latestGlobalTemplate != null) {
-                    sessionTemplateMap.put(session, latestGlobalTemplate);
+                TemplateConfig global = latestGlobalTemplate;
+                if (global != null) {
                     logger.info("连接{}未收到模板，自动分配全局模板", session.getId());
-                    sendRandomData(session, latestGlobalTemplate);
-                    double interval = latestGlobalTemplate.pushInterval > 0.1 ? latestGlobalTemplate.pushInterval : 1.0;
-                    ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(() -> {
-                        if (session.isOpen()) {
-                            sendRandomData(session, latestGlobalTemplate);
-                        }
-                    }, (long)(interval * 1000), (long)(interval * 1000), TimeUnit.MILLISECONDS);
-                    sessionTaskMap.put(session, future);
+                    // 使用副本：之后调整推送频率或全局模板被替换都不影响其他会话；上传者的seed不沿用
+                    TemplateConfig config = global.copy();
+                    config.seed = null;
+                    startRegisteredTemplate(session, config);
                 } else {
                     logger.warn("连接{}未收到模板，且全局模板为空，无法推送数据", session.getId());
                     sendText(session, "未收到模板且全局模板为空，无法推送数据");
@@ -134,98 +217,32 @@ public class DynamicWebSocketServer {
             // 只在第一次收到消息时尝试解析为模板
             try {
                 JsonNode jsonNode = mapper.readTree(message);
-                double pushInterval = 1.0;
-                if (jsonNode.has("pushInterval")) {
-                    try {
-                        pushInterval = jsonNode.get("pushInterval").asDouble(1.0);
-                        if (pushInterval < 0.1) pushInterval = 1.0;
-                    } catch (Exception e) {
-                        pushInterval = 1.0;
-                    }
-                }
-                String mode = "normal";
-                if (jsonNode.has("mode")) {
-                    mode = jsonNode.get("mode").asText();
-                }
-                // 检查是否是包含类型配置的模板
+                TemplateConfig config = buildTemplateConfig(jsonNode);
+                applyReplaySeed(session, config);
                 if (jsonNode.has("template") && jsonNode.has("fieldTypes")) {
-                    // 新的格式：包含模板和字段类型配置
-                    JsonNode template = jsonNode.get("template");
-                    JsonNode fieldTypesNode = jsonNode.get("fieldTypes");
-                    Map<String, String> fieldTypes = new ConcurrentHashMap<>();
-                    fieldTypesNode.fieldNames().forEachRemaining(field -> {
-                        fieldTypes.put(field, fieldTypesNode.get(field).asText());
-                    });
-                    // 处理字段限制
-                    Map<String, FieldLimit> fieldLimits = new ConcurrentHashMap<>();
-                    if (jsonNode.has("fieldLimits")) {
-                        JsonNode fieldLimitsNode = jsonNode.get("fieldLimits");
-                        fieldLimitsNode.fieldNames().forEachRemaining(field -> {
-                            JsonNode limitNode = fieldLimitsNode.get(field);
-                            String min = limitNode.has("min") ? limitNode.get("min").asText() : null;
-                            String max = limitNode.has("max") ? limitNode.get("max").asText() : null;
-                            if (min != null || max != null) {
-                                fieldLimits.put(field, new FieldLimit(min, max));
-                            }
-                        });
-                    }
-                    // 处理字段默认值
-                    Map<String, String> fieldDefaults = new ConcurrentHashMap<>();
-                    if (jsonNode.has("fieldDefaults")) {
-                        JsonNode fieldDefaultsNode = jsonNode.get("fieldDefaults");
-                        fieldDefaultsNode.fieldNames().forEachRemaining(field -> {
-                            JsonNode defNode = fieldDefaultsNode.get(field);
-                            String value = null;
-                            if (defNode.has("value")) value = defNode.get("value").asText();
-                            else value = defNode.asText();
-                            if (value != null) fieldDefaults.put(field, value);
-                        });
+                    if (jsonNode.has("encoding")) {
+                        sessionEncodingMap.put(session, negotiateEncoding(session, jsonNode.get("encoding").asText()));
                     }
-                    int groupCount = 1;
-                    if (jsonNode.has("groupCount")) {
-                        try {
-                            groupCount = jsonNode.get("groupCount").asInt(1);
-                            if (groupCount < 1) groupCount = 1;
-                            if (groupCount > 3) groupCount = 3;
-                        } catch (Exception e) {
-                            groupCount = 1;
-                        }
+                    // 增量推送：每个会话记住自己的上一帧，不加入广播组
+                    if (jsonNode.path("delta").asBoolean(sessionDeltaMap.containsKey(session))) {
+                        sessionDeltaMap.put(session, new DeltaEncoder(getDeltaKeyframeInterval(config)));
+                        config.broadcast = false;
+                    } else {
+                        sessionDeltaMap.remove(session);
                     }
-                    TemplateConfig config = new TemplateConfig(template, fieldTypes, fieldLimits, fieldDefaults, pushInterval, mode);
-                    config.groupCount = groupCount;
-                    sessionTemplateMap.put(session, config);
-                    latestGlobalTemplate = config; // 更新全局模板
-                    logger.info("收到并保存模板配置: 模板={}, 字段类型={}, 字段限制={}, 默认值={}, 推送频率={}, 生成模式={}, 组数={}", template.toString(), fieldTypes, fieldLimits, fieldDefaults, pushInterval, mode, groupCount);
-                    // 立即推送一次
-                    sendRandomData(session, config);
-                    // 启动定时推送（先取消旧任务）
-                    ScheduledFuture<?> oldTask = sessionTaskMap.get(session);
-                    if (oldTask != null) oldTask.cancel(true);
-                    ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(() -> {
-                        if (session.isOpen()) {
-                            sendRandomData(session, config);
-                        }
-                    }, (long)(pushInterval * 1000), (long)(pushInterval * 1000), TimeUnit.MILLISECONDS);
-                    sessionTaskMap.put(session, future);
-                } else {
-                    // 旧格式：直接是JSON模板，使用字段名推断类型
-                    Map<String, String> fieldTypes = inferFieldTypes(jsonNode);
-                    TemplateConfig config = new TemplateConfig(jsonNode, fieldTypes, null, null, pushInterval, mode);
-                    sessionTemplateMap.put(session, config);
-                    latestGlobalTemplate = config;
-                    logger.info("收到并保存模板: {}，已推断字段类型: {}，推送频率={}, 生成模式={}", jsonNode.toString(), fieldTypes, pushInterval, mode);
-                    // 立即推送一次
-                    sendRandomData(session, config);
-                    // 启动定时推送（先取消旧任务）
-                    ScheduledFuture<?> oldTask = sessionTaskMap.get(session);
-                    if (oldTask != null) oldTask.cancel(true);
-                    ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(() -> {
-                        if (session.isOpen()) {
-                            sendRandomData(session, config);
-                        }
-                    }, (long)(pushInterval * 1000), (long)(pushInterval * 1000), TimeUnit.MILLISECONDS);
-                    sessionTaskMap.put(session, future);
                 }
+                TemplateConfig registered = TemplateRegistry.register(config);
+                String templateId = registered != null ? registered.templateHash : null;
+                sessionTemplateMap.put(session, config);
+                SessionSender.of(session).setCompressionKey(config.templateHash);
+                latestGlobalTemplate = config; // 更新全局模板
+                logger.info("收到并保存模板配置: 模板ID={}, 模板={}, 字段类型={}, 字段限制={}, 默认值={}, 推送频率={}, 生成模式={}, 组数={}, 种子={}, 增量推送={}",
+                        templateId, config.template, config.fieldTypes, config.fieldLimits, config.fieldDefaults, config.pushInterval,
+                        config.mode, config.groupCount, config.seed, sessionDeltaMap.containsKey(session));
+                // 立即推送一次
+                sendRandomData(session, config);
+                // 启动定时推送（先取消旧任务）
+                startPush(session, config, config.pushInterval);
             } catch (Exception e) {
                 logger.warn("解析json模板失败: {}", e.getMessage());
                 sendText(session, "模板解析失败: " + e.getMessage());
@@ -237,19 +254,14 @@ public class DynamicWebSocketServer {
                 if (jsonNode.has("pushInterval") && jsonNode.size() == 1) {
                     double pushInterval = jsonNode.get("pushInterval").asDouble(1.0);
                     if (pushInterval < 0.1) pushInterval = 1.0;
-                    TemplateConfig config = sessionTemplateMap.get(session);
-                    if (config != null) {
+                    TemplateConfig current = sessionTemplateMap.get(session);
+                    if (current != null) {
+                        // 配置可能与全局模板、广播组共享，修改副本
+                        TemplateConfig config = current.copy();
                         config.pushInterval = pushInterval;
-                        // 先取消旧任务
-                        ScheduledFuture<?> oldTask = sessionTaskMap.get(session);
-                        if (oldTask != null) oldTask.cancel(true);
-                        // 启动新任务
-                        ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(() -> {
-                            if (session.isOpen()) {
-                                sendRandomData(session, config);
-                            }
-                        }, (long)(pushInterval * 1000), (long)(pushInterval * 1000), TimeUnit.MILLISECONDS);
-                        sessionTaskMap.put(session, future);
+                        sessionTemplateMap.put(session, config);
+                        // 先取消旧任务，再启动新任务
+                        startPush(session, config, pushInterval);
                         logger.info("连接{} 动态调整推送频率为 {} 秒", session.getId(), pushInterval);
                         sendText(session, "推送频率已调整为 " + pushInterval + " 秒");
                     }
@@ -275,8 +287,12 @@ public class DynamicWebSocketServer {
     @OnClose
     public void onClose(Session session) {
         sessionTemplateMap.remove(session);
-        ScheduledFuture<?> oldTask = sessionTaskMap.remove(session);
-        if (oldTask != null) oldTask.cancel(true);
+        sessionRandomMap.remove(session);
+        sessionSeedMap.remove(session);
+        sessionEncodingMap.remove(session);
+        sessionDeltaMap.remove(session);
+        stopPush(session);
+        SessionSender.remove(session);
         logger.info("连接关闭: {}", session.getId());
     }
 
@@ -285,38 +301,320 @@ public class DynamicWebSocketServer {
         logger.error("发生错误: {}", error.getMessage());
     }
 
+    // 使用注册表中的模板或全局模板（config为副本）：推送频率可由?pushInterval=覆盖，增量推送的会话不加入广播组
+    private void startRegisteredTemplate(Session session, TemplateConfig config) {
+        List<String> intervals = session.getRequestParameterMap().get("pushInterval");
+        if (intervals != null && !intervals.isEmpty()) {
+            try {
+                double pushInterval = Double.parseDouble(intervals.get(0));
+                if (pushInterval >= 0.1) config.pushInterval = pushInterval;
+            } catch (NumberFormatException e) {
+                logger.warn("连接{}的pushInterval参数无效: {}", session.getId(), intervals.get(0));
+            }
+        }
+        if (sessionDeltaMap.containsKey(session)) {
+            sessionDeltaMap.put(session, new DeltaEncoder(getDeltaKeyframeInterval(config)));
+        }
+        config.broadcast = isBroadcastGroupEnabled() && canBroadcast(session);
+        applyReplaySeed(session, config);
+        sessionTemplateMap.put(session, config);
+        SessionSender.of(session).setCompressionKey(config.templateHash);
+        logger.info("连接{}使用已注册模板{}，推送频率={}", session.getId(), config.templateHash, config.pushInterval);
+        sendRandomData(session, config);
+        startPush(session, config, config.pushInterval);
+    }
+
+    // 确定性回放：第N帧只由(seed, N)决定，会话从第0帧开始独立推送，不加入广播组。
+    // 模板中的seed优先，其次是连接URL中的?seed=
+    private static void applyReplaySeed(Session session, TemplateConfig config) {
+        if (config.seed == null) config.seed = sessionSeedMap.get(session);
+        if (config.seed == null) return;
+        config.broadcast = false;
+        sessionRandomMap.put(session, new CounterRandomSource(config.seed,
+                CounterRandomSource.DEFAULT_EPOCH_MILLIS, (long)(config.pushInterval * 1000)));
+    }
+
+    // 启动定时推送：广播模式下加入广播组，否则为会话单独调度（先取消旧任务）
+    private void startPush(Session session, TemplateConfig config, double pushInterval) {
+        TickHandle oldTask = sessionTaskMap.get(session);
+        stopPush(session);
+        long intervalMillis = (long)(pushInterval * 1000);
+        if (config.broadcast && canBroadcast(session)) {
+            BroadcastGroups.join(session, config, intervalMillis, getEncoding(session), tickScheduler);
+            return;
+        }
+        long frameBase = rebaseFrames(session, oldTask, intervalMillis);
+        TickHandle handle = tickScheduler.schedule((tickIndex, intendedNanos, firedNanos) -> {
+            if (session.isOpen()) {
+                SessionSender.of(session).recordTick(intendedNanos, firedNanos);
+                sendRandomData(session, config, intendedNanos, frameBase + tickIndex);
+            }
+        }, intervalMillis);
+        sessionTaskMap.put(session, handle);
+    }
+
+    // 确定性回放：第k个调度tick推送第frameBase + k帧（立即推送的为第0帧），被跳过或丢弃的tick也占用帧号。
+    // 调整推送频率时从旧任务已到期的最后一帧起按新间隔计时，返回新任务的帧号起点；非回放会话返回0
+    private long rebaseFrames(Session session, TickHandle oldTask, long intervalMillis) {
+        RandomSource random = sessionRandomMap.get(session);
+        if (!(random instanceof CounterRandomSource)) return 0;
+        CounterRandomSource counter = (CounterRandomSource) random;
+        synchronized (counter) {
+            long frameBase = counter.getOriginTick() + (oldTask != null ? oldTask.getElapsedTicks() : 0);
+            counter.rebase(frameBase, intervalMillis);
+            return frameBase;
+        }
+    }
+
+    private void stopPush(Session session) {
+        TickHandle oldTask = sessionTaskMap.remove(session);
+        if (oldTask != null) oldTask.cancel();
+        BroadcastGroups.leave(session);
+    }
+
+    // 组内共用一个随机源和同一帧数据：增量推送的会话要记住自己的上一帧，指定了?seed=的会话要推送自己的序列，都不加入广播组
+    private static boolean canBroadcast(Session session) {
+        return !sessionDeltaMap.containsKey(session) && !sessionSeedMap.containsKey(session);
+    }
+
+    private static boolean isBroadcastGroupEnabled() {
+        return webSocketProperties != null && webSocketProperties.isBroadcastGroupEnabled();
+    }
+
+    private static int getDeltaKeyframeInterval(TemplateConfig config) {
+        if (config != null && config.keyframeInterval != null) return config.keyframeInterval;
+        return webSocketProperties != null ? webSocketProperties.getDeltaKeyframeInterval() : 30;
+    }
+
+    private static FrameEncoding getEncoding(Session session) {
+        return sessionEncodingMap.getOrDefault(session, FrameEncoding.JSON);
+    }
+
+    // 动态模板支持JSON和CBOR，定长结构体只适用于雷达数据
+    private static FrameEncoding negotiateEncoding(Session session, String value) {
+        FrameEncoding requested = FrameEncoding.parse(value, FrameEncoding.JSON);
+        if (requested == FrameEncoding.STRUCT) {
+            logger.warn("连接{}请求的编码{}不适用于动态模板，使用JSON", session.getId(), requested);
+            return FrameEncoding.JSON;
+        }
+        return requested;
+    }
+
+    // 异步发送，慢客户端只积压自己的发送队列，不阻塞推送线程
     private void sendText(Session session, String text) {
+        if (session.isOpen()) SessionSender.of(session).send(text);
+    }
+
+    // 连接URL中的?seed=参数，未指定或无法解析时返回null
+    private static Long parseSeed(Session session) {
+        List<String> values = session.getRequestParameterMap().get("seed");
+        if (values == null || values.isEmpty()) return null;
         try {
-            if (session.isOpen()) session.getBasicRemote().sendText(text);
-        } catch (IOException e) {
-            logger.warn("发送消息失败: {}", e.getMessage());
+            return Long.parseLong(values.get(0).trim());
+        } catch (NumberFormatException e) {
+            logger.warn("连接{}的seed参数无效: {}", session.getId(), values.get(0));
+            return null;
         }
     }
 
     private void sendRandomData(Session session, TemplateConfig config) {
+        sendRandomData(session, config, 0);
+    }
+
+    private void sendRandomData(Session session, TemplateConfig config, long tickNanos) {
+        sendRandomData(session, config, tickNanos, -1);
+    }
+
+    // tickNanos为定时推送tick的计划执行时间，用于统计发送完成延迟；非定时推送为0。
+    // frameIndex为确定性回放的帧号，-1表示沿用随机源的下一帧
+    private void sendRandomData(Session session, TemplateConfig config, long tickNanos, long frameIndex) {
         try {
-            logger.info("推送数据前，当前groupCount={}", config.groupCount);
-            JsonNode data;
-            if ("advanced".equals(config.mode)) {
-                data = AdvancedDataGenerator.generate(config.template, config.fieldTypes, config.fieldLimits, config.fieldDefaults, config.groupCount);
+            // 只有被采样的tick或启用了指标时才计时
+            boolean sampled = PushEvents.sample();
+            boolean timed = sampled || PushMetrics.isEnabled();
+            long start = timed ? System.nanoTime() : 0;
+            Object frame = generateFrame(session, config, frameIndex);
+            if (timed) {
+                long elapsed = System.nanoTime() - start;
+                // 增量模式在generateDelta中分别记录生成和序列化阶段
+                if (!sessionDeltaMap.containsKey(session)) {
+                    PushMetrics.recordStage(PushMetrics.DYNAMIC, PushMetrics.Stage.STREAMING, elapsed);
+                }
+                if (sampled) {
+                    int size = frame instanceof ByteBuffer ? ((ByteBuffer) frame).remaining()
+                            : frame instanceof TextFragments ? ((TextFragments) frame).length() : ((String) frame).length();
+                    PushEvents.record(PushEvents.Kind.GENERATE, "/", session.getId(), config.templateHash, size, elapsed);
+                }
+            }
+            PushMetrics.recordTick(PushMetrics.DYNAMIC);
+            if (!session.isOpen()) return;
+            if (frame instanceof ByteBuffer) {
+                SessionSender.of(session).sendBinary((ByteBuffer) frame, tickNanos);
+            } else if (frame instanceof TextFragments) {
+                SessionSender.of(session).send((TextFragments) frame, tickNanos);
             } else {
-                data = generateRandomByTemplate(config);
+                SessionSender.of(session).send((String) frame, tickNanos);
             }
-            String json = mapper.writeValueAsString(data);
-            sendText(session, json);
         } catch (Exception e) {
             logger.warn("生成或发送随机数据失败: {}", e.getMessage());
         }
     }
 
+    // 共享的线程本地随机源不加锁，各会话的推送互不阻塞；
+    // 会话独享的随机源平时只由该会话的定时任务使用，只在调整推送频率时新旧任务可能短暂重叠，锁只在同一会话内竞争
+    private Object generateFrame(Session session, TemplateConfig config, long frameIndex) throws Exception {
+        RandomSource random = sessionRandomMap.getOrDefault(session, RandomSource.threadLocal());
+        if (random.isThreadSafe()) {
+            return generateFrame(session, config, random);
+        }
+        synchronized (random) {
+            if (frameIndex >= 0) random.seekTick(frameIndex);
+            return generateFrame(session, config, random);
+        }
+    }
+
+    // 按会话的编码和增量模式生成一帧：CBOR为ByteBuffer，JSON为String，超过分片阈值的JSON为TextFragments
+    private Object generateFrame(Session session, TemplateConfig config, RandomSource random) throws Exception {
+        DeltaEncoder delta = sessionDeltaMap.get(session);
+        if (delta != null) {
+            return generateDelta(session, config, random, delta);
+        }
+        if (getEncoding(session) == FrameEncoding.CBOR) {
+            BinaryPayloadBuffer payload = BinaryPayloadBuffer.forCurrentThread();
+            config.plan.writeCborTo(payload, random);
+            return payload.toByteBuffer();
+        }
+        // 流式生成到当前线程的复用缓冲区，不构建JsonNode树
+        PayloadBuffer payload = PayloadBuffer.forCurrentThread();
+        config.plan.writeTo(payload, random);
+        return payload.toFrame();
+    }
+
+    // 增量推送需要与上一帧比较，生成完整的JsonNode树；常量子树是共享实例，比较时直接跳过
+    private Object generateDelta(Session session, TemplateConfig config, RandomSource random, DeltaEncoder delta) throws Exception {
+        boolean timed = PushMetrics.isEnabled();
+        long start = timed ? System.nanoTime() : 0;
+        JsonNode current = config.plan.generate(random);
+        long generated = timed ? System.nanoTime() : 0;
+        if (timed) PushMetrics.recordStage(PushMetrics.DYNAMIC, PushMetrics.Stage.GENERATE, generated - start);
+        Object frame;
+        if (getEncoding(session) == FrameEncoding.CBOR) {
+            BinaryPayloadBuffer payload = BinaryPayloadBuffer.forCurrentThread();
+            delta.writeCborTo(payload, current);
+            frame = payload.toByteBuffer();
+        } else {
+            PayloadBuffer payload = PayloadBuffer.forCurrentThread();
+            delta.writeTo(payload, current);
+            frame = payload.toFrame();
+        }
+        if (timed) PushMetrics.recordStage(PushMetrics.DYNAMIC, PushMetrics.Stage.SERIALIZE, System.nanoTime() - generated);
+        return frame;
+    }
+
+    /**
+     * 把模板消息解析并编译为TemplateConfig：新格式包含template和fieldTypes，旧格式直接是JSON模板（按字段名推断类型）。
+     * 只处理模板本身的设置，编码、增量推送等会话设置由调用方处理；也用于通过REST预先注册模板
+     */
+    public static TemplateConfig buildTemplateConfig(JsonNode jsonNode) {
+        double pushInterval = 1.0;
+        if (jsonNode.has("pushInterval")) {
+            try {
+                pushInterval = jsonNode.get("pushInterval").asDouble(1.0);
+                if (pushInterval < 0.1) pushInterval = 1.0;
+            } catch (Exception e) {
+                pushInterval = 1.0;
+            }
+        }
+        String mode = "normal";
+        if (jsonNode.has("mode")) {
+            mode = jsonNode.get("mode").asText();
+        }
+        // 检查是否是包含类型配置的模板
+        if (!jsonNode.has("template") || !jsonNode.has("fieldTypes")) {
+            // 旧格式：直接是JSON模板，使用字段名推断类型
+            Map<String, String> fieldTypes = inferFieldTypes(jsonNode);
+            TemplateConfig config = new TemplateConfig(jsonNode, fieldTypes, null, null, pushInterval, mode);
+            config.pushInterval = pushInterval;
+            config.plan = TemplateCompiler.compile(config);
+            config.templateHash = TemplateFingerprint.of(config);
+            config.broadcast = isBroadcastGroupEnabled();
+            return config;
+        }
+        // 新的格式：包含模板和字段类型配置
+        JsonNode template = jsonNode.get("template");
+        JsonNode fieldTypesNode = jsonNode.get("fieldTypes");
+        Map<String, String> fieldTypes = new ConcurrentHashMap<>();
+        fieldTypesNode.fieldNames().forEachRemaining(field -> {
+            fieldTypes.put(field, fieldTypesNode.get(field).asText());
+        });
+        // 处理字段限制
+        Map<String, FieldLimit> fieldLimits = parseLimits(jsonNode.get("fieldLimits"));
+        // 处理字段默认值
+        Map<String, String> fieldDefaults = new ConcurrentHashMap<>();
+        if (jsonNode.has("fieldDefaults")) {
+            JsonNode fieldDefaultsNode = jsonNode.get("fieldDefaults");
+            fieldDefaultsNode.fieldNames().forEachRemaining(field -> {
+                JsonNode defNode = fieldDefaultsNode.get(field);
+                String value = null;
+                if (defNode.has("value")) value = defNode.get("value").asText();
+                else value = defNode.asText();
+                if (value != null) fieldDefaults.put(field, value);
+            });
+        }
+        int groupCount = 1;
+        if (jsonNode.has("groupCount")) {
+            try {
+                groupCount = jsonNode.get("groupCount").asInt(1);
+                if (groupCount < 1) groupCount = 1;
+                // 根数组的元素个数另受simulator.max-array-size限制
+                if (groupCount > GeneratorEngine.getMaxArraySize()) groupCount = GeneratorEngine.getMaxArraySize();
+            } catch (Exception e) {
+                groupCount = 1;
+            }
+        }
+        TemplateConfig config = new TemplateConfig(template, fieldTypes, fieldLimits, fieldDefaults, pushInterval, mode);
+        config.pushInterval = pushInterval;
+        config.groupCount = groupCount;
+        // 数组元素个数范围与字段值范围分开配置，数组路径上的fieldLimits不影响元素个数
+        config.arrayLengths = parseLimits(jsonNode.get("arrayLengths"));
+        config.plan = TemplateCompiler.compile(config);
+        config.templateHash = TemplateFingerprint.of(config);
+        config.broadcast = jsonNode.path("broadcast").asBoolean(isBroadcastGroupEnabled());
+        JsonNode seedNode = jsonNode.get("seed");
+        if (seedNode != null && seedNode.canConvertToLong()) {
+            config.seed = seedNode.asLong();
+            config.broadcast = false;
+        }
+        JsonNode keyframeNode = jsonNode.get("keyframeInterval");
+        if (keyframeNode != null && keyframeNode.canConvertToInt()) {
+            config.keyframeInterval = keyframeNode.asInt();
+        }
+        return config;
+    }
+
+    // 解析{路径: {min, max}}形式的范围配置，min、max都未设置的路径忽略
+    private static Map<String, FieldLimit> parseLimits(JsonNode limitsNode) {
+        Map<String, FieldLimit> limits = new ConcurrentHashMap<>();
+        if (limitsNode == null) return limits;
+        limitsNode.fieldNames().forEachRemaining(field -> {
+            JsonNode limitNode = limitsNode.get(field);
+            String min = limitNode.has("min") ? limitNode.get("min").asText() : null;
+            String max = limitNode.has("max") ? limitNode.get("max").asText() : null;
+            if (min != null || max != null) {
+                limits.put(field, new FieldLimit(min, max));
+            }
+        });
+        return limits;
+    }
+
     // 根据字段名推断类型
-    private Map<String, String> inferFieldTypes(JsonNode template) {
+    private static Map<String, String> inferFieldTypes(JsonNode template) {
         Map<String, String> fieldTypes = new ConcurrentHashMap<>();
         inferFieldTypesRecursive(template, "", fieldTypes);
         return fieldTypes;
     }
 
-    private void inferFieldTypesRecursive(JsonNode node, String path, Map<String, String> fieldTypes) {
+    private static void inferFieldTypesRecursive(JsonNode node, String path, Map<String, String> fieldTypes) {
         if (node.isArray()) {
             // 处理数组类型
             if (node.size() > 0) {
@@ -335,7 +633,7 @@ public class DynamicWebSocketServer {
         }
     }
 
-    private String inferTypeByFieldName(String fieldName, JsonNode value) {
+    private static String inferTypeByFieldName(String fieldName, JsonNode value) {
         String lowerFieldName = fieldName.toLowerCase();
         
         // 根据字段名推断类型
@@ -391,490 +689,6 @@ public class DynamicWebSocketServer {
         return "string"; // 默认字符串
     }
 
-    // 递归生成与模板结构一致的随机数据
-    private JsonNode generateRandomByTemplate(TemplateConfig config) {
-        return generateRandomByTemplateRecursive(config.template, config.fieldTypes, "", config);
-    }
-
-    // 工具方法：路径归一化，将所有[数字]替换为[0]
-    private String normalizeArrayPath(String path) {
-        return path == null ? null : path.replaceAll("\\[\\d+\\]", "[0]");
-    }
-
-    // 新增：路径回退查找（如data[3].children[2].id -> data[0].children[0].id）
-    private String getTypeWithFallback(Map<String, String> fieldTypes, String path) {
-        String type = fieldTypes.get(path);
-        if (type != null) return type;
-        String fallbackPath = normalizeArrayPath(path);
-        return fieldTypes.getOrDefault(fallbackPath, "string");
-    }
-
-    // 获取字段限制，优先查找当前path，没有则fallback到[0]（递归归一化）
-    private FieldLimit getFieldLimitWithFallback(Map<String, FieldLimit> fieldLimits, String path) {
-        FieldLimit limit = fieldLimits.get(path);
-        if (limit != null) return limit;
-        String fallbackPath = normalizeArrayPath(path);
-        return fieldLimits.get(fallbackPath);
-    }
-
-    // 递归生成与模板结构一致的随机数据
-    private JsonNode generateRandomByTemplateRecursive(JsonNode template, Map<String, String> fieldTypes, String path, TemplateConfig config) {
-        // 优先使用默认值（归一化路径）
-        String normPath = normalizeArrayPath(path);
-        if (config.fieldDefaults != null && config.fieldDefaults.containsKey(normPath)) {
-            String defVal = config.fieldDefaults.get(normPath);
-            if (defVal != null && !defVal.isEmpty()) {
-                return parseDefaultValueToJsonNode(defVal, getTypeWithFallback(fieldTypes, path), template);
-            }
-        }
-        if (template.isArray()) {
-            ArrayNode arr = mapper.createArrayNode();
-            int len = template.size() > 0 ? random.nextInt(3) + 1 : 0;
-            for (int i = 0; i < len; i++) {
-                // 构造新的 fieldTypes 和 fieldLimits，key 替换 [0] 为 [i]
-                Map<String, String> newFieldTypes = new ConcurrentHashMap<>();
-                for (Map.Entry<String, String> entry : fieldTypes.entrySet()) {
-                    String key = entry.getKey();
-                    if (key.contains(path + "[0]")) {
-                        String newKey = key.replace(path + "[0]", path + "[" + i + "]");
-                        newFieldTypes.put(newKey, entry.getValue());
-                    }
-                }
-                Map<String, FieldLimit> newFieldLimits = new ConcurrentHashMap<>();
-                for (Map.Entry<String, FieldLimit> entry : config.fieldLimits.entrySet()) {
-                    String key = entry.getKey();
-                    if (key.contains(path + "[0]")) {
-                        String newKey = key.replace(path + "[0]", path + "[" + i + "]");
-                        newFieldLimits.put(newKey, entry.getValue());
-                    }
-                }
-                // 合并原有配置
-                Map<String, String> mergedTypes = new ConcurrentHashMap<>(fieldTypes);
-                mergedTypes.putAll(newFieldTypes);
-                Map<String, FieldLimit> mergedLimits = new ConcurrentHashMap<>(config.fieldLimits);
-                mergedLimits.putAll(newFieldLimits);
-                TemplateConfig newConfig = new TemplateConfig(config.template, mergedTypes, mergedLimits, config.fieldDefaults, config.pushInterval, config.mode);
-                // 修复：每个元素用各自的模板结构
-                JsonNode elementTemplate = template.get(i < template.size() ? i : 0);
-                JsonNode elementData = generateRandomByTemplateRecursive(elementTemplate, mergedTypes, path + "[" + i + "]", newConfig);
-                arr.add(elementData);
-            }
-            return arr;
-        } else if (template.isObject()) {
-            ObjectNode obj = mapper.createObjectNode();
-            template.fieldNames().forEachRemaining(field -> {
-                String fieldPath = path.isEmpty() ? field : path + "." + field;
-                JsonNode fieldValue = template.get(field);
-                JsonNode generatedValue = generateRandomByTemplateRecursive(fieldValue, fieldTypes, fieldPath, config);
-                obj.set(field, generatedValue);
-            });
-            return obj;
-        } else {
-            String fieldType = getTypeWithFallback(fieldTypes, path);
-            return generateRandomByType(fieldType, template, fieldTypes, path, config);
-        }
-    }
-
-    // 根据指定类型生成随机数据
-    private JsonNode generateRandomByType(String type, JsonNode template, Map<String, String> fieldTypes, String path, TemplateConfig config) {
-        // 优先使用默认值（归一化路径）
-        String normPath = normalizeArrayPath(path);
-        if (config.fieldDefaults != null && config.fieldDefaults.containsKey(normPath)) {
-            String defVal = config.fieldDefaults.get(normPath);
-            if (defVal != null && !defVal.isEmpty()) {
-                return parseDefaultValueToJsonNode(defVal, type, template);
-            }
-        }
-        // 获取字段限制，优先查找当前path，没有则fallback到[0]（递归归一化）
-        FieldLimit limit = getFieldLimitWithFallback(config.fieldLimits, path);
-        switch (type) {
-            case "int":
-            case "age":
-            case "year":
-            case "month":
-            case "day":
-            case "hour":
-            case "minute":
-            case "second":
-            case "port":
-            case "id":
-                return generateRandomInt(type, limit);
-            case "double":
-            case "price":
-            case "rate":
-            case "score":
-            case "temperature":
-            case "latitude":
-            case "longitude":
-                return generateRandomDouble(type, limit);
-            case "timestamp_realtime":
-                // 实时时间戳，毫秒
-                return new LongNode(System.currentTimeMillis());
-            case "timestamp_editable": {
-                // 优先用默认值（归一化路径）
-                if (config.fieldDefaults != null && config.fieldDefaults.containsKey(normPath)) {
-                    String defVal = config.fieldDefaults.get(normPath);
-                    if (defVal != null && !defVal.isEmpty()) {
-                        try {
-                            return new LongNode(Long.parseLong(defVal));
-                        } catch (Exception e) {
-                            logger.warn("可修改时间戳默认值解析失败: {}", defVal);
-                        }
-                    }
-                }
-                long min = 1577808000000L; // 2020-01-01 00:00:00
-                long max = System.currentTimeMillis() + 365L * 24 * 3600 * 1000; // 默认最大为一年后
-                if (limit != null) {
-                    try {
-                        if (limit.min != null && !limit.min.isEmpty()) min = Long.parseLong(limit.min);
-                        if (limit.max != null && !limit.max.isEmpty()) max = Long.parseLong(limit.max);
-                    } catch (Exception e) {
-                        logger.warn("可修改时间戳最大/最小值解析失败: min={}, max={}", limit.min, limit.max);
-                    }
-                }
-                if (min > max) min = max;
-                long val = min + (long)(random.nextDouble() * (max - min + 1));
-                return new LongNode(val);
-            }
-            case "boolean":
-                return BooleanNode.valueOf(random.nextBoolean());
-            case "array":
-                return generateRandomArray(template, fieldTypes, path, config);
-            case "object":
-                return generateRandomObject(template, fieldTypes, path, config);
-            case "email":
-                return new TextNode(generateRandomEmail());
-            case "phone":
-                return new TextNode(generateRandomPhone());
-            case "date":
-                return new TextNode(generateRandomDateTime(limit));
-            case "ip":
-                return new TextNode(generateRandomIP());
-            case "url":
-                return new TextNode(generateRandomURL());
-            case "uuid":
-                return new TextNode(generateRandomUUID());
-            case "name":
-                return new TextNode(generateRandomName());
-            case "color":
-                return new TextNode(generateRandomColor());
-            case "string":
-            default:
-                return new TextNode(randomString(6));
-        }
-    }
-
-    // 生成随机整数
-    private JsonNode generateRandomInt(String type, FieldLimit limit) {
-        int min = 0;
-        int max = 10000; // 默认最大值
-        
-        if (limit != null && limit.min != null && limit.max != null) {
-            try {
-                min = Integer.parseInt(limit.min);
-                max = Integer.parseInt(limit.max);
-            } catch (NumberFormatException e) {
-                // 如果解析失败，使用默认值
-                logger.warn("解析字段限制失败，使用默认值: min={}, max={}", limit.min, limit.max);
-            }
-        } else {
-            // 没有限制时使用默认范围
-            switch (type) {
-                case "age":
-                    min = 1; max = 100; break;
-                case "year":
-                    min = 2000; max = 2024; break;
-                case "month":
-                    min = 1; max = 12; break;
-                case "day":
-                    min = 1; max = 31; break;
-                case "hour":
-                    min = 0; max = 23; break;
-                case "minute":
-                case "second":
-                    min = 0; max = 59; break;
-                case "port":
-                    min = 1024; max = 65535; break;
-                case "id":
-                    min = 1; max = 1000000; break;
-                default:
-                    min = 0; max = 10000; break;
-            }
-        }
-        
-        return new IntNode(random.nextInt(max - min + 1) + min);
-    }
-
-    // 生成随机浮点数
-    private JsonNode generateRandomDouble(String type, FieldLimit limit) {
-        double min = 0.0;
-        double max = 100.0; // 默认最大值
-        
-        if (limit != null && limit.min != null && limit.max != null) {
-            try {
-                min = Double.parseDouble(limit.min);
-                max = Double.parseDouble(limit.max);
-            } catch (NumberFormatException e) {
-                // 如果解析失败，使用默认值
-                logger.warn("解析字段限制失败，使用默认值: min={}, max={}", limit.min, limit.max);
-            }
-        } else {
-            // 没有限制时使用默认范围
-            switch (type) {
-                case "price":
-                    min = 0.0; max = 1000.0; break;
-                case "rate":
-                    min = 0.0; max = 100.0; break;
-                case "score":
-                    min = 0.0; max = 10.0; break;
-                case "temperature":
-                    min = -10.0; max = 40.0; break;
-                case "latitude":
-                    min = -90.0; max = 90.0; break;
-                case "longitude":
-                    min = -180.0; max = 180.0; break;
-                default:
-                    min = 0.0; max = 100.0; break;
-            }
-        }
-        
-        switch (type) {
-            case "price":
-                return new DoubleNode(Math.round((random.nextDouble() * (max - min) + min) * 100.0) / 100.0);
-            case "rate":
-                return new DoubleNode(Math.round((random.nextDouble() * (max - min) + min) * 100.0) / 100.0);
-            case "score":
-                return new DoubleNode(Math.round((random.nextDouble() * (max - min) + min) * 10.0) / 10.0);
-            case "temperature":
-                return new DoubleNode(Math.round((random.nextDouble() * (max - min) + min) * 10.0) / 10.0);
-            case "latitude":
-                return new DoubleNode(Math.round((random.nextDouble() * (max - min) + min) * 1000000.0) / 1000000.0);
-            case "longitude":
-                return new DoubleNode(Math.round((random.nextDouble() * (max - min) + min) * 1000000.0) / 1000000.0);
-            default:
-                return new DoubleNode(Math.round((random.nextDouble() * (max - min) + min) * 100.0) / 100.0);
-        }
-    }
-
-    // 生成随机邮箱
-    private String generateRandomEmail() {
-        String[] domains = {"gmail.com", "yahoo.com", "hotmail.com", "outlook.com", "qq.com", "163.com"};
-        String username = randomString(8);
-        String domain = domains[random.nextInt(domains.length)];
-        return username + "@" + domain;
-    }
-
-    // 生成随机手机号
-    private String generateRandomPhone() {
-        String[] prefixes = {"130", "131", "132", "133", "134", "135", "136", "137", "138", "139",
-                           "150", "151", "152", "153", "155", "156", "157", "158", "159",
-                           "180", "181", "182", "183", "184", "185", "186", "187", "188", "189"};
-        String prefix = prefixes[random.nextInt(prefixes.length)];
-        String suffix = String.format("%08d", random.nextInt(100000000));
-        return prefix + suffix;
-    }
-
-    // 生成随机日期时间
-    private String generateRandomDateTime(FieldLimit limit) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        LocalDateTime minDate = null, maxDate = null;
-        try {
-            if (limit != null) {
-                if (limit.min != null && !limit.min.isEmpty()) {
-                    String minStr = limit.min.replace('T', ' ');
-                    if (minStr.length() == 10) minStr += " 00:00:00";
-                    else if (minStr.length() == 16) minStr += ":00";
-                    minDate = LocalDateTime.parse(minStr, formatter);
-                }
-                if (limit.max != null && !limit.max.isEmpty()) {
-                    String maxStr = limit.max.replace('T', ' ');
-                    if (maxStr.length() == 10) maxStr += " 23:59:59";
-                    else if (maxStr.length() == 16) maxStr += ":59";
-                    maxDate = LocalDateTime.parse(maxStr, formatter);
-                }
-            }
-        } catch (Exception e) {
-            logger.warn("解析日期限制失败，使用默认值: min={}, max={}", limit != null ? limit.min : null, limit != null ? limit.max : null);
-        }
-        if (minDate != null && maxDate != null && !minDate.isAfter(maxDate)) {
-            long seconds = ChronoUnit.SECONDS.between(minDate, maxDate);
-            long randomSeconds = seconds > 0 ? (long)(random.nextDouble() * seconds) : 0;
-            LocalDateTime randomDate = minDate.plusSeconds(randomSeconds);
-            return randomDate.format(formatter);
-        }
-        // 原有逻辑
-        int year = 2020 + random.nextInt(5);
-        int month = random.nextInt(12) + 1;
-        int day = random.nextInt(28) + 1;
-        int hour = random.nextInt(24);
-        int minute = random.nextInt(60);
-        int second = random.nextInt(60);
-        return String.format("%04d-%02d-%02d %02d:%02d:%02d", year, month, day, hour, minute, second);
-    }
-
-    // 生成随机IP地址
-    private String generateRandomIP() {
-        return random.nextInt(256) + "." + random.nextInt(256) + "." + 
-               random.nextInt(256) + "." + random.nextInt(256);
-    }
-
-    // 生成随机URL
-    private String generateRandomURL() {
-        String[] protocols = {"http", "https"};
-        String[] domains = {"example.com", "test.com", "demo.com", "sample.com"};
-        String[] paths = {"api", "data", "user", "product", "order"};
-        
-        String protocol = protocols[random.nextInt(protocols.length)];
-        String domain = domains[random.nextInt(domains.length)];
-        String path = paths[random.nextInt(paths.length)];
-        String id = String.valueOf(random.nextInt(1000));
-        
-        return protocol + "://" + domain + "/" + path + "/" + id;
-    }
-
-    // 生成随机UUID
-    private String generateRandomUUID() {
-        return java.util.UUID.randomUUID().toString();
-    }
-
-    // 生成随机姓名
-    private String generateRandomName() {
-        String[] firstNames = {"张", "李", "王", "刘", "陈", "杨", "赵", "黄", "周", "吴"};
-        String[] lastNames = {"伟", "芳", "娜", "秀英", "敏", "静", "丽", "强", "磊", "军"};
-        
-        String firstName = firstNames[random.nextInt(firstNames.length)];
-        String lastName = lastNames[random.nextInt(lastNames.length)];
-        return firstName + lastName;
-    }
-
-    // 生成随机颜色
-    private String generateRandomColor() {
-        String[] colors = {"red", "blue", "green", "yellow", "purple", "orange", "pink", "brown", "black", "white"};
-        return colors[random.nextInt(colors.length)];
-    }
-
-    private String randomString(int len) {
-        String chars = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < len; i++) {
-            sb.append(chars.charAt(random.nextInt(chars.length())));
-        }
-        return sb.toString();
-    }
-
-    // 生成随机数组
-    private JsonNode generateRandomArray(JsonNode template, Map<String, String> fieldTypes, String path, TemplateConfig config) {
-        ArrayNode arr = mapper.createArrayNode();
-        int len = random.nextInt(3) + 1;
-        for (int i = 0; i < len; i++) {
-            // 构造新的 fieldTypes 和 fieldLimits，key 替换 [0] 为 [i]
-            Map<String, String> newFieldTypes = new ConcurrentHashMap<>();
-            for (Map.Entry<String, String> entry : fieldTypes.entrySet()) {
-                String key = entry.getKey();
-                if (key.contains(path + "[0]")) {
-                    String newKey = key.replace(path + "[0]", path + "[" + i + "]");
-                    newFieldTypes.put(newKey, entry.getValue());
-                }
-            }
-            Map<String, FieldLimit> newFieldLimits = new ConcurrentHashMap<>();
-            for (Map.Entry<String, FieldLimit> entry : config.fieldLimits.entrySet()) {
-                String key = entry.getKey();
-                if (key.contains(path + "[0]")) {
-                    String newKey = key.replace(path + "[0]", path + "[" + i + "]");
-                    newFieldLimits.put(newKey, entry.getValue());
-                }
-            }
-            // 合并原有配置
-            Map<String, String> mergedTypes = new ConcurrentHashMap<>(fieldTypes);
-            mergedTypes.putAll(newFieldTypes);
-            Map<String, FieldLimit> mergedLimits = new ConcurrentHashMap<>(config.fieldLimits);
-            mergedLimits.putAll(newFieldLimits);
-            TemplateConfig newConfig = new TemplateConfig(config.template, mergedTypes, mergedLimits, config.fieldDefaults, config.pushInterval, config.mode);
-            // 修复：每个元素用各自的模板结构
-            JsonNode elementTemplate = template.get(i < template.size() ? i : 0);
-            JsonNode elementData = generateRandomByTemplateRecursive(elementTemplate, mergedTypes, path + "[" + i + "]", newConfig);
-            arr.add(elementData);
-        }
-        return arr;
-    }
-
-    // 生成随机对象
-    private JsonNode generateRandomObject(JsonNode template, Map<String, String> fieldTypes, String path, TemplateConfig config) {
-        ObjectNode obj = mapper.createObjectNode();
-        if (template.isObject()) {
-            template.fieldNames().forEachRemaining(field -> {
-                String fieldPath = path.isEmpty() ? field : path + "." + field;
-                JsonNode fieldValue = template.get(field);
-                String fieldType = fieldTypes.getOrDefault(fieldPath, "string");
-                JsonNode generatedValue = generateRandomByType(fieldType, fieldValue, fieldTypes, fieldPath, config);
-                obj.set(field, generatedValue);
-            });
-        }
-        return obj;
-    }
-
-    // 工具方法：将默认值字符串转为合适的JsonNode
-    private JsonNode parseDefaultValueToJsonNode(String defVal, String type, JsonNode template) {
-        try {
-            switch (type) {
-                case "int":
-                case "age":
-                case "year":
-                case "month":
-                case "day":
-                case "hour":
-                case "minute":
-                case "second":
-                case "port":
-                case "id":
-                    return new IntNode(Integer.parseInt(defVal));
-                case "double":
-                case "price":
-                case "rate":
-                case "score":
-                case "temperature":
-                case "latitude":
-                case "longitude":
-                    return new DoubleNode(Double.parseDouble(defVal));
-                case "boolean":
-                    return BooleanNode.valueOf("true".equalsIgnoreCase(defVal) || "1".equals(defVal));
-                case "array":
-                    // 支持多行文本或json数组
-                    if (defVal.trim().startsWith("[") && defVal.trim().endsWith("]")) {
-                        return mapper.readTree(defVal);
-                    } else {
-                        // 尝试按逗号分割
-                        ArrayNode arr = mapper.createArrayNode();
-                        for (String s : defVal.split("\n|,")) {
-                            if (!s.trim().isEmpty()) arr.add(s.trim());
-                        }
-                        return arr;
-                    }
-                case "object":
-                    if (defVal.trim().startsWith("{") && defVal.trim().endsWith("}")) {
-                        return mapper.readTree(defVal);
-                    } else {
-                        // 尝试用原模板结构，递归填充
-                        if (template != null && template.isObject()) {
-                            ObjectNode obj = mapper.createObjectNode();
-                            template.fieldNames().forEachRemaining(f -> {
-                                obj.set(f, new TextNode(defVal));
-                            });
-                            return obj;
-                        }
-                        return new TextNode(defVal);
-                    }
-                case "date":
-                    return new TextNode(defVal);
-                default:
-                    return new TextNode(defVal);
-            }
-        } catch (Exception e) {
-            logger.warn("解析默认值失败: {} type={}，原样返回字符串", defVal, type);
-            return new TextNode(defVal);
-        }
-    }
-
     public static int getOnlineCount() {
         return sessionTemplateMap.size();
     }
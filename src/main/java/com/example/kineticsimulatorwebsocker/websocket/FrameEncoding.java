@@ -0,0 +1,32 @@
+package com.example.kineticsimulatorwebsocker.websocket;
+
+/**
+ * 推送数据帧的编码方式
+ * 客户端可在连接URL中用?encoding=指定，动态模板也可以在模板消息中用"encoding"字段指定
+ */
+public enum FrameEncoding {
+    /**
+     * JSON文本帧（默认）
+     */
+    JSON,
+    /**
+     * CBOR二进制帧，结构与JSON相同，用于动态模板推送
+     */
+    CBOR,
+    /**
+     * 定长结构体二进制帧，用于雷达数据推送，布局见KineticDataStructWriter
+     */
+    STRUCT;
+
+    /**
+     * 不区分大小写解析，无法识别时返回fallback
+     */
+    public static FrameEncoding parse(String value, FrameEncoding fallback) {
+        if (value == null || value.trim().isEmpty()) return fallback;
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+}
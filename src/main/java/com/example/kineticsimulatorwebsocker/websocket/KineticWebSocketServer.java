@@ -1,9 +1,13 @@
 package com.example.kineticsimulatorwebsocker.websocket;
 
+import com.example.kineticsimulatorwebsocker.diagnostics.PushEvents;
+import com.example.kineticsimulatorwebsocker.metrics.PushMetrics;
 import com.example.kineticsimulatorwebsocker.model.KineticData;
-import com.example.kineticsimulatorwebsocker.model.MessageResponse;
+import com.example.kineticsimulatorwebsocker.model.KineticDataJsonWriter;
+import com.example.kineticsimulatorwebsocker.model.KineticDataStructWriter;
 import com.example.kineticsimulatorwebsocker.service.KineticDataService;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.example.kineticsimulatorwebsocker.simulation.Region;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,7 +17,13 @@ import org.springframework.stereotype.Component;
 import javax.websocket.*;
 import javax.websocket.server.ServerEndpoint;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -21,11 +31,12 @@ import java.util.concurrent.atomic.AtomicInteger;
  * WebSocket服务类
  * 实现连接管理和消息推送功能
  */
-@ServerEndpoint("/websocket/kinetic")
+@ServerEndpoint(value = "/websocket/kinetic", configurator = DeflateConfigurator.Kinetic.class)
 @Component
 public class KineticWebSocketServer {
 
     private static final Logger logger = LoggerFactory.getLogger(KineticWebSocketServer.class);
+    private static final ObjectMapper mapper = new ObjectMapper();
 
     /**
      * 用来记录当前在线连接数
@@ -42,6 +53,16 @@ public class KineticWebSocketServer {
      */
     private Session session;
 
+    /**
+     * 推送编码，连接时通过?encoding=struct协商为定长二进制结构体，默认JSON文本
+     */
+    private FrameEncoding encoding = FrameEncoding.JSON;
+
+    /**
+     * 订阅区域，连接时通过?minX=&maxX=&minY=&maxY=指定，或发送{"region":{...}}修改；为null时推送全部目标
+     */
+    private volatile Region region;
+
     /**
      * 注入动力学数据服务
      * 注意：由于WebSocket是单例，需要通过ApplicationContext来获取Bean
@@ -59,6 +80,10 @@ public class KineticWebSocketServer {
     @OnOpen
     public void onOpen(Session session) {
         this.session = session;
+        SessionSender.open(session, PushMetrics.KINETIC);
+        this.encoding = negotiateEncoding(session);
+        SessionSender.of(session).setCompressionKey(encoding.name());
+        this.region = parseRegion(session);
         webSocketSet.add(this);
         addOnlineCount();
         logger.info("有新连接加入！当前在线人数为{}", getOnlineCount());
@@ -73,6 +98,7 @@ public class KineticWebSocketServer {
     @OnClose
     public void onClose() {
         webSocketSet.remove(this);
+        SessionSender.remove(this.session);
         subOnlineCount();
         logger.info("有一连接关闭！当前在线人数为{}", getOnlineCount());
     }
@@ -83,6 +109,7 @@ public class KineticWebSocketServer {
     @OnMessage
     public void onMessage(String message, Session session) {
         logger.info("来自客户端的消息: {}", message);
+        if (updateRegion(message)) return;
         
         // 这里可以根据客户端消息进行相应的处理
         // 目前简单回复一个确认消息
@@ -105,7 +132,8 @@ public class KineticWebSocketServer {
      * 发送消息给客户端
      */
     public void sendMessage(String message) throws IOException {
-        this.session.getBasicRemote().sendText(message);
+        // 异步发送，慢客户端不阻塞定时推送线程
+        SessionSender.of(this.session).send(message);
     }
 
     /**
@@ -116,29 +144,94 @@ public class KineticWebSocketServer {
             // 使用服务层生成随机数据
             List<KineticData> dataList = null;
             if (kineticDataService != null) {
-                dataList = kineticDataService.generateKineticData();
+                dataList = kineticDataService.generateKineticData(region);
             } else {
                 // 如果服务未注入，使用默认数据
                 dataList = getDefaultData();
             }
             
-            MessageResponse response = new MessageResponse(dataList);
-            ObjectMapper mapper = new ObjectMapper();
-            String jsonMessage = mapper.writeValueAsString(response);
+            if (encoding == FrameEncoding.STRUCT) {
+                SessionSender.of(this.session).sendBinary(KineticDataStructWriter.encode(dataList));
+                return;
+            }
+            // 专用序列化，输出与MessageResponse经ObjectMapper序列化的结果一致
+            String jsonMessage = KineticDataJsonWriter.toJson(dataList);
             
             sendMessage(jsonMessage);
-            logger.info("推送动力学数据: {}", jsonMessage);
-        } catch (JsonProcessingException e) {
-            logger.error("JSON序列化失败", e);
         } catch (IOException e) {
             logger.error("发送动力学数据失败", e);
+        } catch (IllegalArgumentException e) {
+            logger.error("编码动力学数据失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 处理订阅区域消息：{"region":{"minX":..,"maxX":..,"minY":..,"maxY":..}}设置区域，{"region":null}取消；
+     * 不是区域消息时返回false
+     */
+    private boolean updateRegion(String message) {
+        JsonNode node;
+        try {
+            node = mapper.readTree(message);
+        } catch (Exception e) {
+            return false;
+        }
+        if (node == null || !node.has("region")) return false;
+        JsonNode regionNode = node.get("region");
+        try {
+            if (regionNode.isNull()) {
+                region = null;
+                sendMessage("已取消订阅区域，推送全部目标");
+            } else if (regionNode.has("minX") && regionNode.has("maxX") && regionNode.has("minY") && regionNode.has("maxY")) {
+                region = new Region(regionNode.get("minX").asDouble(), regionNode.get("maxX").asDouble(),
+                        regionNode.get("minY").asDouble(), regionNode.get("maxY").asDouble());
+                sendMessage("订阅区域已设置为 " + region);
+            } else {
+                sendMessage("订阅区域需要minX、maxX、minY、maxY四个字段");
+            }
+        } catch (IOException e) {
+            logger.error("发送消息失败", e);
+        }
+        return true;
+    }
+
+    /**
+     * 连接URL中的?minX=&maxX=&minY=&maxY=参数，缺少任一参数或无法解析时返回null
+     */
+    private static Region parseRegion(Session session) {
+        Map<String, List<String>> params = session.getRequestParameterMap();
+        String[] names = {"minX", "maxX", "minY", "maxY"};
+        double[] values = new double[names.length];
+        for (int i = 0; i < names.length; i++) {
+            List<String> value = params.get(names[i]);
+            if (value == null || value.isEmpty()) return null;
+            try {
+                values[i] = Double.parseDouble(value.get(0).trim());
+            } catch (NumberFormatException e) {
+                logger.warn("连接{}的区域参数{}无效: {}", session.getId(), names[i], value.get(0));
+                return null;
+            }
         }
+        return new Region(values[0], values[1], values[2], values[3]);
+    }
+
+    /**
+     * 雷达数据只支持JSON和定长结构体两种编码
+     */
+    private static FrameEncoding negotiateEncoding(Session session) {
+        List<String> values = session.getRequestParameterMap().get("encoding");
+        FrameEncoding requested = FrameEncoding.parse(values != null && !values.isEmpty() ? values.get(0) : null, FrameEncoding.JSON);
+        if (requested == FrameEncoding.CBOR) {
+            logger.warn("连接{}请求的编码{}不适用于雷达数据，使用JSON", session.getId(), requested);
+            return FrameEncoding.JSON;
+        }
+        return requested;
     }
 
     /**
      * 获取默认数据（备用方案）
      */
-    private List<KineticData> getDefaultData() {
+    private static List<KineticData> getDefaultData() {
         List<KineticData> dataList = new java.util.ArrayList<>();
         dataList.add(new KineticData("2522", "1", "-1.09", "12.83", "0.00", "-4.85", "12.88", "0.00", "0.26"));
         dataList.add(new KineticData("2523", "1", "-1.28", "48.76", "0.00", "-1.50", "48.78", "0.00", "-1.17"));
@@ -161,17 +254,97 @@ public class KineticWebSocketServer {
 
     /**
      * 群发动力学数据
+     * 每次只在同一仿真步上生成一次快照（每个不同的订阅区域一份），每份快照按编码各序列化一次，
+     * 所有会话共享同一个String/ByteBuffer，每个会话只需把它放入自己的异步发送队列
      */
     public static void sendKineticDataToAll() {
-        for (KineticWebSocketServer item : webSocketSet) {
+        sendKineticDataToAll(0, 0);
+    }
+
+    /**
+     * 定时推送：intendedNanos和firedNanos为tick的计划和实际执行时间，计入各会话的tick时间统计
+     */
+    public static void sendKineticDataToAll(long intendedNanos, long firedNanos) {
+        List<KineticWebSocketServer> items = new ArrayList<>(webSocketSet);
+        if (items.isEmpty()) return;
+        // 先固定每个会话本次的订阅区域，避免生成快照后区域被修改
+        Region[] regions = new Region[items.size()];
+        Set<Region> distinctRegions = new HashSet<>();
+        for (int i = 0; i < regions.length; i++) {
+            regions[i] = items.get(i).region;
+            distinctRegions.add(regions[i]);
+        }
+        boolean sampled = PushEvents.sample();
+        boolean timed = sampled || PushMetrics.isEnabled();
+        long start = timed ? System.nanoTime() : 0;
+        Map<Region, List<KineticData>> snapshots;
+        if (kineticDataService != null) {
+            snapshots = kineticDataService.generateKineticData(distinctRegions);
+        } else {
+            snapshots = new HashMap<>();
+            for (Region region : distinctRegions) snapshots.put(region, getDefaultData());
+        }
+        if (timed) PushMetrics.recordStage(PushMetrics.KINETIC, PushMetrics.Stage.GENERATE, System.nanoTime() - start);
+        PushMetrics.recordTick(PushMetrics.KINETIC);
+        Map<Region, EncodedFrame> frames = new HashMap<>();
+        for (Map.Entry<Region, List<KineticData>> snapshot : snapshots.entrySet()) {
+            frames.put(snapshot.getKey(), new EncodedFrame(snapshot.getValue()));
+        }
+        if (sampled) {
+            PushEvents.record(PushEvents.Kind.GENERATE, "/websocket/kinetic", null,
+                    "regions=" + snapshots.size() + " sessions=" + items.size(), 0, System.nanoTime() - start);
+        }
+        for (int i = 0; i < regions.length; i++) {
+            KineticWebSocketServer item = items.get(i);
             try {
-                item.sendKineticData();
+                if (!item.session.isOpen()) continue;
+                EncodedFrame frame = frames.get(regions[i]);
+                SessionSender sender = SessionSender.of(item.session);
+                if (intendedNanos != 0) sender.recordTick(intendedNanos, firedNanos);
+                if (item.encoding == FrameEncoding.STRUCT) {
+                    sender.sendBinary(frame.struct(), intendedNanos);
+                } else {
+                    sender.send(frame.json(), intendedNanos);
+                }
             } catch (Exception e) {
                 logger.error("群发动力学数据失败", e);
             }
         }
     }
 
+    /**
+     * 一份快照的编码结果，按需序列化且每种编码只序列化一次；ByteBuffer由SessionSender按会话复制视图后发送
+     */
+    private static final class EncodedFrame {
+        private final List<KineticData> dataList;
+        private String json;
+        private ByteBuffer struct;
+
+        EncodedFrame(List<KineticData> dataList) {
+            this.dataList = dataList;
+        }
+
+        String json() {
+            if (json == null) {
+                boolean timed = PushMetrics.isEnabled();
+                long start = timed ? System.nanoTime() : 0;
+                json = KineticDataJsonWriter.toJson(dataList);
+                if (timed) PushMetrics.recordStage(PushMetrics.KINETIC, PushMetrics.Stage.SERIALIZE, System.nanoTime() - start);
+            }
+            return json;
+        }
+
+        ByteBuffer struct() {
+            if (struct == null) {
+                boolean timed = PushMetrics.isEnabled();
+                long start = timed ? System.nanoTime() : 0;
+                struct = KineticDataStructWriter.encode(dataList);
+                if (timed) PushMetrics.recordStage(PushMetrics.KINETIC, PushMetrics.Stage.SERIALIZE, System.nanoTime() - start);
+            }
+            return struct;
+        }
+    }
+
     public static synchronized int getOnlineCount() {
         return onlineCount.get();
     }
@@ -0,0 +1,23 @@
+package com.example.kineticsimulatorwebsocker.websocket;
+
+/**
+ * 会话发送队列已满时的处理策略
+ */
+public enum SendOverflowPolicy {
+    /**
+     * 丢弃队列中最旧的一条，新消息入队
+     */
+    DROP_OLDEST,
+    /**
+     * 丢弃新消息，队列保持不变
+     */
+    DROP_NEWEST,
+    /**
+     * 清空队列只保留最新一条，适合只关心最新状态的客户端
+     */
+    COALESCE,
+    /**
+     * 断开该客户端连接
+     */
+    DISCONNECT
+}
@@ -0,0 +1,434 @@
+package com.example.kineticsimulatorwebsocker.websocket;
+
+import com.example.kineticsimulatorwebsocker.diagnostics.PushEvents;
+import com.example.kineticsimulatorwebsocker.generator.TextFragments;
+import com.example.kineticsimulatorwebsocker.metrics.PushMetrics;
+import com.example.kineticsimulatorwebsocker.metrics.TickTimings;
+import com.example.kineticsimulatorwebsocker.scheduler.TickScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.websocket.CloseReason;
+import javax.websocket.Extension;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 会话异步发送器
+ * 每个会话一个有界发送队列（文本和二进制消息共用），通过getAsyncRemote()逐条发送，同一时刻只有一条消息在途。
+ * 慢客户端只会让自己的队列积压并按溢出策略处理，不会阻塞推送线程。
+ * 配置了发送执行器时改为在执行器上运行每个会话的阻塞发送循环（getBasicRemote()），
+ * 生成线程只负责入队，与网络I/O完全分离；配合虚拟线程执行器时每个会话的发送循环占用一个虚拟线程。
+ * 超大文本帧（TextFragments）逐段作为分片消息发送；异步模式下分片发送只能用getBasicRemote()，交给分片发送线程执行
+ */
+public class SessionSender implements SendHandler {
+    private static final Logger logger = LoggerFactory.getLogger(SessionSender.class);
+    private static final Map<Session, SessionSender> senders = new ConcurrentHashMap<>();
+    // Tomcat阻塞发送超时的会话属性名
+    private static final String BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+    // 会话所属端点标签的会话属性名，由open()写入
+    private static final String ENDPOINT_TAG = SessionSender.class.getName() + ".endpoint";
+
+    private static volatile int queueCapacity = 16;
+    private static volatile SendOverflowPolicy overflowPolicy = SendOverflowPolicy.DROP_OLDEST;
+    private static volatile long sendTimeoutMillis = 10000;
+    // 为null时使用异步发送，否则在该执行器上运行阻塞发送循环
+    private static volatile Executor sendExecutor;
+    // 异步模式下执行分片发送的线程，首次发送分片消息时创建
+    private static ExecutorService fragmentExecutor;
+
+    private final Session session;
+    // 会话所在端点的标签（PushMetrics.DYNAMIC、KINETIC），由端点在连接时指定，与servlet上下文路径无关
+    private final String endpoint;
+    // 所在端点的压缩统计，端点未登记时为null
+    private final CompressionStats compressionStats;
+    private final boolean deflateNegotiated;
+    // 待发送消息
+    private final ArrayDeque<Outgoing> queue = new ArrayDeque<>();
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private boolean inFlight = false;
+    // 异步发送中的消息大小和所属tick的计划时间，发送完成时计入指标
+    private volatile int inFlightSize;
+    private volatile long inFlightTickNanos;
+    private final TickTimings timings = new TickTimings();
+    // 消息未送达（溢出丢弃或发送失败）时的回调
+    private volatile Runnable dropListener;
+    // 压缩统计中按推送内容区分帧大小的键（模板ID、编码），为null时只计入端点统计
+    private volatile String compressionKey;
+
+    /**
+     * 待发送的一条消息：payload文本为String或TextFragments，二进制为ByteBuffer；
+     * tickNanos为产生该消息的tick的计划执行时间，非定时推送的消息为0
+     */
+    private static final class Outgoing {
+        final Object payload;
+        final long tickNanos;
+
+        Outgoing(Object payload, long tickNanos) {
+            this.payload = payload;
+            this.tickNanos = tickNanos;
+        }
+    }
+
+    private SessionSender(Session session, String endpoint) {
+        this.session = session;
+        session.getAsyncRemote().setSendTimeout(sendTimeoutMillis);
+        session.getUserProperties().put(BLOCKING_SEND_TIMEOUT, sendTimeoutMillis);
+        this.endpoint = endpoint;
+        this.compressionStats = endpoint != null ? CompressionStats.findByPath(endpoint) : null;
+        this.deflateNegotiated = isDeflateNegotiated(session);
+    }
+
+    private static boolean isDeflateNegotiated(Session session) {
+        List<Extension> extensions = session.getNegotiatedExtensions();
+        if (extensions == null) return false;
+        for (Extension extension : extensions) {
+            if (DeflateConfigurator.PERMESSAGE_DEFLATE.equals(extension.getName())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 应用发送队列配置，对之后创建的发送器生效
+     */
+    public static void configure(int capacity, SendOverflowPolicy policy, long timeoutMillis) {
+        configure(capacity, policy, timeoutMillis, null);
+    }
+
+    /**
+     * 应用发送队列配置，executor不为null时各会话的发送循环在该执行器上阻塞发送
+     */
+    public static void configure(int capacity, SendOverflowPolicy policy, long timeoutMillis, Executor executor) {
+        queueCapacity = Math.max(1, capacity);
+        overflowPolicy = policy != null ? policy : SendOverflowPolicy.DROP_OLDEST;
+        sendTimeoutMillis = timeoutMillis;
+        sendExecutor = executor;
+    }
+
+    /**
+     * 端点在onOpen中为会话创建发送器，endpoint为指标、队列深度和压缩统计使用的端点标签
+     */
+    public static SessionSender open(Session session, String endpoint) {
+        session.getUserProperties().put(ENDPOINT_TAG, endpoint);
+        return of(session);
+    }
+
+    public static SessionSender of(Session session) {
+        SessionSender sender = senders.get(session);
+        if (sender != null) return sender;
+        sender = new SessionSender(session, (String) session.getUserProperties().get(ENDPOINT_TAG));
+        // 已关闭的会话不再登记，避免关闭后才到达的推送重新占用条目
+        if (!session.isOpen()) return sender;
+        SessionSender existing = senders.putIfAbsent(session, sender);
+        return existing != null ? existing : sender;
+    }
+
+    public static void remove(Session session) {
+        PushEvents.removeSession(session.getId());
+        SessionSender sender = senders.remove(session);
+        if (sender != null) {
+            synchronized (sender) {
+                sender.queue.clear();
+            }
+        }
+    }
+
+    public static Collection<SessionSender> all() {
+        return senders.values();
+    }
+
+    /**
+     * 提交一条文本消息，立即返回；队列已满时按溢出策略处理
+     */
+    public void send(String text) {
+        send(text, 0);
+    }
+
+    /**
+     * 提交定时推送产生的文本消息，tickNanos为该tick的计划执行时间，发送完成时计入tick时间统计
+     */
+    public void send(String text, long tickNanos) {
+        PushEvents.logPayload(endpoint, session.getId(), text);
+        if (PushEvents.sample()) {
+            PushEvents.record(PushEvents.Kind.SEND, endpoint, session.getId(), "text", text.length(), 0);
+        }
+        enqueue(new Outgoing(text, tickNanos));
+    }
+
+    /**
+     * 提交按段保存的超大文本帧，各段依次作为分片消息发送；同一个TextFragments可以提交给多个会话
+     */
+    public void send(TextFragments fragments, long tickNanos) {
+        PushEvents.logPayload(endpoint, session.getId(), fragments);
+        if (PushEvents.sample()) {
+            PushEvents.record(PushEvents.Kind.SEND, endpoint, session.getId(), "fragments", fragments.length(), 0);
+        }
+        enqueue(new Outgoing(fragments, tickNanos));
+    }
+
+    /**
+     * 提交一条二进制消息，立即返回；同一个ByteBuffer可以提交给多个会话
+     */
+    public void sendBinary(ByteBuffer data) {
+        sendBinary(data, 0);
+    }
+
+    public void sendBinary(ByteBuffer data, long tickNanos) {
+        PushEvents.logPayload(endpoint, session.getId(), data);
+        if (PushEvents.sample()) {
+            PushEvents.record(PushEvents.Kind.SEND, endpoint, session.getId(), "binary", data.remaining(), 0);
+        }
+        // 各会话发送时会移动position，使用独立视图
+        enqueue(new Outgoing(data.duplicate(), tickNanos));
+    }
+
+    /**
+     * 记录一次定时推送tick的计划和实际执行时间
+     */
+    public void recordTick(long intendedNanos, long firedNanos) {
+        timings.recordTick(session.getId(), intendedNanos, firedNanos);
+    }
+
+    /**
+     * 设置消息未送达（按溢出策略丢弃、发送失败）时的回调，在发送器的锁之外调用；
+     * 增量推送的会话据此让下一帧成为关键帧，避免客户端在下一个关键帧之前一直与服务端状态不一致
+     */
+    public void setDropListener(Runnable dropListener) {
+        this.dropListener = dropListener;
+    }
+
+    /**
+     * 设置该会话推送内容的压缩统计键，之后以同一键握手的连接按该键的平均帧大小决定是否启用压缩
+     */
+    public void setCompressionKey(String compressionKey) {
+        this.compressionKey = compressionKey;
+    }
+
+    private void notifyDropped() {
+        Runnable listener = dropListener;
+        if (listener != null) listener.run();
+    }
+
+    private void enqueue(Outgoing message) {
+        if (!session.isOpen()) return;
+        Executor executor = sendExecutor;
+        boolean overflowed = false;
+        boolean disconnect = false;
+        synchronized (this) {
+            if (!inFlight) {
+                inFlight = true;
+                if (executor != null) queue.addLast(message);
+            } else if (queue.size() < queueCapacity) {
+                queue.addLast(message);
+                return;
+            } else {
+                overflowed = true;
+                droppedCount.incrementAndGet();
+                PushMetrics.recordDropped(endpoint, 1);
+                if (PushEvents.sample()) {
+                    PushEvents.record(PushEvents.Kind.DROP, endpoint, session.getId(), overflowPolicy.name(), queue.size(), 0);
+                }
+                switch (overflowPolicy) {
+                    case DROP_NEWEST:
+                        break;
+                    case COALESCE:
+                        droppedCount.addAndGet(queue.size() - 1);
+                        PushMetrics.recordDropped(endpoint, queue.size() - 1);
+                        queue.clear();
+                        queue.addLast(message);
+                        break;
+                    case DISCONNECT:
+                        queue.clear();
+                        disconnect = true;
+                        break;
+                    case DROP_OLDEST:
+                    default:
+                        queue.pollFirst();
+                        queue.addLast(message);
+                        break;
+                }
+            }
+        }
+        if (overflowed) {
+            notifyDropped();
+            if (disconnect) closeSlowClient();
+            return;
+        }
+        if (executor == null) {
+            sendAsync(message);
+            return;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                queue.clear();
+                inFlight = false;
+            }
+            notifyDropped();
+        }
+    }
+
+    // 阻塞发送循环：依次发送队列中的消息直到队列为空，期间新消息只入队
+    private void drain() {
+        while (true) {
+            Outgoing next;
+            synchronized (this) {
+                next = session.isOpen() ? queue.pollFirst() : null;
+                if (next == null) {
+                    queue.clear();
+                    inFlight = false;
+                    return;
+                }
+            }
+            try {
+                Object payload = next.payload;
+                if (compressionStats != null) compressionStats.recordFrame(payload, deflateNegotiated, compressionKey);
+                int size = sizeOf(payload);
+                if (payload instanceof ByteBuffer) {
+                    session.getBasicRemote().sendBinary((ByteBuffer) payload);
+                } else if (payload instanceof TextFragments) {
+                    sendFragments((TextFragments) payload);
+                } else {
+                    session.getBasicRemote().sendText((String) payload);
+                }
+                sentCount.incrementAndGet();
+                PushMetrics.recordSent(endpoint, size);
+                if (next.tickNanos != 0) timings.recordCompletion(next.tickNanos, System.nanoTime());
+            } catch (Exception e) {
+                PushMetrics.recordSendFailure(endpoint);
+                logger.warn("连接{}发送消息失败: {}", session.getId(), e.getMessage());
+                notifyDropped();
+            }
+        }
+    }
+
+    // 上一条消息发送完成（成功、失败或超时）后继续发送队列中的下一条
+    @Override
+    public void onResult(SendResult result) {
+        if (result.isOK()) {
+            sentCount.incrementAndGet();
+            PushMetrics.recordSent(endpoint, inFlightSize);
+            long tickNanos = inFlightTickNanos;
+            if (tickNanos != 0) timings.recordCompletion(tickNanos, System.nanoTime());
+        } else {
+            PushMetrics.recordSendFailure(endpoint);
+            logger.warn("连接{}发送消息失败: {}", session.getId(), result.getException() != null ? result.getException().getMessage() : null);
+            notifyDropped();
+        }
+        Outgoing next;
+        synchronized (this) {
+            next = session.isOpen() ? queue.pollFirst() : null;
+            if (next == null) {
+                queue.clear();
+                inFlight = false;
+                return;
+            }
+        }
+        sendAsync(next);
+    }
+
+    private void sendAsync(Outgoing message) {
+        Object payload = message.payload;
+        if (compressionStats != null) compressionStats.recordFrame(payload, deflateNegotiated, compressionKey);
+        inFlightSize = sizeOf(payload);
+        inFlightTickNanos = message.tickNanos;
+        try {
+            if (payload instanceof ByteBuffer) {
+                session.getAsyncRemote().sendBinary((ByteBuffer) payload, this);
+            } else if (payload instanceof TextFragments) {
+                TextFragments fragments = (TextFragments) payload;
+                fragmentExecutor().execute(() -> {
+                    try {
+                        sendFragments(fragments);
+                    } catch (Exception e) {
+                        onResult(new SendResult(e));
+                        return;
+                    }
+                    onResult(new SendResult());
+                });
+            } else {
+                session.getAsyncRemote().sendText((String) payload, this);
+            }
+        } catch (RuntimeException e) {
+            // 容器同步抛出异常（如连接正在关闭、上一次写入未完成）时不会回调onResult，
+            // 必须在这里复位inFlight，否则之后的消息只会入队直到溢出；队列中的消息一并丢弃
+            PushMetrics.recordSendFailure(endpoint);
+            logger.warn("连接{}发送消息失败: {}", session.getId(), e.getMessage());
+            synchronized (this) {
+                queue.clear();
+                inFlight = false;
+            }
+            notifyDropped();
+        }
+    }
+
+    // 逐段阻塞发送，最后一段标记为消息结束；分片之间不会插入其他消息，因为同一时刻只有一条消息在途
+    private void sendFragments(TextFragments fragments) throws IOException {
+        int last = fragments.count() - 1;
+        for (int i = 0; i <= last; i++) {
+            session.getBasicRemote().sendText(fragments.fragment(i), i == last);
+        }
+    }
+
+    private static synchronized ExecutorService fragmentExecutor() {
+        if (fragmentExecutor == null) {
+            fragmentExecutor = Executors.newCachedThreadPool(TickScheduler.namedThreadFactory("fragment-send-"));
+        }
+        return fragmentExecutor;
+    }
+
+    // 二进制按字节数，文本按字符数（JSON基本为ASCII，与字节数一致）
+    private static int sizeOf(Object message) {
+        if (message instanceof ByteBuffer) return ((ByteBuffer) message).remaining();
+        if (message instanceof TextFragments) return ((TextFragments) message).length();
+        return ((String) message).length();
+    }
+
+    private void closeSlowClient() {
+        logger.warn("连接{}发送队列已满，按策略断开连接", session.getId());
+        try {
+            session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "发送队列溢出"));
+        } catch (IOException e) {
+            logger.warn("关闭连接{}失败: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public String getSessionId() {
+        return session.getId();
+    }
+
+    public synchronized int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public TickTimings getTimings() {
+        return timings;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import com.example.kineticsimulatorwebsocker.random.RandomSource;
+import com.example.kineticsimulatorwebsocker.websocket.DynamicWebSocketServer;
+import com.example.kineticsimulatorwebsocker.websocket.DynamicWebSocketServer.TemplateConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 大数组：元素个数由arrayLengths设置，分块并行生成的结果与分块大小、线程数无关
+ */
+class ArrayGeneratorNodeTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @AfterEach
+    void tearDown() {
+        GeneratorEngine.configureLargeArrays(10000, 4096, 512, 0);
+    }
+
+    private TemplateConfig build(String limits) throws Exception {
+        return DynamicWebSocketServer.buildTemplateConfig(mapper.readTree("{\"template\":{\"list\":[{\"id\":0,\"name\":\"\",\"v\":0.5}]},"
+                + "\"fieldTypes\":{\"list[0].id\":\"int\",\"list[0].name\":\"name\",\"list[0].v\":\"double\"}," + limits + "}"));
+    }
+
+    @Test
+    void arrayLengthsSetElementCount() throws Exception {
+        TemplateConfig config = build("\"arrayLengths\":{\"list\":{\"min\":\"5000\",\"max\":\"5000\"}}");
+        assertEquals(5000, config.plan.generate(RandomSource.seeded(1)).get("list").size());
+
+        // 数组路径上的fieldLimits不影响元素个数，仍为默认的1~3个
+        TemplateConfig limited = build("\"fieldLimits\":{\"list\":{\"min\":\"5000\",\"max\":\"5000\"}}");
+        int size = limited.plan.generate(RandomSource.seeded(1)).get("list").size();
+        assertTrue(size >= 1 && size <= 3, String.valueOf(size));
+        assertNotEquals(config.templateHash, limited.templateHash);
+    }
+
+    @Test
+    void chunkedOutputIsIndependentOfChunkAndPoolSize() throws Exception {
+        int[][] settings = {{64, 1}, {500, 4}, {7, 2}, {4096, 3}};
+        String expectedJson = null;
+        JsonNode expectedTree = null;
+        byte[] expectedCbor = null;
+        for (int[] setting : settings) {
+            GeneratorEngine.configureLargeArrays(10000, 1, setting[0], setting[1]);
+            TemplateConfig config = build("\"arrayLengths\":{\"list\":{\"min\":\"3000\",\"max\":\"6000\"}}");
+
+            PayloadBuffer payload = PayloadBuffer.forCurrentThread();
+            config.plan.writeTo(payload, RandomSource.seeded(42));
+            String json = payload.toString();
+            JsonNode tree = config.plan.generate(RandomSource.seeded(42));
+            ByteArrayOutputStream cbor = new ByteArrayOutputStream();
+            config.plan.writeCborTo(cbor, RandomSource.seeded(42));
+
+            String label = Arrays.toString(setting);
+            assertEquals(mapper.readTree(json), tree, label);
+            if (expectedJson == null) {
+                expectedJson = json;
+                expectedTree = tree;
+                expectedCbor = cbor.toByteArray();
+                continue;
+            }
+            assertEquals(expectedJson, json, label);
+            assertEquals(expectedTree, tree, label);
+            assertArrayEquals(expectedCbor, cbor.toByteArray(), label);
+        }
+    }
+}
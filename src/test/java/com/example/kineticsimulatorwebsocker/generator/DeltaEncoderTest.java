@@ -0,0 +1,96 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 增量帧：关键帧节奏、变化字段检测、嵌套与数组路径、字段名含路径分隔符时的整体替换
+ */
+class DeltaEncoderTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private JsonNode encode(DeltaEncoder encoder, String json) throws Exception {
+        StringWriter out = new StringWriter();
+        encoder.writeTo(out, mapper.readTree(json));
+        return mapper.readTree(out.toString());
+    }
+
+    @Test
+    void keyframesFollowInterval() throws Exception {
+        DeltaEncoder encoder = new DeltaEncoder(3);
+        for (int seq = 0; seq < 7; seq++) {
+            JsonNode frame = encode(encoder, "{\"a\":" + seq + "}");
+            assertEquals(seq, frame.get("seq").asInt());
+            assertEquals(seq % 3 == 0, frame.path("keyframe").asBoolean(), "seq " + seq);
+        }
+    }
+
+    @Test
+    void onlyFirstFrameIsKeyframeWithoutInterval() throws Exception {
+        DeltaEncoder encoder = new DeltaEncoder(0);
+        assertTrue(encode(encoder, "{\"a\":1}").path("keyframe").asBoolean());
+        for (int i = 0; i < 5; i++) {
+            assertFalse(encode(encoder, "{\"a\":" + i + "}").has("keyframe"));
+        }
+    }
+
+    @Test
+    void forcedKeyframeCarriesFullDocument() throws Exception {
+        DeltaEncoder encoder = new DeltaEncoder(0);
+        encode(encoder, "{\"a\":1,\"b\":2}");
+        encoder.forceKeyframe();
+        JsonNode frame = encode(encoder, "{\"a\":1,\"b\":3}");
+        assertTrue(frame.path("keyframe").asBoolean());
+        assertEquals(mapper.readTree("{\"a\":1,\"b\":3}"), frame.get("data"));
+        assertEquals(1, frame.get("seq").asInt());
+    }
+
+    @Test
+    void onlyChangedFieldsAreSent() throws Exception {
+        DeltaEncoder encoder = new DeltaEncoder(0);
+        encode(encoder, "{\"a\":1,\"b\":\"x\",\"c\":true}");
+        JsonNode changes = encode(encoder, "{\"a\":1,\"b\":\"y\",\"c\":true}").get("changes");
+        assertEquals(mapper.readTree("{\"b\":\"y\"}"), changes);
+        assertEquals(0, encode(encoder, "{\"a\":1,\"b\":\"y\",\"c\":true}").get("changes").size());
+    }
+
+    @Test
+    void nestedAndArrayPaths() throws Exception {
+        DeltaEncoder encoder = new DeltaEncoder(0);
+        encode(encoder, "{\"a\":{\"b\":[{\"c\":1},{\"c\":2}]},\"list\":[1,2]}");
+        JsonNode changes = encode(encoder, "{\"a\":{\"b\":[{\"c\":1},{\"c\":5}]},\"list\":[1,2,3]}").get("changes");
+        assertEquals(mapper.readTree("{\"a.b[1].c\":5,\"list\":[1,2,3]}"), changes);
+    }
+
+    @Test
+    void changedFieldSetReplacesObject() throws Exception {
+        DeltaEncoder encoder = new DeltaEncoder(0);
+        encode(encoder, "{\"o\":{\"x\":1,\"y\":2}}");
+        JsonNode changes = encode(encoder, "{\"o\":{\"x\":1,\"z\":2}}").get("changes");
+        assertEquals(mapper.readTree("{\"o\":{\"x\":1,\"z\":2}}"), changes);
+    }
+
+    @Test
+    void keysWithPathSeparatorsReplaceEnclosingObject() throws Exception {
+        DeltaEncoder encoder = new DeltaEncoder(0);
+        // "a.b"与嵌套的a.b、"c[0]"与数组c[0]拼出的路径相同，不能作为增量路径
+        encode(encoder, "{\"o\":{\"a.b\":1,\"a\":{\"b\":1}},\"p\":{\"c[0]\":1,\"d\":1}}");
+        JsonNode changes = encode(encoder, "{\"o\":{\"a.b\":2,\"a\":{\"b\":1}},\"p\":{\"c[0]\":1,\"d\":2}}").get("changes");
+        assertEquals(mapper.readTree("{\"o\":{\"a.b\":2,\"a\":{\"b\":1}},\"p\":{\"c[0]\":1,\"d\":2}}"), changes);
+    }
+
+    @Test
+    void rootKeyWithSeparatorReplacesWholeDocument() throws Exception {
+        DeltaEncoder encoder = new DeltaEncoder(0);
+        encode(encoder, "{\"x.y\":1,\"z\":1}");
+        JsonNode changes = encode(encoder, "{\"x.y\":1,\"z\":2}").get("changes");
+        assertEquals(mapper.readTree("{\"\":{\"x.y\":1,\"z\":2}}"), changes);
+    }
+}
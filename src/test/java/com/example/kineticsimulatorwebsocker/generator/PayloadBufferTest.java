@@ -0,0 +1,65 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 分段缓冲区：跨段写入的内容完整，超过分片阈值的帧按段交出且缓冲区可继续复用
+ */
+class PayloadBufferTest {
+
+    @AfterEach
+    void tearDown() {
+        PayloadBuffer.configure(1024 * 1024);
+    }
+
+    private static String text(int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; text.length() < length; i++) text.append(i).append(',');
+        text.setLength(length);
+        return text.toString();
+    }
+
+    @Test
+    void contentSpanningSegmentsIsKept() throws Exception {
+        String expected = text(PayloadBuffer.SEGMENT_SIZE * 3 + 17);
+        PayloadBuffer payload = PayloadBuffer.forCurrentThread();
+        payload.write(expected.substring(0, 5));
+        payload.write(expected.charAt(5));
+        payload.write(expected.toCharArray(), 6, expected.length() - 6);
+        assertEquals(expected.length(), payload.length());
+        assertEquals(expected, payload.toString());
+        StringWriter out = new StringWriter();
+        payload.writeTo(out);
+        assertEquals(expected, out.toString());
+    }
+
+    @Test
+    void largeFrameIsHandedOverAsFragments() throws Exception {
+        PayloadBuffer.configure(PayloadBuffer.SEGMENT_SIZE);
+        String expected = text(PayloadBuffer.SEGMENT_SIZE * 2 + 100);
+        PayloadBuffer payload = PayloadBuffer.forCurrentThread();
+        payload.write(expected);
+        Object frame = payload.toFrame();
+        assertTrue(frame instanceof TextFragments);
+        TextFragments fragments = (TextFragments) frame;
+        assertEquals(3, fragments.count());
+        assertEquals(expected.length(), fragments.length());
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < fragments.count(); i++) joined.append(fragments.fragment(i));
+        assertEquals(expected, joined.toString());
+
+        // 交出后缓冲区使用新的段，之后的写入不影响已交出的分片
+        payload = PayloadBuffer.forCurrentThread();
+        payload.write("{}");
+        assertEquals("{}", payload.toFrame());
+        StringWriter out = new StringWriter();
+        fragments.writeTo(out);
+        assertEquals(expected, out.toString());
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.kineticsimulatorwebsocker.generator;
+
+import com.example.kineticsimulatorwebsocker.random.RandomSource;
+import com.example.kineticsimulatorwebsocker.scheduler.TickScheduler;
+import com.example.kineticsimulatorwebsocker.websocket.DynamicWebSocketServer;
+import com.example.kineticsimulatorwebsocker.websocket.DynamicWebSocketServer.TemplateConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.Session;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 模板注册表：异步写入的模板在重新加载后仍可按ID使用，文件超过上限时压缩
+ */
+class TemplateRegistryTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() {
+        TemplateRegistry.configure(null, 256, 10000);
+    }
+
+    private TemplateConfig build(String template, double pushInterval) throws Exception {
+        return DynamicWebSocketServer.buildTemplateConfig(mapper.readTree("{\"template\":" + template
+                + ",\"fieldTypes\":{\"id\":\"int\",\"name\":\"name\"},\"pushInterval\":" + pushInterval + "}"));
+    }
+
+    @Test
+    void registeredTemplateSurvivesReload() throws Exception {
+        Path store = dir.resolve("templates.jsonl");
+        TemplateRegistry.configure(store.toString(), 4, 100);
+        String id = TemplateRegistry.register(build("{\"id\":0,\"name\":\"\"}", 0.5)).templateHash;
+        // 同一模板以其他频率重复注册不会再次写入
+        TemplateRegistry.register(build("{\"id\":0,\"name\":\"\"}", 2));
+
+        TemplateRegistry.configure(store.toString(), 4, 100);
+        assertEquals(1, Files.readAllLines(store).size());
+        TemplateConfig loaded = TemplateRegistry.get(id);
+        assertNotNull(loaded);
+        assertEquals(id, loaded.templateHash);
+        assertEquals(0.5, loaded.pushInterval);
+        JsonNode frame = loaded.plan.generate(RandomSource.seeded(1));
+        assertTrue(frame.has("id") && frame.has("name"));
+    }
+
+    @Test
+    void evictedTemplateIsReadBackFromStore() throws Exception {
+        Path store = dir.resolve("templates.jsonl");
+        TemplateRegistry.configure(store.toString(), 1, 100);
+        String first = TemplateRegistry.register(build("{\"id\":0}", 1)).templateHash;
+        TemplateRegistry.register(build("{\"name\":\"\"}", 1));
+        // 写入尚未完成或已落盘，都能按ID找到被缓存淘汰的模板
+        assertNotNull(TemplateRegistry.get(first));
+        TemplateRegistry.flush();
+        TemplateRegistry.register(build("{\"id\":0,\"name\":\"\"}", 1));
+        assertNotNull(TemplateRegistry.get(first));
+    }
+
+    @Test
+    void storeIsCompactedToMostRecentEntries() throws Exception {
+        Path store = dir.resolve("templates.jsonl");
+        TemplateRegistry.configure(store.toString(), 2, 4);
+        String[] ids = new String[5];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = TemplateRegistry.register(build("{\"id\":0,\"v" + i + "\":0}", 1)).templateHash;
+        }
+        TemplateRegistry.flush();
+        // 第5条写入后超过上限4，压缩为最近写入的3条
+        assertEquals(3, Files.readAllLines(store).size());
+
+        TemplateRegistry.configure(store.toString(), 2, 4);
+        assertNull(TemplateRegistry.get(ids[0]));
+        assertNull(TemplateRegistry.get(ids[1]));
+        for (int i = 2; i < ids.length; i++) {
+            assertNotNull(TemplateRegistry.get(ids[i]), ids[i]);
+        }
+    }
+
+    @Test
+    void duplicateAndTruncatedRecordsAreCompactedOnLoad() throws Exception {
+        Path store = dir.resolve("templates.jsonl");
+        TemplateRegistry.configure(store.toString(), 2, 100);
+        String id = TemplateRegistry.register(build("{\"id\":0}", 1)).templateHash;
+        TemplateRegistry.flush();
+        String line = Files.readAllLines(store).get(0);
+        Files.write(store, (line + "\n" + line + "\n{\"id\":\"broken\n{\"id\":").getBytes("UTF-8"));
+
+        TemplateRegistry.configure(store.toString(), 2, 100);
+        assertEquals(Collections.singletonList(line), Files.readAllLines(store));
+        assertNotNull(TemplateRegistry.get(id));
+    }
+
+    @Test
+    void connectionResolvesTemplateIdAfterReload() throws Exception {
+        Path store = dir.resolve("templates.jsonl");
+        TemplateRegistry.configure(store.toString(), 4, 100);
+        String id = TemplateRegistry.register(build("{\"id\":0,\"name\":\"\"}", 60)).templateHash;
+        TemplateRegistry.configure(store.toString(), 4, 100);
+
+        Session session = mock(Session.class);
+        RemoteEndpoint.Async remote = mock(RemoteEndpoint.Async.class);
+        List<String> sent = new CopyOnWriteArrayList<>();
+        Map<String, List<String>> parameters = new HashMap<>();
+        parameters.put("template", Collections.singletonList(id));
+        when(session.getId()).thenReturn("template-test");
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAsyncRemote()).thenReturn(remote);
+        when(session.getUserProperties()).thenReturn(new HashMap<>());
+        when(session.getNegotiatedExtensions()).thenReturn(Collections.emptyList());
+        when(session.getRequestParameterMap()).thenReturn(parameters);
+        doAnswer(invocation -> {
+            sent.add(invocation.getArgument(0));
+            return null;
+        }).when(remote).sendText(anyString(), any(SendHandler.class));
+
+        TickScheduler tickScheduler = new TickScheduler(10, 64, 1);
+        DynamicWebSocketServer server = new DynamicWebSocketServer();
+        server.setTickScheduler(tickScheduler);
+        try {
+            server.onOpen(session);
+            // 已注册的模板连接后立即推送第一帧，不等待上传模板
+            assertEquals(1, sent.size());
+            JsonNode frame = mapper.readTree(sent.get(0));
+            assertTrue(frame.has("id") && frame.has("name"));
+            assertFalse(sent.get(0).startsWith("模板不存在"));
+        } finally {
+            server.onClose(session);
+            tickScheduler.shutdown();
+        }
+    }
+}
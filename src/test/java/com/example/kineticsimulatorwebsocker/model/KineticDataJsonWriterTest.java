@@ -0,0 +1,111 @@
+package com.example.kineticsimulatorwebsocker.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 专用序列化与原实现逐字节一致：原实现用String.format("%.2f")格式化坐标，再由ObjectMapper序列化全字符串字段的MessageResponse
+ */
+class KineticDataJsonWriterTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private static final double[] EDGE_VALUES = {
+            0.0, -0.0, 0.005, -0.005, 0.004, -0.004, 0.015, 0.125, 0.115, 1.005, 1.115, 2.675, -2.675, 9.995, -9.995,
+            10.005, 99.995, 999999.995, 0.0049999999999, 0.004999999999, 0.00499999999, -0.0049999999999,
+            1.0049999999, 2.6749999999, 0.0050000001, 1e-10, -1e-10, Double.MIN_VALUE, -Double.MIN_VALUE,
+            12345678.125, 123456789.125, 1e7 + 0.005, 1e9 + 0.005, 4503599627370495.5, 4.5e15, 1e15, 1e16, 1e17 + 5,
+            9.2e16, 1e20, -1e20, 1.2345e300, Double.MAX_VALUE, -Double.MAX_VALUE,
+            Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY
+    };
+
+    // 原实现的输出
+    private String oldJson(List<KineticData> dataList) throws Exception {
+        List<Map<String, String>> data = new ArrayList<>();
+        for (KineticData item : dataList) {
+            Map<String, String> fields = new LinkedHashMap<>();
+            fields.put("id", String.valueOf(item.getId()));
+            fields.put("type", String.valueOf(item.getType()));
+            fields.put("x", format(item.getX()));
+            fields.put("y", format(item.getY()));
+            fields.put("z", format(item.getZ()));
+            fields.put("a", format(item.getA()));
+            fields.put("d", format(item.getD()));
+            fields.put("vx", format(item.getVx()));
+            fields.put("vy", format(item.getVy()));
+            data.add(fields);
+        }
+        return mapper.writeValueAsString(Collections.singletonMap("data", data));
+    }
+
+    // 原实现在默认区域设置下格式化，服务器区域设置的小数点为'.'
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static KineticData of(double value) {
+        return new KineticData(2522, 1, value, -value, value / 10, value * 3, Math.abs(value), value / 7, -value / 3);
+    }
+
+    @Test
+    void edgeValuesMatchFormat() {
+        for (double value : EDGE_VALUES) {
+            assertEquals(format(value), KineticDataJsonWriter.formatFixed2(value), String.valueOf(value));
+            assertEquals(format(-value), KineticDataJsonWriter.formatFixed2(-value), String.valueOf(-value));
+        }
+    }
+
+    @Test
+    void hundredthsAndHalfwayValuesMatchFormat() {
+        // 所有x.xx5形式的值（小数点后三位为5）以及两位小数本身
+        for (int i = -200000; i <= 200000; i++) {
+            double half = (i * 10 + 5) / 1000.0;
+            double exact = i / 100.0;
+            assertEquals(format(half), KineticDataJsonWriter.formatFixed2(half), String.valueOf(half));
+            assertEquals(format(exact), KineticDataJsonWriter.formatFixed2(exact), String.valueOf(exact));
+        }
+    }
+
+    @Test
+    void randomValuesAcrossMagnitudesMatchFormat() {
+        SplittableRandom random = new SplittableRandom(20240101);
+        for (int i = 0; i < 1000000; i++) {
+            double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(-6, 22));
+            assertEquals(format(value), KineticDataJsonWriter.formatFixed2(value), String.valueOf(value));
+        }
+    }
+
+    @Test
+    void toJsonMatchesOldSerialization() throws Exception {
+        List<KineticData> dataList = new ArrayList<>();
+        for (double value : EDGE_VALUES) dataList.add(of(value));
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 1000; i++) dataList.add(of((random.nextDouble() - 0.5) * 100));
+        assertEquals(oldJson(dataList), KineticDataJsonWriter.toJson(dataList));
+        assertEquals(mapper.writeValueAsString(Collections.singletonMap("data", dataList)), KineticDataJsonWriter.toJson(dataList));
+        assertEquals("{\"data\":null}", KineticDataJsonWriter.toJson(null));
+    }
+
+    @Test
+    void stringConstructorIsLenient() {
+        KineticData data = new KineticData(" 2522", "abc", "-1.09", "1,5", "", null, "12.345", "NaN", "1e3");
+        assertEquals(2522, data.getId());
+        assertEquals(0, data.getType());
+        assertEquals(-1.09, data.getX());
+        assertEquals(Double.NaN, data.getY());
+        assertEquals(Double.NaN, data.getZ());
+        assertEquals(Double.NaN, data.getA());
+        assertEquals(12.345, data.getD());
+        assertEquals(Double.NaN, data.getVx());
+        assertEquals(1000.0, data.getVy());
+    }
+}
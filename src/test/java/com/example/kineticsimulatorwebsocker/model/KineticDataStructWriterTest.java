@@ -0,0 +1,42 @@
+package com.example.kineticsimulatorwebsocker.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 结构体帧：帧头字段与记录偏移，记录数超过65535时不截断
+ */
+class KineticDataStructWriterTest {
+
+    @Test
+    void headerAndRecordLayout() {
+        ByteBuffer buf = KineticDataStructWriter.encode(Collections.singletonList(
+                new KineticData(7, 2, 1.5, -2.5, 3, 90, 10, 0.25, -0.5))).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(KineticDataStructWriter.HEADER_BYTES + KineticDataStructWriter.RECORD_BYTES, buf.remaining());
+        assertEquals(2, buf.getShort(0));
+        assertEquals(0, buf.getShort(2));
+        assertEquals(1, buf.getInt(4));
+        assertEquals(7, buf.getInt(8));
+        assertEquals(2, buf.getInt(12));
+        assertEquals(1.5f, buf.getFloat(16));
+        assertEquals(-0.5f, buf.getFloat(40));
+    }
+
+    @Test
+    void recordCountAboveUint16IsNotTruncated() {
+        List<KineticData> dataList = new ArrayList<>();
+        for (int i = 0; i < 70000; i++) dataList.add(new KineticData(i, 0, 0, 0, 0, 0, 0, 0, 0));
+        ByteBuffer buf = KineticDataStructWriter.encode(dataList).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(70000, buf.getInt(4));
+        assertEquals(KineticDataStructWriter.HEADER_BYTES + 70000 * KineticDataStructWriter.RECORD_BYTES, buf.remaining());
+        int last = KineticDataStructWriter.HEADER_BYTES + 69999 * KineticDataStructWriter.RECORD_BYTES;
+        assertEquals(69999, buf.getInt(last));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.kineticsimulatorwebsocker.random;
+
+import com.example.kineticsimulatorwebsocker.generator.GeneratorPlan;
+import com.example.kineticsimulatorwebsocker.generator.TemplateCompiler;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 确定性回放：第N帧只由(seed, N)和推送间隔的变化决定，与之前生成过哪些帧无关
+ */
+class CounterRandomSourceTest {
+    private static final long SEED = 42;
+    private static final long EPOCH = CounterRandomSource.DEFAULT_EPOCH_MILLIS;
+
+    private GeneratorPlan plan;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JsonNode template = new ObjectMapper().readTree("{\"ts\":0,\"temp\":0.0,\"id\":0,\"name\":\"\"}");
+        Map<String, String> fieldTypes = new HashMap<>();
+        fieldTypes.put("ts", "timestamp_realtime");
+        fieldTypes.put("temp", "double");
+        fieldTypes.put("id", "int");
+        fieldTypes.put("name", "name");
+        plan = TemplateCompiler.compile(template, fieldTypes, null, null, "normal", 1);
+    }
+
+    private JsonNode frame(CounterRandomSource random, long tick) {
+        random.seekTick(tick);
+        return plan.generate(random);
+    }
+
+    @Test
+    void frameDependsOnlyOnSeedAndTick() {
+        CounterRandomSource sequential = new CounterRandomSource(SEED, EPOCH, 1000);
+        JsonNode expected = null;
+        for (long tick = 0; tick <= 7; tick++) {
+            expected = frame(sequential, tick);
+        }
+        // 调度器跳过或丢弃了第1~6个tick，第7帧不受影响
+        CounterRandomSource skipping = new CounterRandomSource(SEED, EPOCH, 1000);
+        frame(skipping, 0);
+        assertEquals(expected, frame(skipping, 7));
+        assertEquals(EPOCH + 7 * 1000, expected.get("ts").asLong());
+    }
+
+    @Test
+    void replayAfterIntervalChange() {
+        CounterRandomSource live = new CounterRandomSource(SEED, EPOCH, 1000);
+        for (long tick = 0; tick <= 3; tick++) {
+            frame(live, tick);
+        }
+        // 第3帧之后推送间隔改为500ms
+        live.rebase(3, 500);
+        JsonNode liveFrame3 = frame(live, 3);
+        JsonNode liveFrame6 = frame(live, 6);
+        assertEquals(EPOCH + 3000, liveFrame3.get("ts").asLong());
+        assertEquals(EPOCH + 3000 + 3 * 500, liveFrame6.get("ts").asLong());
+
+        // 回放时不需要重放之前的帧，只需按相同的间隔变化rebase
+        CounterRandomSource replay = new CounterRandomSource(SEED, EPOCH, 1000);
+        replay.rebase(3, 500);
+        assertEquals(liveFrame6, frame(replay, 6));
+        assertEquals(liveFrame3, frame(replay, 3));
+
+        // 间隔变化之前的帧时间不受影响
+        CounterRandomSource unchanged = new CounterRandomSource(SEED, EPOCH, 1000);
+        assertEquals(frame(unchanged, 2), frame(replay, 2));
+    }
+
+    @Test
+    void repeatedIntervalChangesAccumulate() {
+        CounterRandomSource random = new CounterRandomSource(SEED, EPOCH, 1000);
+        random.rebase(2, 500);
+        random.rebase(6, 2000);
+        random.seekTick(8);
+        random.beginTick();
+        assertEquals(EPOCH + 2 * 1000 + 4 * 500 + 2 * 2000, random.currentTimeMillis());
+        assertEquals(6, random.getOriginTick());
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.kineticsimulatorwebsocker.scheduler;
+
+import com.example.kineticsimulatorwebsocker.scheduler.TickScheduler.TickHandle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 时间轮调度：跨越多圈的任务、取消、跳过和减载丢弃的统计
+ */
+class TickSchedulerTest {
+    private TickScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) scheduler.shutdown();
+    }
+
+    @Test
+    void intervalLongerThanWheelFiresEveryRoundWithConsecutiveIndexes() throws Exception {
+        // 4个槽位、每槽1ms，30ms的间隔每次都要绕时间轮7圈以上
+        scheduler = new TickScheduler(1, 4, 1);
+        List<Long> indexes = new CopyOnWriteArrayList<>();
+        CountDownLatch fired = new CountDownLatch(5);
+        long start = System.nanoTime();
+        scheduler.schedule((tickIndex, intendedNanos, firedNanos) -> {
+            indexes.add(tickIndex);
+            fired.countDown();
+        }, 30);
+        assertTrue(fired.await(2, TimeUnit.SECONDS));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // 不会因为槽位号相同而提前执行
+        assertTrue(elapsedMillis >= 5 * 30 - 5, "elapsed " + elapsedMillis);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i + 1, indexes.get(i));
+        }
+    }
+
+    @Test
+    void cancelStopsTaskAndDecrementsScheduledCountOnce() throws Exception {
+        scheduler = new TickScheduler(1, 8, 1);
+        AtomicInteger runs = new AtomicInteger();
+        TickHandle handle = scheduler.schedule(runs::incrementAndGet, 5);
+        assertEquals(1, scheduler.getScheduledCount());
+        // 并发重复取消只递减一次
+        Thread[] cancellers = new Thread[8];
+        CountDownLatch go = new CountDownLatch(1);
+        for (int i = 0; i < cancellers.length; i++) {
+            cancellers[i] = new Thread(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException ignored) {
+                }
+                handle.cancel();
+            });
+            cancellers[i].start();
+        }
+        go.countDown();
+        for (Thread canceller : cancellers) canceller.join();
+        assertTrue(handle.isCancelled());
+        assertEquals(0, scheduler.getScheduledCount());
+        int afterCancel = runs.get();
+        Thread.sleep(50);
+        assertTrue(runs.get() <= afterCancel + 1, "task kept running after cancel");
+    }
+
+    @Test
+    void overlappingRunsAreSkipped() throws Exception {
+        scheduler = new TickScheduler(1, 8, 2);
+        CountDownLatch done = new CountDownLatch(3);
+        List<Long> indexes = new CopyOnWriteArrayList<>();
+        // 每次执行40ms，间隔10ms：执行期间到期的tick被跳过，但仍占用序号
+        TickHandle handle = scheduler.schedule((tickIndex, intendedNanos, firedNanos) -> {
+            indexes.add(tickIndex);
+            sleep(40);
+            done.countDown();
+        }, 10);
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        handle.cancel();
+        assertTrue(scheduler.getSkippedCount() > 0);
+        assertTrue(indexes.get(1) - indexes.get(0) > 1, "indexes " + indexes);
+    }
+
+    @Test
+    void lateTicksAreShedWhenEnabled() throws Exception {
+        // 单个工作线程被长任务占住，另一个任务的tick延迟超过一个间隔后被丢弃
+        scheduler = new TickScheduler(1, 8, 1);
+        scheduler.setShedLateTicks(true);
+        AtomicInteger quickRuns = new AtomicInteger();
+        TickHandle slow = scheduler.schedule(() -> sleep(60), 10);
+        TickHandle quick = scheduler.schedule(quickRuns::incrementAndGet, 10);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (scheduler.getShedCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        slow.cancel();
+        quick.cancel();
+        assertTrue(scheduler.getShedCount() > 0);
+        assertEquals(0, scheduler.getScheduledCount());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
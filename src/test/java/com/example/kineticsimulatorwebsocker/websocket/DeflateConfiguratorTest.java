@@ -0,0 +1,74 @@
+package com.example.kineticsimulatorwebsocker.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.websocket.Extension;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 压缩协商：按握手请求中模板对应的平均帧大小决定是否启用压缩，模板未知时按端点平均帧大小判断
+ */
+class DeflateConfiguratorTest {
+    private static final String PATH = "/deflate-test";
+    private static final List<Extension> DEFLATE = Collections.singletonList(new Extension() {
+        @Override
+        public String getName() {
+            return "permessage-deflate";
+        }
+
+        @Override
+        public List<Parameter> getParameters() {
+            return Collections.emptyList();
+        }
+    });
+
+    private static String text(int length) {
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) text.append('a');
+        return text.toString();
+    }
+
+    // 经过HandshakeFilter发起一次握手，返回是否协商了压缩
+    private static boolean handshake(DeflateConfigurator configurator, String query) throws Exception {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getHeader("Upgrade")).thenReturn("websocket");
+        when(request.getQueryString()).thenReturn(query);
+        AtomicBoolean accepted = new AtomicBoolean();
+        new DeflateConfigurator.HandshakeFilter().doFilter(request, mock(ServletResponse.class),
+                (req, res) -> accepted.set(!configurator.getNegotiatedExtensions(DEFLATE, DEFLATE).isEmpty()));
+        return accepted.get();
+    }
+
+    @Test
+    void thresholdUsesFrameSizeOfRequestedTemplate() throws Exception {
+        DeflateConfigurator.configure(PATH, new DeflateConfigurator.Settings(true, 1000, false, false), 1);
+        DeflateConfigurator configurator = new DeflateConfigurator(PATH) {
+            @Override
+            protected String compressionKey(String query) {
+                return queryParameter(query, "template");
+            }
+        };
+        CompressionStats stats = CompressionStats.forPath(PATH);
+        for (int i = 0; i < 10; i++) {
+            stats.recordFrame(text(20), false, "small");
+            stats.recordFrame(text(5000), false, "large");
+        }
+
+        assertFalse(handshake(configurator, "template=small"));
+        assertTrue(handshake(configurator, "delta=1&template=large"));
+        // 还没有采样的模板和不带模板的连接按整个端点的平均帧大小判断
+        assertEquals(stats.getAverageFrameBytes(), stats.getAverageFrameBytes("unknown"));
+        assertEquals(stats.getAverageFrameBytes() >= 1000, handshake(configurator, "template=unknown"));
+        assertEquals(stats.getAverageFrameBytes() >= 1000, handshake(configurator, null));
+    }
+}
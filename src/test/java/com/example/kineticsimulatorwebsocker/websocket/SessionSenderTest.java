@@ -0,0 +1,224 @@
+package com.example.kineticsimulatorwebsocker.websocket;
+
+import com.example.kineticsimulatorwebsocker.generator.PayloadBuffer;
+import com.example.kineticsimulatorwebsocker.generator.TextFragments;
+import com.example.kineticsimulatorwebsocker.metrics.PushMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.websocket.CloseReason;
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 发送队列：同一时刻只有一条消息在途且按提交顺序发送，队列满时按各溢出策略处理，
+ * 容器同步抛出异常时复位在途状态，超大文本帧按分片发送
+ */
+class SessionSenderTest {
+    private Session session;
+    private RemoteEndpoint.Async remote;
+    // 已交给容器的消息，以及对应的完成回调
+    private final List<String> written = new ArrayList<>();
+    private final List<SendHandler> handlers = new ArrayList<>();
+    private final AtomicInteger drops = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        session = mock(Session.class);
+        remote = mock(RemoteEndpoint.Async.class);
+        when(session.getId()).thenReturn("test");
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAsyncRemote()).thenReturn(remote);
+        when(session.getUserProperties()).thenReturn(new HashMap<>());
+        when(session.getNegotiatedExtensions()).thenReturn(Collections.emptyList());
+        doAnswer(invocation -> {
+            written.add(invocation.getArgument(0));
+            handlers.add(invocation.getArgument(1));
+            return null;
+        }).when(remote).sendText(anyString(), any(SendHandler.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SessionSender.remove(session);
+        SessionSender.configure(16, SendOverflowPolicy.DROP_OLDEST, 10000);
+        PayloadBuffer.configure(1024 * 1024);
+    }
+
+    private SessionSender open(int capacity, SendOverflowPolicy policy) {
+        SessionSender.configure(capacity, policy, 10000);
+        SessionSender sender = SessionSender.open(session, PushMetrics.DYNAMIC);
+        sender.setDropListener(drops::incrementAndGet);
+        return sender;
+    }
+
+    // 依次完成在途消息，直到队列发送完毕
+    private void completeAll() {
+        for (int i = 0; i < handlers.size(); i++) {
+            handlers.get(i).onResult(new SendResult());
+        }
+    }
+
+    private void sendAll(SessionSender sender, String... messages) {
+        for (String message : messages) sender.send(message);
+    }
+
+    @Test
+    void onlyOneMessageInFlightAndOrderIsKept() {
+        SessionSender sender = open(16, SendOverflowPolicy.DROP_OLDEST);
+        sendAll(sender, "a", "b", "c");
+        assertEquals(Collections.singletonList("a"), written);
+        assertEquals(2, sender.getQueueDepth());
+
+        handlers.get(0).onResult(new SendResult());
+        assertEquals(Arrays.asList("a", "b"), written);
+        handlers.get(1).onResult(new SendResult());
+        handlers.get(2).onResult(new SendResult());
+        assertEquals(Arrays.asList("a", "b", "c"), written);
+        assertEquals(3, sender.getSentCount());
+        assertEquals(0, sender.getQueueDepth());
+
+        // 队列清空后新消息立即发送
+        sender.send("d");
+        assertEquals(Arrays.asList("a", "b", "c", "d"), written);
+        assertEquals(0, drops.get());
+    }
+
+    @Test
+    void dropOldestKeepsNewestMessages() {
+        SessionSender sender = open(2, SendOverflowPolicy.DROP_OLDEST);
+        sendAll(sender, "a", "b", "c", "d");
+        completeAll();
+        assertEquals(Arrays.asList("a", "c", "d"), written);
+        assertEquals(1, sender.getDroppedCount());
+        assertEquals(1, drops.get());
+    }
+
+    @Test
+    void dropNewestKeepsQueuedMessages() {
+        SessionSender sender = open(2, SendOverflowPolicy.DROP_NEWEST);
+        sendAll(sender, "a", "b", "c", "d");
+        completeAll();
+        assertEquals(Arrays.asList("a", "b", "c"), written);
+        assertEquals(1, sender.getDroppedCount());
+        assertEquals(1, drops.get());
+    }
+
+    @Test
+    void coalesceKeepsOnlyLatestMessage() {
+        SessionSender sender = open(2, SendOverflowPolicy.COALESCE);
+        sendAll(sender, "a", "b", "c", "d");
+        completeAll();
+        assertEquals(Arrays.asList("a", "d"), written);
+        assertEquals(2, sender.getDroppedCount());
+        assertEquals(1, drops.get());
+    }
+
+    @Test
+    void disconnectClosesSlowClient() throws IOException {
+        SessionSender sender = open(2, SendOverflowPolicy.DISCONNECT);
+        sendAll(sender, "a", "b", "c", "d");
+        verify(session).close(any(CloseReason.class));
+        assertEquals(0, sender.getQueueDepth());
+        completeAll();
+        assertEquals(Collections.singletonList("a"), written);
+        assertEquals(1, drops.get());
+    }
+
+    @Test
+    void synchronousExceptionResetsInFlight() {
+        SessionSender sender = open(16, SendOverflowPolicy.DROP_OLDEST);
+        doAnswer(invocation -> {
+            throw new IllegalStateException("上一条消息仍在写入");
+        }).doAnswer(invocation -> {
+            written.add(invocation.getArgument(0));
+            handlers.add(invocation.getArgument(1));
+            return null;
+        }).when(remote).sendText(anyString(), any(SendHandler.class));
+
+        sender.send("a");
+        assertEquals(0, sender.getQueueDepth());
+        assertEquals(1, drops.get());
+
+        // 未复位在途状态时这条消息只会入队，永远不会发送
+        sender.send("b");
+        assertEquals(Collections.singletonList("b"), written);
+        completeAll();
+        assertEquals(1, sender.getSentCount());
+    }
+
+    @Test
+    void failedResultNotifiesAndContinuesWithQueue() {
+        SessionSender sender = open(16, SendOverflowPolicy.DROP_OLDEST);
+        sendAll(sender, "a", "b");
+        handlers.get(0).onResult(new SendResult(new IOException("超时")));
+        assertEquals(1, drops.get());
+        assertEquals(Arrays.asList("a", "b"), written);
+        handlers.get(1).onResult(new SendResult());
+        assertEquals(1, sender.getSentCount());
+    }
+
+    @Test
+    void closedSessionIsNotSent() {
+        SessionSender sender = open(16, SendOverflowPolicy.DROP_OLDEST);
+        when(session.isOpen()).thenReturn(false);
+        sender.send("a");
+        verify(remote, never()).sendText(anyString(), any(SendHandler.class));
+    }
+
+    @Test
+    void largeFrameIsSentAsFragmentsBeforeNextMessage() throws Exception {
+        SessionSender sender = open(16, SendOverflowPolicy.DROP_OLDEST);
+        RemoteEndpoint.Basic basic = mock(RemoteEndpoint.Basic.class);
+        when(session.getBasicRemote()).thenReturn(basic);
+        StringBuilder received = new StringBuilder();
+        List<Boolean> lastFlags = new ArrayList<>();
+        doAnswer(invocation -> {
+            received.append((String) invocation.getArgument(0));
+            lastFlags.add(invocation.getArgument(1));
+            return null;
+        }).when(basic).sendText(anyString(), anyBoolean());
+
+        PayloadBuffer.configure(1000);
+        PayloadBuffer payload = PayloadBuffer.forCurrentThread();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 30000; i++) expected.append(i).append(',');
+        payload.write(expected.toString());
+        Object frame = payload.toFrame();
+        assertTrue(frame instanceof TextFragments);
+
+        sender.send((TextFragments) frame, 0);
+        sender.send("next");
+        // 分片在发送线程上写出，完成后才发送队列中的下一条
+        verify(remote, timeout(5000)).sendText(anyString(), any(SendHandler.class));
+        assertEquals(expected.toString(), received.toString());
+        assertTrue(lastFlags.size() > 1);
+        for (int i = 0; i < lastFlags.size(); i++) {
+            assertEquals(i == lastFlags.size() - 1, lastFlags.get(i));
+        }
+        assertEquals(Collections.singletonList("next"), written);
+        assertEquals(1, sender.getSentCount());
+    }
+}